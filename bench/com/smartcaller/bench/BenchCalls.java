@@ -0,0 +1,99 @@
+package com.smartcaller.bench;
+
+import com.smartcaller.dao.InMemoryCallRepository;
+import com.smartcaller.exception.InvalidScheduleException;
+import com.smartcaller.model.Call;
+import com.smartcaller.model.CallStatus;
+import com.smartcaller.model.EmergencyCall;
+import com.smartcaller.model.VideoCall;
+import com.smartcaller.model.VoiceCall;
+import com.smartcaller.service.CallManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Test data shared by the benchmarks: calls spread over the next 30 days, ten per
+ * phone number, a third each voice, video and emergency.
+ */
+final class BenchCalls {
+    private static final PrintStream NULL_OUT = new PrintStream(OutputStream.nullOutputStream());
+
+    private BenchCalls() {
+    }
+
+    static List<Call> generate(int count, int population, Random random) {
+        List<Call> calls = new ArrayList<>(count);
+        LocalDateTime base = LocalDateTime.now().plusDays(1);
+        int phones = phoneCount(population);
+        for (int i = 0; i < count; i++) {
+            String phone = phoneNumber(random.nextInt(phones));
+            LocalDateTime time = base.plusMinutes(random.nextInt(60 * 24 * 30));
+            Call call;
+            switch (random.nextInt(3)) {
+                case 0 -> call = new VideoCall("Contact " + i, phone, time, "Zoom");
+                case 1 -> call = new EmergencyCall("Contact " + i, phone, time, "Urgent");
+                default -> call = new VoiceCall("Contact " + i, phone, time);
+            }
+            if (!(call instanceof EmergencyCall)) {
+                call.setPriority(1 + random.nextInt(9));
+            }
+            call.setId(i + 1);
+            call.setStatus(CallStatus.PENDING);
+            calls.add(call);
+        }
+        return calls;
+    }
+
+    static int phoneCount(int population) {
+        return Math.max(1, population / 10);
+    }
+
+    static String phoneNumber(int index) {
+        return "+1555" + String.format("%07d", index);
+    }
+
+    static CallManager populatedManager(int size, Random random) {
+        CallManager manager = new CallManager(new InMemoryCallRepository());
+        manager.scheduleCalls(generate(size, size, random));
+        return manager;
+    }
+
+    static void schedule(CallManager manager, Call call) {
+        try {
+            manager.scheduleCall(call);
+        } catch (InvalidScheduleException e) {
+            throw new IllegalStateException("Benchmark setup failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Silences the CallManager console messages for the rest of the run; returns the
+     * stream to restore.
+     */
+    static PrintStream silence() {
+        PrintStream out = System.out;
+        System.setOut(NULL_OUT);
+        return out;
+    }
+
+    static void deleteDirectory(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path path : files.toList()) {
+                Files.deleteIfExists(path);
+            }
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
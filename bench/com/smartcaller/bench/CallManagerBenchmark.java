@@ -0,0 +1,122 @@
+package com.smartcaller.bench;
+
+import com.smartcaller.model.Call;
+import com.smartcaller.service.CallManager;
+import com.smartcaller.service.NextCallExplanation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CallManager hot paths against an in-memory database stand-in, at each queue size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class CallManagerBenchmark {
+    private static final int EXTRA_CALLS = 10_000;
+    private static final int DRAIN_BATCH = 1_000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private CallManager manager;
+    private List<Call> extra;
+    private int nextExtra;
+    private Random random;
+    private PrintStream out;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        out = BenchCalls.silence();
+        random = new Random(42);
+        manager = BenchCalls.populatedManager(size, random);
+        extra = BenchCalls.generate(EXTRA_CALLS, size, random);
+    }
+
+    @TearDown(Level.Trial)
+    public void restoreOutput() {
+        System.setOut(out);
+    }
+
+    /** scheduleCall and then undoLastAction, so the queue keeps its size. */
+    @Benchmark
+    public boolean scheduleThenUndo() {
+        Call call = extra.get(nextExtra++ % EXTRA_CALLS);
+        BenchCalls.schedule(manager, call);
+        return manager.undoLastAction();
+    }
+
+    /** Copies every pending call, so this one grows with the queue. */
+    @Benchmark
+    public List<Call> getUpcomingCalls() {
+        return manager.getUpcomingCalls();
+    }
+
+    /** Over a spread of numbers; the first lookup per number loads, the rest hit the cache. */
+    @Benchmark
+    public List<Call> getCallHistory() {
+        return manager.getCallHistory(BenchCalls.phoneNumber(random.nextInt(BenchCalls.phoneCount(size))));
+    }
+
+    /** The next 5 half-hour slots, searched from a random day. */
+    @Benchmark
+    public List<LocalDateTime> findFreeSlots() {
+        return manager.findFreeSlots(30, LocalDateTime.now().plusMinutes(random.nextInt(60 * 24 * 30)), 5);
+    }
+
+    /** The scored head and runner-up, without taking either. */
+    @Benchmark
+    public NextCallExplanation explainNextCall() {
+        return manager.explainNextCall();
+    }
+
+    /**
+     * Takes calls off the queue; the ones taken are replaced before each batch, outside
+     * the measured time.
+     */
+    @Benchmark
+    @OperationsPerInvocation(DRAIN_BATCH)
+    public void processNextCall(Refill refill, Blackhole blackhole) {
+        for (int i = 0; i < DRAIN_BATCH; i++) {
+            blackhole.consume(manager.processNextCall());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Refill {
+        private Random random;
+
+        @Setup(Level.Trial)
+        public void seed() {
+            random = new Random(7);
+        }
+
+        @Setup(Level.Invocation)
+        public void refill(CallManagerBenchmark benchmark) {
+            benchmark.manager.scheduleCalls(BenchCalls.generate(DRAIN_BATCH, benchmark.size, random));
+        }
+    }
+}
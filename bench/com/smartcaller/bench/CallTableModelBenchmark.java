@@ -0,0 +1,49 @@
+package com.smartcaller.bench;
+
+import com.smartcaller.ui.CallTableModel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CallTableModel.getValueAt across random cells, as the table renderer calls it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class CallTableModelBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private CallTableModel model;
+    private Random random;
+    private int column;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        random = new Random(42);
+        model = new CallTableModel(BenchCalls.generate(size, size, random));
+    }
+
+    @Benchmark
+    public Object getValueAt() {
+        column = (column + 1) % model.getColumnCount();
+        return model.getValueAt(random.nextInt(size), column);
+    }
+}
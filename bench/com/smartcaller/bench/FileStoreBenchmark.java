@@ -0,0 +1,114 @@
+package com.smartcaller.bench;
+
+import com.smartcaller.dao.FileCallRepository;
+import com.smartcaller.exception.InvalidScheduleException;
+import com.smartcaller.model.Call;
+import com.smartcaller.model.CallStatus;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FileCallRepository write costs, and the startup cost of replaying the whole file into
+ * the indexes. The file lives in a temporary directory that is deleted afterwards.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class FileStoreBenchmark {
+    private static final int EXTRA_CALLS = 10_000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Path dir;
+    private Path file;
+    private FileCallRepository repository;
+    private List<Call> extra;
+    private int next;
+    private PrintStream out;
+
+    @Setup(Level.Trial)
+    public void populate() throws IOException, SQLException {
+        out = BenchCalls.silence();
+        Random random = new Random(42);
+        dir = Files.createTempDirectory("smartcaller-bench");
+        file = dir.resolve("calls.db");
+        try (FileCallRepository writer = FileCallRepository.open(file)) {
+            writer.addCalls(BenchCalls.generate(size, size, random), 1_000);
+        }
+        repository = FileCallRepository.open(file);
+        extra = BenchCalls.generate(EXTRA_CALLS, size, random);
+        for (Call call : extra) {
+            call.setId(repository.addCalls(List.of(call), 1)[0]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() {
+        repository.close();
+        BenchCalls.deleteDirectory(dir);
+        System.setOut(out);
+    }
+
+    @Benchmark
+    public int addCall() throws SQLException, InvalidScheduleException {
+        return repository.addCall(extra.get(next++ % EXTRA_CALLS));
+    }
+
+    /** Flips calls between completed and pending, so every write changes the row. */
+    @Benchmark
+    public boolean updateCallStatus() throws SQLException {
+        int i = next++;
+        Call call = extra.get(i % EXTRA_CALLS);
+        return repository.updateCallStatus(call.getId(),
+                (i / EXTRA_CALLS) % 2 == 0 ? CallStatus.COMPLETED : CallStatus.PENDING);
+    }
+
+    /** Opens the file populated at the start of the run; each open is timed on its own. */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public FileCallRepository open(Opened opened) throws SQLException {
+        opened.repository = FileCallRepository.open(file);
+        return opened.repository;
+    }
+
+    @State(Scope.Thread)
+    public static class Opened {
+        FileCallRepository repository;
+
+        @TearDown(Level.Iteration)
+        public void close() {
+            if (repository != null) {
+                repository.close();
+                repository = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.smartcaller.bench;
+
+import com.smartcaller.util.InputValidator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The String.matches checks InputValidator replaced, against the validator, on a mix of
+ * good and bad input.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValidationBenchmark {
+    private final String[] phones = {"+15551234567", "15551234567", "+1555123", "555-123-4567", "+441632960961", "abcdefghijk"};
+    private final String[] emails = {"alice@example.com", "bob.smith+tag@mail.example.org", "no-at-sign", "@example.com", "x@y"};
+    private int next;
+
+    @Benchmark
+    public boolean phoneStringMatches() {
+        return phones[next++ % phones.length].matches("^[+]?[0-9]{10,15}$");
+    }
+
+    @Benchmark
+    public boolean phoneInputValidator() {
+        return InputValidator.isValidPhoneNumber(phones[next++ % phones.length]);
+    }
+
+    @Benchmark
+    public boolean emailStringMatches() {
+        return emails[next++ % emails.length].matches("^[A-Za-z0-9+_.-]+@(.+)$");
+    }
+
+    @Benchmark
+    public boolean emailInputValidator() {
+        return InputValidator.isValidEmail(emails[next++ % emails.length]);
+    }
+}
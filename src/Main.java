@@ -1,7 +1,10 @@
 package com.smartcaller;
 
 import com.smartcaller.model.*;
+import com.smartcaller.service.CallDispatcher;
 import com.smartcaller.service.CallManager;
+import com.smartcaller.service.ConsoleCallAlert;
+import com.smartcaller.service.ReminderScheduler;
 import com.smartcaller.exception.InvalidScheduleException;
 
 import javax.swing.*;
@@ -9,6 +12,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Scanner;
+import java.util.stream.Stream;
 
 public class Main {
     public static void main(String[] args) {
@@ -80,6 +84,8 @@ public class Main {
  */
 class ConsoleInterface {
     private static final CallManager callManager = new CallManager();
+    private static final CallDispatcher callDispatcher = new CallDispatcher(callManager);
+    private static final ReminderScheduler reminderScheduler = ReminderScheduler.fromSystemProperties(callManager);
     private static final Scanner scanner = new Scanner(System.in);
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
@@ -87,6 +93,12 @@ class ConsoleInterface {
         System.out.println("=== Smart Caller & Scheduler ===");
         System.out.println("Welcome to your personal call management system!");
 
+        callDispatcher.addListener(new ConsoleCallAlert());
+        callDispatcher.start();
+        if (reminderScheduler != null) {
+            reminderScheduler.start();
+        }
+
         boolean running = true;
         while (running) {
             displayMenu();
@@ -125,6 +137,11 @@ class ConsoleInterface {
                     System.out.println("Invalid choice! Please try again.");
             }
         }
+        callDispatcher.stop();
+        if (reminderScheduler != null) {
+            reminderScheduler.stop();
+        }
+        callManager.saveSnapshot();
         scanner.close();
     }
 
@@ -146,31 +163,33 @@ class ConsoleInterface {
         System.out.println("\n--- All Calls in Database ---");
         System.out.println("Fetching all calls from database...");
 
-        try {
-            List<Call> allCalls = callManager.getAllCallsFromDatabase();
-
-            if (allCalls.isEmpty()) {
+        // Rows are printed as they arrive from the database instead of being buffered first
+        try (Stream<Call> allCalls = callManager.streamAllCallsFromDatabase()) {
+            int[] count = {0};
+            allCalls.forEach(call -> {
+                if (count[0]++ == 0) {
+                    System.out.println("========================================================================================================================");
+                    System.out.printf("%-3s %-15s %-12s %-18s %-12s %-8s %-10s %-15s%n",
+                            "ID", "Contact", "Phone", "Scheduled Time", "Type", "Priority", "Status", "Info");
+                    System.out.println("========================================================================================================================");
+                }
+                String additionalInfo = getAdditionalInfo(call);
+                System.out.printf("%-3d %-15s %-12s %-18s %-12s %-8d %-10s %-15s%n",
+                        call.getId(),
+                        truncateString(call.getContactName(), 15),
+                        truncateString(call.getPhoneNumber(), 12),
+                        call.getScheduledTime().format(DateTimeFormatter.ofPattern("MM/dd HH:mm")),
+                        truncateString(call.getCallType().replace("_CALL", ""), 12),
+                        call.getPriority(),
+                        call.getStatus(),
+                        truncateString(additionalInfo, 15));
+            });
+
+            if (count[0] == 0) {
                 System.out.println("No calls found in the database!");
             } else {
-                System.out.println("Total calls in database: " + allCalls.size());
-                System.out.println("========================================================================================================================");
-                System.out.printf("%-3s %-15s %-12s %-18s %-12s %-8s %-10s %-15s%n",
-                        "ID", "Contact", "Phone", "Scheduled Time", "Type", "Priority", "Status", "Info");
-                System.out.println("========================================================================================================================");
-
-                for (Call call : allCalls) {
-                    String additionalInfo = getAdditionalInfo(call);
-                    System.out.printf("%-3d %-15s %-12s %-18s %-12s %-8d %-10s %-15s%n",
-                            call.getId(),
-                            truncateString(call.getContactName(), 15),
-                            truncateString(call.getPhoneNumber(), 12),
-                            call.getScheduledTime().format(DateTimeFormatter.ofPattern("MM/dd HH:mm")),
-                            truncateString(call.getCallType().replace("_CALL", ""), 12),
-                            call.getPriority(),
-                            call.getStatus(),
-                            truncateString(additionalInfo, 15));
-                }
                 System.out.println("========================================================================================================================");
+                System.out.println("Total calls in database: " + count[0]);
             }
         } catch (Exception e) {
             System.out.println("Error fetching calls from database: " + e.getMessage());
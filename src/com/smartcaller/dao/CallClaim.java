@@ -0,0 +1,19 @@
+package com.smartcaller.dao;
+
+import com.smartcaller.model.CallStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * A call's claim state as seen by CallRepository.claimCalls: its status, who holds it and
+ * until when (the store's clock). owner and leaseUntil are null if the call is unclaimed.
+ */
+public record CallClaim(int callId, CallStatus status, String owner, LocalDateTime leaseUntil) {
+
+    /**
+     * True if the call is still pending and owner holds it.
+     */
+    public boolean heldBy(String owner) {
+        return status == CallStatus.PENDING && owner.equals(this.owner);
+    }
+}
@@ -2,36 +2,47 @@ package com.smartcaller.dao;
 
 import com.smartcaller.model.*;
 import com.smartcaller.util.DatabaseConnection;
+import com.smartcaller.util.PhoneNumbers;
 import com.smartcaller.exception.InvalidScheduleException;
 
 import java.sql.*;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class CallDAO {
+/**
+ * MySQL-backed CallRepository, using the shared DatabaseConnection pool.
+ */
+public class CallDAO implements CallRepository {
 
-    public int addCall(Call call) throws SQLException, InvalidScheduleException {
-        // Validate schedule time
-        if (call.getScheduledTime().isBefore(LocalDateTime.now())) {
-            throw new InvalidScheduleException("Cannot schedule call in the past");
-        }
+    // Rows requested per round trip when streaming (needs useCursorFetch on the MySQL URL)
+    private static final int STREAM_FETCH_SIZE = 500;
 
-        // Validate phone number
-        if (!isValidPhoneNumber(call.getPhoneNumber())) {
-            throw new InvalidScheduleException("Invalid phone number format");
-        }
+    private static final String INSERT_SQL =
+            "INSERT INTO calls (contact_name, phone_number, scheduled_time, call_type, priority, phone_key, duration_minutes) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
 
-        String sql = "INSERT INTO calls (contact_name, phone_number, scheduled_time, call_type, priority) VALUES (?, ?, ?, ?, ?)";
+    private static volatile boolean columnsReady;
+    private static volatile boolean seriesTableReady;
+
+    @Override
+    public int addCall(Call call) throws SQLException, InvalidScheduleException {
+        validateCall(call);
+        ensureColumns();
 
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
 
-            stmt.setString(1, call.getContactName());
-            stmt.setString(2, call.getPhoneNumber());
-            stmt.setTimestamp(3, Timestamp.valueOf(call.getScheduledTime()));
-            stmt.setString(4, call.getCallType());
-            stmt.setInt(5, call.getPriority());
+            bindInsert(stmt, call);
 
             int affectedRows = stmt.executeUpdate();
 
@@ -46,7 +57,167 @@ public class CallDAO {
         }
     }
 
+    /**
+     * Inserts many calls with JDBC batching inside a single transaction, flushing every
+     * chunkSize rows. Generated ids are returned in the same order as the input list.
+     * Callers are expected to have run validateCall on every row beforehand.
+     */
+    @Override
+    public int[] addCalls(List<Call> calls, int chunkSize) throws SQLException {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        int[] ids = new int[calls.size()];
+        if (calls.isEmpty()) {
+            return ids;
+        }
+        ensureColumns();
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                insertAll(conn, calls, chunkSize, ids);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        return ids;
+    }
+
+    // Batched insert on the caller's transaction; fills in the generated ids
+    private void insertAll(Connection conn, List<Call> calls, int chunkSize, int[] ids) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (int start = 0; start < calls.size(); start += chunkSize) {
+                int end = Math.min(start + chunkSize, calls.size());
+                for (int i = start; i < end; i++) {
+                    bindInsert(stmt, calls.get(i));
+                    stmt.addBatch();
+                }
+
+                try {
+                    stmt.executeBatch();
+                } catch (BatchUpdateException e) {
+                    // Drivers stop (or mark EXECUTE_FAILED) at the first rejected row of the chunk
+                    int failedRow = start + firstFailedIndex(e.getUpdateCounts());
+                    throw new SQLException("Row " + failedRow + " rejected: " + e.getMessage(), e);
+                }
+
+                int row = start;
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    while (generatedKeys.next() && row < end) {
+                        ids[row++] = generatedKeys.getInt(1);
+                    }
+                }
+                if (row != end) {
+                    throw new SQLException("Expected " + (end - start) + " generated keys but got " + (row - start));
+                }
+            }
+        }
+    }
+
+    private int firstFailedIndex(int[] updateCounts) {
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == Statement.EXECUTE_FAILED) {
+                return i;
+            }
+        }
+        return updateCounts.length;
+    }
+
+    private void bindInsert(PreparedStatement stmt, Call call) throws SQLException {
+        stmt.setString(1, call.getContactName());
+        stmt.setString(2, call.getPhoneNumber());
+        stmt.setTimestamp(3, Timestamp.valueOf(call.getScheduledTime()));
+        stmt.setString(4, call.getCallType());
+        stmt.setInt(5, call.getPriority());
+        stmt.setLong(6, PhoneNumbers.key(call.getPhoneNumber()));
+        stmt.setInt(7, call.getDurationMinutes());
+    }
+
+    /**
+     * Columns that came after the original schema, added on first use:
+     * phone_key holds PhoneNumbers.key(phone_number), so history lookups match every
+     * spelling of a number through an index (existing rows are back-filled),
+     * duration_minutes is the expected call length (existing rows get the default), and
+     * claimed_by / lease_until record who is working a call and until when (see claimCalls).
+     * idx_calls_time_id backs the keyset paging in getCallsAfter, and idx_calls_status_time
+     * lets getCallsByStatus read just the rows it wants, already in order.
+     */
+    private static void ensureColumns() throws SQLException {
+        if (columnsReady) {
+            return;
+        }
+        synchronized (CallDAO.class) {
+            if (columnsReady) {
+                return;
+            }
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                addColumnIfMissing(conn, "phone_key",
+                        "ADD COLUMN phone_key BIGINT NULL, ADD INDEX idx_calls_phone_key (phone_key)");
+                addColumnIfMissing(conn, "duration_minutes",
+                        "ADD COLUMN duration_minutes INT NOT NULL DEFAULT " + Call.DEFAULT_DURATION_MINUTES);
+                addColumnIfMissing(conn, "claimed_by",
+                        "ADD COLUMN claimed_by VARCHAR(64) NULL, ADD COLUMN lease_until DATETIME NULL");
+                addIndexIfMissing(conn, "idx_calls_time_id", "(scheduled_time, id)");
+                addIndexIfMissing(conn, "idx_calls_status_time", "(status, scheduled_time)");
+                backfillPhoneKeys(conn);
+            }
+            columnsReady = true;
+        }
+    }
+
+    private static void addColumnIfMissing(Connection conn, String column, String alteration) throws SQLException {
+        try (ResultSet columns = conn.getMetaData().getColumns(conn.getCatalog(), null, "calls", column)) {
+            if (columns.next()) {
+                return;
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("ALTER TABLE calls " + alteration);
+        }
+        System.out.println("✅ Added calls." + column + " column.");
+    }
+
+    private static void addIndexIfMissing(Connection conn, String index, String columns) throws SQLException {
+        try (ResultSet indexes = conn.getMetaData().getIndexInfo(conn.getCatalog(), null, "calls", false, true)) {
+            while (indexes.next()) {
+                if (index.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                    return;
+                }
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("ALTER TABLE calls ADD INDEX " + index + " " + columns);
+        }
+        System.out.println("✅ Added calls." + index + " index.");
+    }
+
+    // Numbers that have no key get NO_KEY rather than NULL, so they aren't rescanned every start
+    private static void backfillPhoneKeys(Connection conn) throws SQLException {
+        int updated = 0;
+        try (Statement select = conn.createStatement();
+             ResultSet rs = select.executeQuery("SELECT id, phone_number FROM calls WHERE phone_key IS NULL");
+             PreparedStatement update = conn.prepareStatement("UPDATE calls SET phone_key = ? WHERE id = ?")) {
+            while (rs.next()) {
+                update.setLong(1, PhoneNumbers.key(rs.getString(2)));
+                update.setInt(2, rs.getInt(1));
+                update.addBatch();
+                if (++updated % 500 == 0) {
+                    update.executeBatch();
+                }
+            }
+            update.executeBatch();
+        }
+        if (updated > 0) {
+            System.out.println("✅ Filled in phone_key for " + updated + " calls.");
+        }
+    }
+
+    @Override
     public List<Call> getAllCalls() throws SQLException {
+        ensureColumns();
         List<Call> calls = new ArrayList<>();
         String sql = "SELECT * FROM calls ORDER BY scheduled_time ASC";
 
@@ -62,14 +233,128 @@ public class CallDAO {
         return calls;
     }
 
+    /**
+     * Keyset pagination over all calls in (scheduled_time, id) order. Pass the scheduled time
+     * and id of the last row of the previous page, or null and 0 for the first page.
+     * Each page is a range scan of limit rows on idx_calls_time_id, however deep into the
+     * table it is. The leading scheduled_time >= ? is implied by the rest of the predicate;
+     * it is there so the optimizer always gets a single range to start the scan from.
+     */
+    @Override
+    public List<Call> getCallsAfter(LocalDateTime scheduledTime, int id, int limit) throws SQLException {
+        ensureColumns();
+        List<Call> calls = new ArrayList<>(Math.min(limit, 1000));
+        String sql = scheduledTime == null
+                ? "SELECT * FROM calls ORDER BY scheduled_time ASC, id ASC LIMIT ?"
+                : "SELECT * FROM calls WHERE scheduled_time >= ? AND (scheduled_time > ? OR id > ?) "
+                + "ORDER BY scheduled_time ASC, id ASC LIMIT ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            if (scheduledTime == null) {
+                stmt.setInt(1, limit);
+            } else {
+                Timestamp after = Timestamp.valueOf(scheduledTime);
+                stmt.setTimestamp(1, after);
+                stmt.setTimestamp(2, after);
+                stmt.setInt(3, id);
+                stmt.setInt(4, limit);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    calls.add(createCallFromResultSet(rs));
+                }
+            }
+        }
+        return calls;
+    }
+
+    /**
+     * Streams every call in scheduled-time order without buffering the table in memory.
+     * The stream holds a pooled connection open until it is closed, so always use it in
+     * try-with-resources. SQL errors while iterating surface as IllegalStateException.
+     */
+    @Override
+    public Stream<Call> streamAllCalls() throws SQLException {
+        ensureColumns();
+        String sql = "SELECT * FROM calls ORDER BY scheduled_time ASC, id ASC";
+
+        Connection conn = DatabaseConnection.getConnection();
+        PreparedStatement stmt = null;
+        try {
+            stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            return streamOf(conn, stmt, stmt.executeQuery());
+        } catch (SQLException | RuntimeException e) {
+            if (stmt != null) {
+                stmt.close();
+            }
+            conn.close();
+            throw e;
+        }
+    }
+
+    private Stream<Call> streamOf(Connection conn, Statement stmt, ResultSet rs) {
+        Spliterator<Call> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Call> action) {
+                try {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    action.accept(createCallFromResultSet(rs));
+                    return true;
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Error reading calls: " + e.getMessage(), e);
+                }
+            }
+        };
+
+        return StreamSupport.stream(rows, false).onClose(() -> {
+            try (conn; stmt; rs) {
+                // closed in reverse order by try-with-resources
+            } catch (SQLException e) {
+                System.err.println("Error closing call stream: " + e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public List<Call> getCallsByStatus(CallStatus status) throws SQLException {
+        ensureColumns();
+        List<Call> calls = new ArrayList<>();
+        String sql = "SELECT * FROM calls WHERE status = ? ORDER BY scheduled_time ASC, id ASC";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            stmt.setString(1, status.name());
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    calls.add(createCallFromResultSet(rs));
+                }
+            }
+        }
+        return calls;
+    }
+
+    @Override
     public List<Call> getCallsByPhoneNumber(String phoneNumber) throws SQLException {
         List<Call> calls = new ArrayList<>();
-        String sql = "SELECT * FROM calls WHERE phone_number = ? ORDER BY scheduled_time DESC";
+        long key = PhoneNumbers.key(phoneNumber);
+        if (key == PhoneNumbers.NO_KEY) {
+            return calls;
+        }
+        ensureColumns();
+        String sql = "SELECT * FROM calls WHERE phone_key = ? ORDER BY scheduled_time DESC, id DESC";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, phoneNumber);
+            stmt.setLong(1, key);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     Call call = createCallFromResultSet(rs);
@@ -80,8 +365,14 @@ public class CallDAO {
         return calls;
     }
 
+    /**
+     * Leaves calls alone while someone holds an unexpired claim on them; those are
+     * finished through completeClaim.
+     */
+    @Override
     public boolean updateCallStatus(int callId, CallStatus status) throws SQLException {
-        String sql = "UPDATE calls SET status = ? WHERE id = ?";
+        ensureColumns();
+        String sql = "UPDATE calls SET status = ? WHERE id = ? AND (claimed_by IS NULL OR lease_until < NOW())";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -93,6 +384,20 @@ public class CallDAO {
         }
     }
 
+    @Override
+    public boolean updateScheduledTime(int callId, LocalDateTime scheduledTime) throws SQLException {
+        String sql = "UPDATE calls SET scheduled_time = ? WHERE id = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setTimestamp(1, Timestamp.valueOf(scheduledTime));
+            stmt.setInt(2, callId);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    @Override
     public boolean deleteCall(int callId) throws SQLException {
         String sql = "DELETE FROM calls WHERE id = ?";
 
@@ -104,10 +409,350 @@ public class CallDAO {
         }
     }
 
+    /**
+     * SELECT ... FOR UPDATE SKIP LOCKED over the candidates, in the caller's order, then one
+     * batched UPDATE of the granted rows, in one transaction. Rows another instance is
+     * claiming right now are skipped instead of waited for, so concurrent claimers spread
+     * over the candidates rather than queueing on the first. Leases run on the database
+     * clock, so instances need not agree on the time. Needs MySQL 8.0 or later.
+     */
+    @Override
+    public List<CallClaim> claimCalls(List<Integer> callIds, String owner, Duration lease, int limit) throws SQLException {
+        List<CallClaim> result = new ArrayList<>();
+        if (callIds.isEmpty() || limit < 1) {
+            return result;
+        }
+        ensureColumns();
+        StringJoiner marks = new StringJoiner(", ");
+        for (int i = 0; i < callIds.size(); i++) {
+            marks.add("?");
+        }
+        String select = "SELECT id, status, claimed_by, lease_until, NOW() AS db_now FROM calls WHERE id IN (" + marks
+                + ") ORDER BY FIELD(id, " + marks + ") FOR UPDATE SKIP LOCKED";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(select);
+             PreparedStatement claim = conn.prepareStatement("UPDATE calls SET claimed_by = ?, lease_until = ? WHERE id = ?")) {
+
+            conn.setAutoCommit(false);
+            try {
+                for (int i = 0; i < callIds.size(); i++) {
+                    stmt.setInt(i + 1, callIds.get(i));
+                    stmt.setInt(callIds.size() + i + 1, callIds.get(i));
+                }
+                int granted = 0;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (granted < limit && rs.next()) {
+                        int id = rs.getInt("id");
+                        CallStatus status = CallStatus.valueOf(rs.getString("status"));
+                        String holder = rs.getString("claimed_by");
+                        Timestamp until = rs.getTimestamp("lease_until");
+                        LocalDateTime now = rs.getTimestamp("db_now").toLocalDateTime();
+                        if (status != CallStatus.PENDING) {
+                            result.add(new CallClaim(id, status, null, null));
+                        } else if (holder != null && !holder.equals(owner) && until != null
+                                && until.toLocalDateTime().isAfter(now)) {
+                            result.add(new CallClaim(id, status, holder, until.toLocalDateTime()));
+                        } else {
+                            LocalDateTime leaseUntil = now.plus(lease);
+                            claim.setString(1, owner);
+                            claim.setTimestamp(2, Timestamp.valueOf(leaseUntil));
+                            claim.setInt(3, id);
+                            claim.addBatch();
+                            result.add(new CallClaim(id, status, owner, leaseUntil));
+                            granted++;
+                        }
+                    }
+                }
+                if (granted > 0) {
+                    claim.executeBatch();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean completeClaim(int callId, String owner, CallStatus status) throws SQLException {
+        ensureColumns();
+        String sql = "UPDATE calls SET status = ?, claimed_by = NULL, lease_until = NULL "
+                + "WHERE id = ? AND status = 'PENDING' AND claimed_by = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, status.name());
+            stmt.setInt(2, callId);
+            stmt.setString(3, owner);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public boolean releaseClaim(int callId, String owner) throws SQLException {
+        ensureColumns();
+        String sql = "UPDATE calls SET claimed_by = NULL, lease_until = NULL WHERE id = ? AND claimed_by = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, callId);
+            stmt.setString(2, owner);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Recurring series live in their own small table, created on first use. Exceptions are
+     * stored as a comma-separated list of ISO dates.
+     */
+    private static void ensureSeriesTable() throws SQLException {
+        if (seriesTableReady) {
+            return;
+        }
+        String sql = "CREATE TABLE IF NOT EXISTS call_series ("
+                + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                + "contact_name VARCHAR(100) NOT NULL, "
+                + "phone_number VARCHAR(20) NOT NULL, "
+                + "call_type VARCHAR(20) NOT NULL, "
+                + "detail VARCHAR(100) NULL, "
+                + "priority INT NOT NULL, "
+                + "duration_minutes INT NOT NULL DEFAULT " + Call.DEFAULT_DURATION_MINUTES + ", "
+                + "starts_at DATETIME NOT NULL, "
+                + "rrule VARCHAR(255) NOT NULL, "
+                + "exceptions TEXT NULL, "
+                + "expanded_through DATETIME NULL, "
+                + "expanded_count INT NOT NULL DEFAULT 0)";
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+        seriesTableReady = true;
+    }
+
+    @Override
+    public int addSeries(CallSeries series) throws SQLException {
+        ensureSeriesTable();
+        String sql = "INSERT INTO call_series (contact_name, phone_number, call_type, detail, priority, "
+                + "duration_minutes, starts_at, rrule, exceptions, expanded_through, expanded_count) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+            bindSeries(stmt, series);
+            stmt.executeUpdate();
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    series.setId(generatedKeys.getInt(1));
+                    return series.getId();
+                }
+            }
+            return -1;
+        }
+    }
+
+    @Override
+    public List<CallSeries> getAllSeries() throws SQLException {
+        ensureSeriesTable();
+        List<CallSeries> series = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT * FROM call_series ORDER BY id")) {
+            while (rs.next()) {
+                series.add(createSeriesFromResultSet(rs));
+            }
+        }
+        return series;
+    }
+
+    @Override
+    public boolean updateSeries(CallSeries series) throws SQLException {
+        ensureSeriesTable();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return updateSeries(conn, series);
+        }
+    }
+
+    private boolean updateSeries(Connection conn, CallSeries series) throws SQLException {
+        String sql = "UPDATE call_series SET contact_name = ?, phone_number = ?, call_type = ?, detail = ?, "
+                + "priority = ?, duration_minutes = ?, starts_at = ?, rrule = ?, exceptions = ?, "
+                + "expanded_through = ?, expanded_count = ? WHERE id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            bindSeries(stmt, series);
+            stmt.setInt(12, series.getId());
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Inserts the occurrences and moves the series' expansion point in one transaction.
+     */
+    @Override
+    public int[] addOccurrences(CallSeries series, List<Call> occurrences) throws SQLException {
+        ensureColumns();
+        ensureSeriesTable();
+        int[] ids = new int[occurrences.size()];
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                insertAll(conn, occurrences, Math.max(1, occurrences.size()), ids);
+                if (!updateSeries(conn, series)) {
+                    throw new SQLException("No series " + series.getId());
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public boolean deleteSeries(int seriesId) throws SQLException {
+        ensureSeriesTable();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM call_series WHERE id = ?")) {
+
+            stmt.setInt(1, seriesId);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    private void bindSeries(PreparedStatement stmt, CallSeries series) throws SQLException {
+        stmt.setString(1, series.getContactName());
+        stmt.setString(2, series.getPhoneNumber());
+        stmt.setString(3, series.getCallType());
+        stmt.setString(4, series.getDetail());
+        stmt.setInt(5, series.getPriority());
+        stmt.setInt(6, series.getDurationMinutes());
+        stmt.setTimestamp(7, Timestamp.valueOf(series.getStart()));
+        stmt.setString(8, series.getRule().toString());
+        StringJoiner exceptions = new StringJoiner(",");
+        for (LocalDate date : series.getExceptions()) {
+            exceptions.add(date.toString());
+        }
+        stmt.setString(9, exceptions.toString());
+        stmt.setTimestamp(10, series.getExpandedThrough() != null ? Timestamp.valueOf(series.getExpandedThrough()) : null);
+        stmt.setInt(11, series.getExpandedCount());
+    }
+
+    private CallSeries createSeriesFromResultSet(ResultSet rs) throws SQLException {
+        RecurrenceRule rule;
+        try {
+            rule = RecurrenceRule.parse(rs.getString("rrule"));
+        } catch (IllegalArgumentException e) {
+            throw new SQLException("Series " + rs.getInt("id") + " has an invalid rule: " + e.getMessage(), e);
+        }
+        CallSeries series = new CallSeries(rs.getString("call_type"), rs.getString("contact_name"),
+                PhoneNumbers.intern(rs.getString("phone_number")), rs.getString("detail"),
+                rs.getTimestamp("starts_at").toLocalDateTime(), rule);
+        series.setId(rs.getInt("id"));
+        series.setPriority(rs.getInt("priority"));
+        series.setDurationMinutes(rs.getInt("duration_minutes"));
+        String exceptions = rs.getString("exceptions");
+        if (exceptions != null && !exceptions.isEmpty()) {
+            for (String date : exceptions.split(",")) {
+                series.getExceptions().add(LocalDate.parse(date));
+            }
+        }
+        Timestamp expandedThrough = rs.getTimestamp("expanded_through");
+        series.setExpandedThrough(expandedThrough != null ? expandedThrough.toLocalDateTime() : null);
+        series.setExpandedCount(rs.getInt("expanded_count"));
+        return series;
+    }
+
+    /**
+     * Highest id in the table, or 0 when it is empty.
+     */
+    public int getMaxId() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) FROM calls")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    // One server-side scan; only four numbers cross the network
+    @Override
+    public CallWatermark getWatermark() throws SQLException {
+        String sql = "SELECT COALESCE(MAX(id), 0), COUNT(*), COALESCE(SUM(status = 'PENDING'), 0), "
+                + "BIT_XOR(IF(status = 'PENDING', CRC32(CONCAT_WS(':', id, TO_SECONDS(scheduled_time), priority)), 0)) "
+                + "FROM calls";
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return new CallWatermark(rs.getInt(1), rs.getLong(2), rs.getLong(3), rs.getLong(4));
+        }
+    }
+
+    /**
+     * Writes calls with ids that were assigned elsewhere (insert or overwrite) and deletes
+     * the given ids, all in one transaction. Applying the same changes twice leaves the
+     * table as after the first time, so a write-behind log can replay them safely.
+     */
+    public void applyChanges(Collection<Call> upserts, Collection<Integer> deletes, int chunkSize) throws SQLException {
+        if (upserts.isEmpty() && deletes.isEmpty()) {
+            return;
+        }
+        ensureColumns();
+        String upsertSql = "INSERT INTO calls (id, contact_name, phone_number, scheduled_time, call_type, priority, status, "
+                + "phone_key, duration_minutes) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
+                + "contact_name = VALUES(contact_name), phone_number = VALUES(phone_number), "
+                + "scheduled_time = VALUES(scheduled_time), call_type = VALUES(call_type), priority = VALUES(priority), "
+                + "status = VALUES(status), phone_key = VALUES(phone_key), duration_minutes = VALUES(duration_minutes)";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement upsert = conn.prepareStatement(upsertSql);
+             PreparedStatement delete = conn.prepareStatement("DELETE FROM calls WHERE id = ?")) {
+
+            conn.setAutoCommit(false);
+            try {
+                int pending = 0;
+                for (Call call : upserts) {
+                    upsert.setInt(1, call.getId());
+                    upsert.setString(2, call.getContactName());
+                    upsert.setString(3, call.getPhoneNumber());
+                    upsert.setTimestamp(4, Timestamp.valueOf(call.getScheduledTime()));
+                    upsert.setString(5, call.getCallType());
+                    upsert.setInt(6, call.getPriority());
+                    upsert.setString(7, call.getStatus().name());
+                    upsert.setLong(8, PhoneNumbers.key(call.getPhoneNumber()));
+                    upsert.setInt(9, call.getDurationMinutes());
+                    upsert.addBatch();
+                    if (++pending % chunkSize == 0) {
+                        upsert.executeBatch();
+                    }
+                }
+                upsert.executeBatch();
+
+                pending = 0;
+                for (int id : deletes) {
+                    delete.setInt(1, id);
+                    delete.addBatch();
+                    if (++pending % chunkSize == 0) {
+                        delete.executeBatch();
+                    }
+                }
+                delete.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
     private Call createCallFromResultSet(ResultSet rs) throws SQLException {
         int id = rs.getInt("id");
         String contactName = rs.getString("contact_name");
-        String phoneNumber = rs.getString("phone_number");
+        String phoneNumber = PhoneNumbers.intern(rs.getString("phone_number"));
         LocalDateTime scheduledTime = rs.getTimestamp("scheduled_time").toLocalDateTime();
         String callType = rs.getString("call_type");
         int priority = rs.getInt("priority");
@@ -131,12 +776,8 @@ public class CallDAO {
         call.setId(id);
         call.setPriority(priority);
         call.setStatus(status);
+        call.setDurationMinutes(rs.getInt("duration_minutes"));
 
         return call;
     }
-
-    private boolean isValidPhoneNumber(String phoneNumber) {
-        // Simple phone number validation
-        return phoneNumber != null && phoneNumber.matches("^[+]?[0-9]{10,15}$");
-    }
 }
@@ -0,0 +1,213 @@
+package com.smartcaller.dao;
+
+import com.smartcaller.model.Call;
+import com.smartcaller.model.CallSeries;
+import com.smartcaller.model.CallStatus;
+import com.smartcaller.model.EmergencyCall;
+import com.smartcaller.model.RecurrenceRule;
+import com.smartcaller.model.VideoCall;
+import com.smartcaller.model.VoiceCall;
+import com.smartcaller.util.PhoneNumbers;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32;
+
+/**
+ * Binary encoding shared by the local call files (FileCallRepository and the write-behind
+ * log): a call's or a series' fields in a fixed order, and records framed as
+ * [length][crc32][payload] so a torn or corrupt tail can be detected and cut off.
+ */
+final class CallRecords {
+    static final int RECORD_HEADER_BYTES = 8; // length + crc
+    static final int MAX_RECORD_BYTES = 1 << 20;
+
+    private CallRecords() {
+    }
+
+    static void writeCall(DataOutputStream out, Call call) throws IOException {
+        out.writeUTF(call.getCallType());
+        out.writeUTF(call.getContactName());
+        out.writeUTF(call.getPhoneNumber());
+        writeTime(out, call.getScheduledTime());
+        out.writeInt(call.getPriority());
+        out.writeUTF(call.getStatus().name());
+        String detail = "";
+        if (call instanceof VideoCall videoCall && videoCall.getVideoPlatform() != null) {
+            detail = videoCall.getVideoPlatform();
+        } else if (call instanceof EmergencyCall emergencyCall && emergencyCall.getEmergencyType() != null) {
+            detail = emergencyCall.getEmergencyType();
+        }
+        out.writeUTF(detail);
+        out.writeInt(call.getDurationMinutes());
+    }
+
+    static Call readCall(DataInputStream in) throws IOException {
+        String callType = in.readUTF();
+        String contactName = in.readUTF();
+        String phoneNumber = PhoneNumbers.intern(in.readUTF());
+        LocalDateTime scheduledTime = readTime(in);
+        int priority = in.readInt();
+        CallStatus status = CallStatus.valueOf(in.readUTF());
+        String detail = in.readUTF();
+        // Records written before calls had a duration end here
+        int durationMinutes = in.available() >= Integer.BYTES ? in.readInt() : Call.DEFAULT_DURATION_MINUTES;
+
+        Call call = switch (callType) {
+            case "VIDEO_CALL" -> new VideoCall(contactName, phoneNumber, scheduledTime, detail);
+            case "EMERGENCY_CALL" -> new EmergencyCall(contactName, phoneNumber, scheduledTime, detail);
+            default -> new VoiceCall(contactName, phoneNumber, scheduledTime);
+        };
+        call.setPriority(priority);
+        call.setStatus(status);
+        call.setDurationMinutes(durationMinutes);
+        return call;
+    }
+
+    static void writeSeries(DataOutputStream out, CallSeries series) throws IOException {
+        out.writeUTF(series.getCallType());
+        out.writeUTF(series.getContactName());
+        out.writeUTF(series.getPhoneNumber());
+        out.writeUTF(series.getDetail() != null ? series.getDetail() : "");
+        out.writeInt(series.getPriority());
+        out.writeInt(series.getDurationMinutes());
+        writeTime(out, series.getStart());
+        out.writeUTF(series.getRule().toString());
+        out.writeInt(series.getExceptions().size());
+        for (LocalDate date : series.getExceptions()) {
+            out.writeLong(date.toEpochDay());
+        }
+        out.writeBoolean(series.getExpandedThrough() != null);
+        if (series.getExpandedThrough() != null) {
+            writeTime(out, series.getExpandedThrough());
+        }
+        out.writeInt(series.getExpandedCount());
+    }
+
+    static CallSeries readSeries(DataInputStream in) throws IOException {
+        String callType = in.readUTF();
+        String contactName = in.readUTF();
+        String phoneNumber = PhoneNumbers.intern(in.readUTF());
+        String detail = in.readUTF();
+        int priority = in.readInt();
+        int durationMinutes = in.readInt();
+        LocalDateTime start = readTime(in);
+        RecurrenceRule rule;
+        try {
+            rule = RecurrenceRule.parse(in.readUTF());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("bad recurrence rule: " + e.getMessage(), e);
+        }
+        CallSeries series = new CallSeries(callType, contactName, phoneNumber, detail.isEmpty() ? null : detail,
+                start, rule);
+        series.setPriority(priority);
+        series.setDurationMinutes(durationMinutes);
+        for (int i = in.readInt(); i > 0; i--) {
+            series.getExceptions().add(LocalDate.ofEpochDay(in.readLong()));
+        }
+        if (in.readBoolean()) {
+            series.setExpandedThrough(readTime(in));
+        }
+        series.setExpandedCount(in.readInt());
+        return series;
+    }
+
+    // LocalDateTime stored as-is (no zone), the same as the MySQL DATETIME column
+    static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+    }
+
+    static LocalDateTime readTime(DataInputStream in) throws IOException {
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+
+    interface RecordHandler {
+        void accept(byte[] payload, int length) throws IOException;
+    }
+
+    /**
+     * Reads framed records from position to the end of the channel, stopping at the first
+     * incomplete or corrupt one. Returns the position just past the last good record.
+     */
+    static long readRecords(FileChannel channel, long position, RecordHandler handler) throws IOException {
+        long size = channel.size();
+        channel.position(position);
+        // Sequential buffered read, one syscall per 64 KB. Not closed: that would close the channel
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+        byte[] payload = new byte[256];
+        CRC32 crc = new CRC32();
+        while (position + RECORD_HEADER_BYTES <= size) {
+            int length = in.readInt();
+            int checksum = in.readInt();
+            if (length <= 0 || length > MAX_RECORD_BYTES || position + RECORD_HEADER_BYTES + length > size) {
+                break;
+            }
+            if (payload.length < length) {
+                payload = new byte[Math.max(length, payload.length * 2)];
+            }
+            in.readFully(payload, 0, length);
+            crc.reset();
+            crc.update(payload, 0, length);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            handler.accept(payload, length);
+            position += RECORD_HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // Frames records as [length][crc32][payload] into one buffer, so a batch is a single write
+    static final class RecordWriter {
+        private final ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream payload = new ByteArrayOutputStream(128);
+        private final DataOutputStream out = new DataOutputStream(payload);
+        private final CRC32 crc = new CRC32();
+        private int count;
+
+        DataOutputStream begin() {
+            payload.reset();
+            return out;
+        }
+
+        void end() throws IOException {
+            out.flush();
+            byte[] bytes = payload.toByteArray();
+            crc.reset();
+            crc.update(bytes);
+            ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES).putInt(bytes.length).putInt((int) crc.getValue());
+            frames.write(header.array());
+            frames.write(bytes);
+            count++;
+        }
+
+        int count() {
+            return count;
+        }
+
+        void reset() {
+            frames.reset();
+            count = 0;
+        }
+
+        ByteBuffer toBuffer() {
+            return ByteBuffer.wrap(frames.toByteArray());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.smartcaller.dao;
+
+import com.smartcaller.exception.InvalidScheduleException;
+import com.smartcaller.model.Call;
+import com.smartcaller.model.CallSeries;
+import com.smartcaller.model.CallStatus;
+import com.smartcaller.util.InputValidator;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Storage for calls. CallDAO keeps them in MySQL; WriteBehindCallRepository logs changes
+ * locally and writes them to MySQL in the background; FileCallRepository keeps them in a
+ * local append-only file; InMemoryCallRepository only in memory. Implementations report storage
+ * failures as SQLException whatever the backend, so callers handle them one way.
+ *
+ * Ordering contract: getAllCalls, getCallsAfter, streamAllCalls and getCallsByStatus return
+ * calls by (scheduled time, id) ascending; getCallsByPhoneNumber returns newest first.
+ */
+public interface CallRepository {
+
+    /**
+     * Validates and stores a call. Returns its generated id.
+     */
+    int addCall(Call call) throws SQLException, InvalidScheduleException;
+
+    /**
+     * Stores many calls atomically. Generated ids are returned in the same order as the input
+     * list. Callers are expected to have run validateCall on every row beforehand.
+     */
+    int[] addCalls(List<Call> calls, int chunkSize) throws SQLException;
+
+    List<Call> getAllCalls() throws SQLException;
+
+    /**
+     * Keyset pagination: up to limit calls after the given (scheduled time, id) position.
+     * Pass null and 0 for the first page.
+     */
+    List<Call> getCallsAfter(LocalDateTime scheduledTime, int id, int limit) throws SQLException;
+
+    /**
+     * Every call in scheduled-time order. Always close the stream (try-with-resources).
+     */
+    Stream<Call> streamAllCalls() throws SQLException;
+
+    List<Call> getCallsByStatus(CallStatus status) throws SQLException;
+
+    /**
+     * Calls to this number in any spelling ("+15551234567", "1 555 123 4567", ...), matched
+     * on PhoneNumbers.key. Empty if the argument is not a phone number.
+     */
+    List<Call> getCallsByPhoneNumber(String phoneNumber) throws SQLException;
+
+    boolean updateCallStatus(int callId, CallStatus status) throws SQLException;
+
+    /**
+     * Moves a call to a new time. Returns false if there is no such call.
+     */
+    boolean updateScheduledTime(int callId, LocalDateTime scheduledTime) throws SQLException;
+
+    boolean deleteCall(int callId) throws SQLException;
+
+    /**
+     * Leases pending calls to owner, so that operators, and app instances sharing one
+     * database, never work the same call. The calls are tried in the given order; up to
+     * limit of them that are unclaimed, already held by owner (which renews the lease) or
+     * whose lease has run out are claimed until now + lease. Returns the claim state of every
+     * call looked at, granted or not. Calls that are missing, or being claimed by someone
+     * else at that very moment, are left out.
+     */
+    List<CallClaim> claimCalls(List<Integer> callIds, String owner, Duration lease, int limit) throws SQLException;
+
+    /**
+     * Sets a claimed call's final status and ends the claim, if owner still holds it.
+     * Returns false if someone else has claimed it since or it is no longer pending.
+     */
+    boolean completeClaim(int callId, String owner, CallStatus status) throws SQLException;
+
+    /**
+     * Ends a claim without completing the call. Returns false if owner no longer held it.
+     */
+    boolean releaseClaim(int callId, String owner) throws SQLException;
+
+    /**
+     * Stores a recurring call series: the rule and template, not its occurrences.
+     * Returns its generated id.
+     */
+    int addSeries(CallSeries series) throws SQLException;
+
+    List<CallSeries> getAllSeries() throws SQLException;
+
+    /**
+     * Saves every field of a series, including its expansion point. Returns false if
+     * there is no such series.
+     */
+    boolean updateSeries(CallSeries series) throws SQLException;
+
+    /**
+     * Stores a series' next occurrences as calls together with its advanced expansion point
+     * (expandedThrough, expandedCount), so the next expansion continues after them.
+     * Returns the calls' generated ids in order.
+     */
+    int[] addOccurrences(CallSeries series, List<Call> occurrences) throws SQLException;
+
+    /**
+     * Deletes a series. Calls already expanded from it are left alone.
+     */
+    boolean deleteSeries(int seriesId) throws SQLException;
+
+    /**
+     * Fingerprint of the stored calls, used to validate a saved pending-queue snapshot.
+     * Returns null for backends that already load locally and gain nothing from one.
+     */
+    default CallWatermark getWatermark() throws SQLException {
+        return null;
+    }
+
+    default void validateCall(Call call) throws InvalidScheduleException {
+        validateCall(call, LocalDateTime.now());
+    }
+
+    /**
+     * Schedule time, phone number, priority and duration checks (see InputValidator), against a
+     * caller-supplied clock so a batch reads it once.
+     */
+    default void validateCall(Call call, LocalDateTime now) throws InvalidScheduleException {
+        InputValidator.validate(call, now);
+    }
+
+    /**
+     * Picks the backend with -Dsmartcaller.store=mysql (default), file or memory. The file
+     * store lives at smartcaller.store.path (default smartcaller-calls.db in the working directory).
+     * With -Dsmartcaller.store.writeBehind=true, MySQL writes go through a local write-ahead
+     * log first (see WriteBehindCallRepository).
+     */
+    static CallRepository fromSystemProperties() {
+        String store = System.getProperty("smartcaller.store", "mysql");
+        switch (store.toLowerCase()) {
+            case "file":
+                Path path = Path.of(System.getProperty("smartcaller.store.path", "smartcaller-calls.db"));
+                try {
+                    return FileCallRepository.open(path);
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Cannot open call store " + path + ": " + e.getMessage(), e);
+                }
+            case "memory":
+                return new InMemoryCallRepository();
+            case "mysql":
+                if (Boolean.getBoolean("smartcaller.store.writeBehind")) {
+                    try {
+                        return WriteBehindCallRepository.open(new CallDAO());
+                    } catch (SQLException e) {
+                        throw new IllegalStateException("Cannot open write-behind call store: " + e.getMessage(), e);
+                    }
+                }
+                return new CallDAO();
+            default:
+                System.err.println("Unknown smartcaller.store '" + store + "', using MySQL");
+                return new CallDAO();
+        }
+    }
+}
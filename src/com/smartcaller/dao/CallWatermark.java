@@ -0,0 +1,40 @@
+package com.smartcaller.dao;
+
+import com.smartcaller.model.Call;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.zip.CRC32;
+
+/**
+ * A cheap fingerprint of the calls table, used to tell whether a saved snapshot of the
+ * pending queue still matches the database. The table has no last-modified column, so
+ * alongside max id and row count it carries an order-independent checksum of the pending
+ * rows: XOR of CRC32("id:seconds:priority") over every pending call, where seconds is
+ * MySQL's TO_SECONDS of the scheduled time. Adds, deletes, status changes, reschedules
+ * and priority changes all move it.
+ */
+public record CallWatermark(int maxId, long rowCount, long pendingCount, long pendingChecksum) {
+    // TO_SECONDS('1970-01-01 00:00:00')
+    private static final long TO_SECONDS_EPOCH = 62_167_219_200L;
+
+    /**
+     * The checksum the database would report if exactly these calls were pending.
+     */
+    public static long checksumOf(Collection<Call> pending) {
+        long checksum = 0;
+        CRC32 crc = new CRC32();
+        for (Call call : pending) {
+            long seconds = call.getScheduledTime().toEpochSecond(ZoneOffset.UTC) + TO_SECONDS_EPOCH;
+            crc.reset();
+            crc.update((call.getId() + ":" + seconds + ":" + call.getPriority()).getBytes(StandardCharsets.US_ASCII));
+            checksum ^= crc.getValue();
+        }
+        return checksum;
+    }
+
+    public boolean matchesPending(Collection<Call> pending) {
+        return pendingCount == pending.size() && pendingChecksum == checksumOf(pending);
+    }
+}
@@ -0,0 +1,704 @@
+package com.smartcaller.dao;
+
+import com.smartcaller.model.Call;
+import com.smartcaller.model.CallStatus;
+import com.smartcaller.model.EmergencyCall;
+import com.smartcaller.model.VideoCall;
+import com.smartcaller.model.VoiceCall;
+import com.smartcaller.util.PhoneNumbers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Column storage for calls, behind InMemoryCallRepository. Each call is one slot across
+ * primitive arrays: epoch seconds, short duration, byte priority/type/status, and int codes
+ * into string dictionaries for names, numbers and details. That is about 50 bytes per call instead of
+ * the several hundred a Call object with its LocalDateTime, Strings and map entries costs.
+ * Call objects are only built when a query returns them, and are copies: changing one does
+ * not change the table.
+ *
+ * Slots are appended; a deleted or replaced call (a reschedule is a replace) just marks
+ * its slot dead. Once dead slots outnumber live ones the live calls are copied into fresh
+ * columns and dictionaries, so however long a session churns the table stays within a
+ * few times the size of what is live, and strings no live call uses are dropped.
+ *
+ * Time order is an array of slots sorted by (time, id) plus an unsorted tail of recent
+ * appends, merged in on the next ordered read. Appends in time order skip the tail.
+ *
+ * Thread-safe: writes take the write lock, queries the read lock.
+ */
+final class CompactCallTable {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final byte DEAD = -1;
+    private static final byte TYPE_VOICE = 0;
+    private static final byte TYPE_VIDEO = 1;
+    private static final byte TYPE_EMERGENCY = 2;
+    private static final CallStatus[] STATUSES = CallStatus.values();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Columns, indexed by slot
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private long[] seconds = new long[INITIAL_CAPACITY];
+    private byte[] priorities = new byte[INITIAL_CAPACITY];
+    private short[] durations = new short[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private byte[] statuses = new byte[INITIAL_CAPACITY];
+    private int[] names = new int[INITIAL_CAPACITY];
+    private int[] phones = new int[INITIAL_CAPACITY];
+    private int[] details = new int[INITIAL_CAPACITY];
+    // Rare values that don't fit the columns, by slot
+    private Map<Integer, Integer> nanos = new HashMap<>();
+    private Map<Integer, Integer> widePriorities = new HashMap<>();
+    private Map<Integer, Integer> wideDurations = new HashMap<>();
+    private int slotCount;
+    private int liveCount;
+
+    private IntIntMap slotById = new IntIntMap();
+    private StringDictionary text = new StringDictionary();
+    private StringDictionary phoneNumbers = new StringDictionary();
+    // Spellings of one number share a group: phone code -> group + 1 (0 = not seen yet, -1 = no key)
+    private int[] groupOfPhone = new int[INITIAL_CAPACITY];
+    private Map<Long, Integer> groupByKey = new HashMap<>();
+    private int[][] slotsByPhone = new int[INITIAL_CAPACITY][];
+    private int[] slotsByPhoneCount = new int[INITIAL_CAPACITY];
+
+    // Slots in (time, id) order: [0, sorted) is ordered, [sorted, ordered) is the unsorted tail
+    private int[] order = new int[INITIAL_CAPACITY];
+    private int sorted;
+    private int ordered;
+    private int deadInOrder;
+
+    void put(int id, Call call) {
+        lock.writeLock().lock();
+        try {
+            int previous = slotById.get(id);
+            if (previous >= 0) {
+                kill(previous);
+            }
+            int slot = slotCount++;
+            if (slot == ids.length) {
+                grow();
+            }
+            LocalDateTime time = call.getScheduledTime();
+            ids[slot] = id;
+            seconds[slot] = time.toEpochSecond(ZoneOffset.UTC);
+            if (time.getNano() != 0) {
+                nanos.put(slot, time.getNano());
+            }
+            setPriority(slot, call.getPriority());
+            if (call.getDurationMinutes() == (short) call.getDurationMinutes()) {
+                durations[slot] = (short) call.getDurationMinutes();
+            } else {
+                wideDurations.put(slot, call.getDurationMinutes());
+            }
+            statuses[slot] = (byte) call.getStatus().ordinal();
+            names[slot] = text.intern(call.getContactName());
+            String detail = null;
+            if (call instanceof VideoCall videoCall) {
+                types[slot] = TYPE_VIDEO;
+                detail = videoCall.getVideoPlatform();
+            } else if (call instanceof EmergencyCall emergencyCall) {
+                types[slot] = TYPE_EMERGENCY;
+                detail = emergencyCall.getEmergencyType();
+            } else {
+                types[slot] = TYPE_VOICE;
+            }
+            details[slot] = text.intern(detail);
+            int phone = phoneNumbers.intern(call.getPhoneNumber());
+            phones[slot] = phone;
+            int group = phone < 0 ? -1 : groupOf(phone, call.getPhoneNumber());
+            if (group >= 0) {
+                addToGroup(group, slot);
+            }
+
+            slotById.put(id, slot);
+            liveCount++;
+            appendToOrder(slot);
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void setPriority(int slot, int priority) {
+        if (priority == (byte) priority) {
+            priorities[slot] = (byte) priority;
+            widePriorities.remove(slot);
+        } else {
+            widePriorities.put(slot, priority);
+        }
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        seconds = Arrays.copyOf(seconds, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+        types = Arrays.copyOf(types, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        names = Arrays.copyOf(names, capacity);
+        phones = Arrays.copyOf(phones, capacity);
+        details = Arrays.copyOf(details, capacity);
+    }
+
+    // Boxes only the first time a spelling is seen
+    private int groupOf(int phone, String phoneNumber) {
+        if (phone == groupOfPhone.length) {
+            groupOfPhone = Arrays.copyOf(groupOfPhone, phone * 2);
+        }
+        if (groupOfPhone[phone] == 0) {
+            long key = PhoneNumbers.key(phoneNumber);
+            groupOfPhone[phone] = key == PhoneNumbers.NO_KEY ? -1 : groupByKey.computeIfAbsent(key, k -> groupByKey.size()) + 1;
+        }
+        return groupOfPhone[phone] - 1;
+    }
+
+    private void addToGroup(int group, int slot) {
+        if (group == slotsByPhone.length) {
+            slotsByPhone = Arrays.copyOf(slotsByPhone, group * 2);
+            slotsByPhoneCount = Arrays.copyOf(slotsByPhoneCount, group * 2);
+        }
+        int[] slots = slotsByPhone[group];
+        int count = slotsByPhoneCount[group];
+        if (slots == null) {
+            slots = new int[2];
+        } else if (count == slots.length) {
+            // Drop dead slots before growing, so churn on one number doesn't grow its list forever
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                if (statuses[slots[i]] != DEAD) {
+                    slots[kept++] = slots[i];
+                }
+            }
+            count = kept;
+            if (count == slots.length) {
+                slots = Arrays.copyOf(slots, count * 2);
+            }
+        }
+        slots[count] = slot;
+        slotsByPhone[group] = slots;
+        slotsByPhoneCount[group] = count + 1;
+    }
+
+    private void appendToOrder(int slot) {
+        if (ordered == order.length) {
+            order = Arrays.copyOf(order, order.length * 2);
+        }
+        order[ordered++] = slot;
+        if (sorted == ordered - 1 && (sorted == 0 || compare(order[sorted - 1], slot) < 0)) {
+            sorted++;
+        }
+    }
+
+    private void kill(int slot) {
+        statuses[slot] = DEAD;
+        slotById.remove(ids[slot]);
+        nanos.remove(slot);
+        widePriorities.remove(slot);
+        wideDurations.remove(slot);
+        liveCount--;
+        deadInOrder++;
+    }
+
+    // Rebuilding costs O(live) and happens only after at least as many writes killed a
+    // slot, so it is amortized constant per write
+    private void compactIfSparse() {
+        int dead = slotCount - liveCount;
+        if (dead < INITIAL_CAPACITY || dead <= liveCount) {
+            return;
+        }
+        mergeOrder();
+        CompactCallTable fresh = new CompactCallTable();
+        for (int i = 0; i < sorted; i++) {
+            int slot = order[i];
+            if (statuses[slot] != DEAD) {
+                fresh.put(ids[slot], materialize(slot));
+            }
+        }
+        adopt(fresh);
+    }
+
+    private void adopt(CompactCallTable fresh) {
+        ids = fresh.ids;
+        seconds = fresh.seconds;
+        priorities = fresh.priorities;
+        durations = fresh.durations;
+        types = fresh.types;
+        statuses = fresh.statuses;
+        names = fresh.names;
+        phones = fresh.phones;
+        details = fresh.details;
+        nanos = fresh.nanos;
+        widePriorities = fresh.widePriorities;
+        wideDurations = fresh.wideDurations;
+        slotCount = fresh.slotCount;
+        liveCount = fresh.liveCount;
+        slotById = fresh.slotById;
+        text = fresh.text;
+        phoneNumbers = fresh.phoneNumbers;
+        groupOfPhone = fresh.groupOfPhone;
+        groupByKey = fresh.groupByKey;
+        slotsByPhone = fresh.slotsByPhone;
+        slotsByPhoneCount = fresh.slotsByPhoneCount;
+        order = fresh.order;
+        sorted = fresh.sorted;
+        ordered = fresh.ordered;
+        deadInOrder = fresh.deadInOrder;
+    }
+
+    /** Slots the columns have room for, live or dead. */
+    int capacity() {
+        lock.readLock().lock();
+        try {
+            return ids.length;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Distinct strings held in the name/detail and phone-number dictionaries. */
+    int dictionarySize() {
+        lock.readLock().lock();
+        try {
+            return text.count + phoneNumbers.count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    boolean setStatus(int id, CallStatus status) {
+        lock.writeLock().lock();
+        try {
+            int slot = slotById.get(id);
+            if (slot < 0) {
+                return false;
+            }
+            statuses[slot] = (byte) status.ordinal();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Re-added under the same id: the slot's place in time order depends on the time
+    boolean setScheduledTime(int id, LocalDateTime time) {
+        lock.writeLock().lock();
+        try {
+            int slot = slotById.get(id);
+            if (slot < 0) {
+                return false;
+            }
+            Call call = materialize(slot);
+            call.setScheduledTime(time);
+            put(id, call);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean remove(int id) {
+        lock.writeLock().lock();
+        try {
+            int slot = slotById.get(id);
+            if (slot < 0) {
+                return false;
+            }
+            kill(slot);
+            compactIfSparse();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean contains(int id) {
+        lock.readLock().lock();
+        try {
+            return slotById.get(id) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Call get(int id) {
+        lock.readLock().lock();
+        try {
+            int slot = slotById.get(id);
+            return slot < 0 ? null : materialize(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Live calls in time order, optionally only those with the given status.
+     */
+    List<Call> inTimeOrder(CallStatus status) {
+        lockOrdered();
+        try {
+            List<Call> calls = new ArrayList<>(status == null ? liveCount : 16);
+            byte wanted = status == null ? DEAD : (byte) status.ordinal();
+            for (int i = 0; i < sorted; i++) {
+                int slot = order[i];
+                byte current = statuses[slot];
+                if (current != DEAD && (status == null || current == wanted)) {
+                    calls.add(materialize(slot));
+                }
+            }
+            return calls;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to limit live calls after the (time, id) position in time order; null time starts at the beginning.
+     */
+    List<Call> after(LocalDateTime time, int id, int limit) {
+        lockOrdered();
+        try {
+            int from = time == null ? 0 : firstAfter(time.toEpochSecond(ZoneOffset.UTC), time.getNano(), id);
+            List<Call> calls = new ArrayList<>(Math.min(limit, 1000));
+            for (int i = from; i < sorted && calls.size() < limit; i++) {
+                int slot = order[i];
+                if (statuses[slot] != DEAD) {
+                    calls.add(materialize(slot));
+                }
+            }
+            return calls;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Live calls for a number in any spelling (see PhoneNumbers.key), in no particular order.
+     */
+    List<Call> byPhone(String phoneNumber) {
+        long key = PhoneNumbers.key(phoneNumber);
+        lock.readLock().lock();
+        try {
+            Integer group = key == PhoneNumbers.NO_KEY ? null : groupByKey.get(key);
+            List<Call> calls = new ArrayList<>();
+            if (group == null || slotsByPhone[group] == null) {
+                return calls;
+            }
+            int[] slots = slotsByPhone[group];
+            for (int i = 0; i < slotsByPhoneCount[group]; i++) {
+                if (statuses[slots[i]] != DEAD) {
+                    calls.add(materialize(slots[i]));
+                }
+            }
+            return calls;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Position of the first ordered slot strictly after (seconds, nanos, id)
+    private int firstAfter(long second, int nano, int id) {
+        int low = 0;
+        int high = sorted;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(order[mid], second, nano, id) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Takes the read lock with the order fully merged, merging under the write lock first if needed
+    private void lockOrdered() {
+        lock.readLock().lock();
+        if (sorted == ordered && deadInOrder * 2 <= ordered) {
+            return;
+        }
+        lock.readLock().unlock();
+        lock.writeLock().lock();
+        try {
+            mergeOrder();
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void mergeOrder() {
+        if (sorted == ordered && deadInOrder * 2 <= ordered) {
+            return;
+        }
+        int[] tail = Arrays.copyOfRange(order, sorted, ordered);
+        sortSlots(tail, new int[tail.length], 0, tail.length);
+        int[] merged = new int[Math.max(INITIAL_CAPACITY, liveCount + liveCount / 2)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < sorted || j < tail.length) {
+            int slot;
+            if (j == tail.length || (i < sorted && compare(order[i], tail[j]) < 0)) {
+                slot = order[i++];
+            } else {
+                slot = tail[j++];
+            }
+            if (statuses[slot] != DEAD) {
+                if (count == merged.length) {
+                    merged = Arrays.copyOf(merged, count * 2);
+                }
+                merged[count++] = slot;
+            }
+        }
+        order = merged;
+        sorted = count;
+        ordered = count;
+        deadInOrder = 0;
+    }
+
+    // Merge sort of slots by (time, id); stable and allocation-free apart from the scratch array
+    private void sortSlots(int[] slots, int[] scratch, int from, int to) {
+        if (to - from < 16) {
+            for (int i = from + 1; i < to; i++) {
+                int slot = slots[i];
+                int j = i - 1;
+                while (j >= from && compare(slots[j], slot) > 0) {
+                    slots[j + 1] = slots[j];
+                    j--;
+                }
+                slots[j + 1] = slot;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sortSlots(slots, scratch, from, mid);
+        sortSlots(slots, scratch, mid, to);
+        if (compare(slots[mid - 1], slots[mid]) <= 0) {
+            return;
+        }
+        System.arraycopy(slots, from, scratch, from, to - from);
+        int i = from;
+        int j = mid;
+        for (int k = from; k < to; k++) {
+            if (j >= to || (i < mid && compare(scratch[i], scratch[j]) <= 0)) {
+                slots[k] = scratch[i++];
+            } else {
+                slots[k] = scratch[j++];
+            }
+        }
+    }
+
+    private int compare(int a, int b) {
+        return compare(a, seconds[b], nanosOf(b), ids[b]);
+    }
+
+    private int compare(int slot, long second, int nano, int id) {
+        int cmp = Long.compare(seconds[slot], second);
+        if (cmp == 0) {
+            cmp = Integer.compare(nanosOf(slot), nano);
+        }
+        return cmp != 0 ? cmp : Integer.compare(ids[slot], id);
+    }
+
+    private int nanosOf(int slot) {
+        return nanos.isEmpty() ? 0 : nanos.getOrDefault(slot, 0);
+    }
+
+    private Call materialize(int slot) {
+        LocalDateTime time = LocalDateTime.ofEpochSecond(seconds[slot], nanosOf(slot), ZoneOffset.UTC);
+        String name = text.get(names[slot]);
+        String phone = PhoneNumbers.intern(phoneNumbers.get(phones[slot]));
+        Call call = switch (types[slot]) {
+            case TYPE_VIDEO -> new VideoCall(name, phone, time, text.get(details[slot]));
+            case TYPE_EMERGENCY -> new EmergencyCall(name, phone, time, text.get(details[slot]));
+            default -> new VoiceCall(name, phone, time);
+        };
+        call.setId(ids[slot]);
+        call.setPriority(widePriorities.isEmpty() ? priorities[slot] : widePriorities.getOrDefault(slot, (int) priorities[slot]));
+        call.setDurationMinutes(wideDurations.isEmpty() ? durations[slot] : wideDurations.getOrDefault(slot, (int) durations[slot]));
+        call.setStatus(STATUSES[statuses[slot]]);
+        return call;
+    }
+
+    /**
+     * Distinct strings stored once as UTF-8 in one byte arena, found again through an
+     * open-addressing hash of their codes. Null is code -1.
+     */
+    private static final class StringDictionary {
+        private byte[] arena = new byte[16 * INITIAL_CAPACITY];
+        private int arenaSize;
+        private int[] offsets = new int[INITIAL_CAPACITY + 1]; // code -> start; offsets[count] = arenaSize
+        private int count;
+        private int[] table = new int[2 * INITIAL_CAPACITY]; // code + 1, 0 = empty
+
+        int intern(String value) {
+            if (value == null) {
+                return -1;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            int index = indexOf(bytes);
+            if (table[index] != 0) {
+                return table[index] - 1;
+            }
+            if (arenaSize + bytes.length > arena.length) {
+                arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + bytes.length));
+            }
+            System.arraycopy(bytes, 0, arena, arenaSize, bytes.length);
+            arenaSize += bytes.length;
+            if (count + 1 == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            int code = count++;
+            offsets[count] = arenaSize;
+            table[index] = code + 1;
+            if (count * 2 > table.length) {
+                rehash();
+            }
+            return code;
+        }
+
+        String get(int code) {
+            if (code < 0) {
+                return null;
+            }
+            return new String(arena, offsets[code], offsets[code + 1] - offsets[code], StandardCharsets.UTF_8);
+        }
+
+        // Slot holding the string, or the empty slot where it would go
+        private int indexOf(byte[] bytes) {
+            int mask = table.length - 1;
+            int index = hash(bytes, 0, bytes.length) & mask;
+            while (table[index] != 0) {
+                int code = table[index] - 1;
+                if (Arrays.equals(arena, offsets[code], offsets[code + 1], bytes, 0, bytes.length)) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+            return index;
+        }
+
+        private void rehash() {
+            int[] next = new int[table.length * 2];
+            int mask = next.length - 1;
+            for (int code = 0; code < count; code++) {
+                int index = hash(arena, offsets[code], offsets[code + 1]) & mask;
+                while (next[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                next[index] = code + 1;
+            }
+            table = next;
+        }
+
+        private static int hash(byte[] bytes, int from, int to) {
+            int h = 1;
+            for (int i = from; i < to; i++) {
+                h = 31 * h + bytes[i];
+            }
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * int -> int hash map (linear probing, backward-shift delete), so id lookups box nothing.
+     * get returns -1 when the key is absent.
+     */
+    private static final class IntIntMap {
+        private int[] keys = new int[2 * INITIAL_CAPACITY];
+        private int[] values = new int[2 * INITIAL_CAPACITY];
+        private boolean[] used = new boolean[2 * INITIAL_CAPACITY];
+        private int size;
+
+        int get(int key) {
+            int mask = keys.length - 1;
+            for (int index = mix(key) & mask; used[index]; index = (index + 1) & mask) {
+                if (keys[index] == key) {
+                    return values[index];
+                }
+            }
+            return -1;
+        }
+
+        void put(int key, int value) {
+            int mask = keys.length - 1;
+            int index = mix(key) & mask;
+            while (used[index]) {
+                if (keys[index] == key) {
+                    values[index] = value;
+                    return;
+                }
+                index = (index + 1) & mask;
+            }
+            used[index] = true;
+            keys[index] = key;
+            values[index] = value;
+            if (++size * 2 > keys.length) {
+                resize();
+            }
+        }
+
+        void remove(int key) {
+            int mask = keys.length - 1;
+            int index = mix(key) & mask;
+            while (used[index] && keys[index] != key) {
+                index = (index + 1) & mask;
+            }
+            if (!used[index]) {
+                return;
+            }
+            // Shift later entries of the probe run back so lookups never hit a false gap
+            int gap = index;
+            for (int next = (gap + 1) & mask; used[next]; next = (next + 1) & mask) {
+                int home = mix(keys[next]) & mask;
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    keys[gap] = keys[next];
+                    values[gap] = values[next];
+                    gap = next;
+                }
+            }
+            used[gap] = false;
+            size--;
+        }
+
+        private void resize() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            boolean[] oldUsed = used;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            used = new boolean[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.smartcaller.dao;
+
+import com.smartcaller.model.OutboxMessage;
+import com.smartcaller.model.OutboxStatus;
+import com.smartcaller.util.DatabaseConnection;
+
+import java.sql.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+public class EmailOutboxDAO {
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final int ER_DUP_ENTRY = 1062;
+
+    // Where connections come from; tests substitute their own
+    interface ConnectionSource {
+        Connection get() throws SQLException;
+    }
+
+    private final ConnectionSource connections;
+
+    public EmailOutboxDAO() {
+        this(DatabaseConnection::getConnection);
+    }
+
+    EmailOutboxDAO(ConnectionSource connections) {
+        this.connections = connections;
+    }
+
+    public void createTableIfMissing() throws SQLException {
+        String sql = "CREATE TABLE IF NOT EXISTS email_outbox ("
+                + "id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "idempotency_key VARCHAR(191) NOT NULL UNIQUE, "
+                + "call_id INT NOT NULL, "
+                + "recipient VARCHAR(320) NOT NULL, "
+                + "subject VARCHAR(255) NOT NULL, "
+                + "body TEXT NOT NULL, "
+                + "status VARCHAR(16) NOT NULL DEFAULT 'PENDING', "
+                + "attempts INT NOT NULL DEFAULT 0, "
+                + "next_attempt_at DATETIME NOT NULL, "
+                + "last_error VARCHAR(" + MAX_ERROR_LENGTH + "), "
+                + "created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP, "
+                + "sent_at DATETIME NULL, "
+                + "claimed_by VARCHAR(64) NULL, "
+                + "lease_until DATETIME NULL, "
+                + "INDEX idx_outbox_due (status, next_attempt_at))";
+
+        try (Connection conn = connections.get()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(sql);
+            }
+            // Tables created before claims existed
+            addColumnIfMissing(conn, "claimed_by",
+                    "ADD COLUMN claimed_by VARCHAR(64) NULL, ADD COLUMN lease_until DATETIME NULL");
+        }
+    }
+
+    private static void addColumnIfMissing(Connection conn, String column, String alteration) throws SQLException {
+        try (ResultSet columns = conn.getMetaData().getColumns(conn.getCatalog(), null, "email_outbox", column)) {
+            if (columns.next()) {
+                return;
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("ALTER TABLE email_outbox " + alteration);
+        }
+        System.out.println("✅ Added email_outbox." + column + " column.");
+    }
+
+    /**
+     * Queues a message. Returns false if a message with the same idempotency key is already
+     * queued or sent; a cancelled one (e.g. the call was undone, then redone) is revived.
+     *
+     * The duplicate is detected from the insert failing on the unique key rather than with
+     * ON DUPLICATE KEY UPDATE, whose update count Connector/J reports as rows found, not
+     * rows changed, so an untouched duplicate would look like a fresh insert.
+     */
+    public boolean enqueue(OutboxMessage message) throws SQLException {
+        String insert = "INSERT INTO email_outbox (idempotency_key, call_id, recipient, subject, body, status, attempts, next_attempt_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, 0, ?)";
+
+        try (Connection conn = connections.get()) {
+            try (PreparedStatement stmt = conn.prepareStatement(insert, Statement.RETURN_GENERATED_KEYS)) {
+                stmt.setString(1, message.getIdempotencyKey());
+                stmt.setInt(2, message.getCallId());
+                stmt.setString(3, message.getRecipient());
+                stmt.setString(4, message.getSubject());
+                stmt.setString(5, message.getBody());
+                stmt.setString(6, OutboxStatus.PENDING.name());
+                stmt.setTimestamp(7, Timestamp.valueOf(message.getNextAttemptAt()));
+                stmt.executeUpdate();
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        message.setId(generatedKeys.getLong(1));
+                    }
+                }
+                return true;
+            } catch (SQLIntegrityConstraintViolationException e) {
+                if (e.getErrorCode() != ER_DUP_ENTRY) {
+                    throw e;
+                }
+            }
+            return revive(conn, message);
+        }
+    }
+
+    private boolean revive(Connection conn, OutboxMessage message) throws SQLException {
+        String sql = "UPDATE email_outbox SET status = ?, next_attempt_at = ? WHERE idempotency_key = ? AND status = ?";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, OutboxStatus.PENDING.name());
+            stmt.setTimestamp(2, Timestamp.valueOf(message.getNextAttemptAt()));
+            stmt.setString(3, message.getIdempotencyKey());
+            stmt.setString(4, OutboxStatus.CANCELLED.name());
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Claims up to limit pending messages whose next attempt is due, oldest first, for owner
+     * until the lease runs out. Rows another instance has claimed are skipped until its
+     * lease expires, so app instances draining the same table never send the same message.
+     * The claim is cleared when the message is marked sent, retried, deferred or dead.
+     */
+    public List<OutboxMessage> claimDue(String owner, Duration lease, int limit) throws SQLException {
+        List<OutboxMessage> messages = new ArrayList<>();
+        String select = "SELECT * FROM email_outbox WHERE status = ? AND next_attempt_at <= ? "
+                + "AND (lease_until IS NULL OR lease_until <= ?) "
+                + "ORDER BY next_attempt_at ASC, id ASC LIMIT ? FOR UPDATE SKIP LOCKED";
+
+        try (Connection conn = connections.get();
+             PreparedStatement stmt = conn.prepareStatement(select);
+             PreparedStatement claim = conn.prepareStatement(
+                     "UPDATE email_outbox SET claimed_by = ?, lease_until = ? WHERE id = ?")) {
+
+            conn.setAutoCommit(false);
+            try {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                Timestamp leaseUntil = Timestamp.valueOf(now.toLocalDateTime().plus(lease));
+                stmt.setString(1, OutboxStatus.PENDING.name());
+                stmt.setTimestamp(2, now);
+                stmt.setTimestamp(3, now);
+                stmt.setInt(4, limit);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        OutboxMessage message = createMessageFromResultSet(rs);
+                        claim.setString(1, owner);
+                        claim.setTimestamp(2, leaseUntil);
+                        claim.setLong(3, message.getId());
+                        claim.addBatch();
+                        messages.add(message);
+                    }
+                }
+                if (!messages.isEmpty()) {
+                    claim.executeBatch();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        return messages;
+    }
+
+    public boolean markSent(long id) throws SQLException {
+        String sql = "UPDATE email_outbox SET status = ?, attempts = attempts + 1, sent_at = ?, last_error = NULL, "
+                + "claimed_by = NULL, lease_until = NULL WHERE id = ?";
+
+        try (Connection conn = connections.get();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, OutboxStatus.SENT.name());
+            stmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.setLong(3, id);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Records a failed attempt and when to try again.
+     */
+    public boolean markRetry(long id, int attempts, LocalDateTime nextAttemptAt, String error) throws SQLException {
+        String sql = "UPDATE email_outbox SET attempts = ?, next_attempt_at = ?, last_error = ?, "
+                + "claimed_by = NULL, lease_until = NULL WHERE id = ?";
+
+        try (Connection conn = connections.get();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, attempts);
+            stmt.setTimestamp(2, Timestamp.valueOf(nextAttemptAt));
+            stmt.setString(3, truncate(error));
+            stmt.setLong(4, id);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Pushes a message back without counting an attempt (used when a rate limit defers it).
+     */
+    public boolean defer(long id, LocalDateTime nextAttemptAt) throws SQLException {
+        String sql = "UPDATE email_outbox SET next_attempt_at = ?, claimed_by = NULL, lease_until = NULL WHERE id = ?";
+
+        try (Connection conn = connections.get();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setTimestamp(1, Timestamp.valueOf(nextAttemptAt));
+            stmt.setLong(2, id);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    public boolean markDead(long id, int attempts, String error) throws SQLException {
+        String sql = "UPDATE email_outbox SET status = ?, attempts = ?, last_error = ?, "
+                + "claimed_by = NULL, lease_until = NULL WHERE id = ?";
+
+        try (Connection conn = connections.get();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, OutboxStatus.DEAD.name());
+            stmt.setInt(2, attempts);
+            stmt.setString(3, truncate(error));
+            stmt.setLong(4, id);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Cancels any messages still waiting to go out for a call. Returns how many were cancelled.
+     */
+    public int cancelForCall(int callId) throws SQLException {
+        String sql = "UPDATE email_outbox SET status = ? WHERE call_id = ? AND status = ?";
+
+        try (Connection conn = connections.get();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, OutboxStatus.CANCELLED.name());
+            stmt.setInt(2, callId);
+            stmt.setString(3, OutboxStatus.PENDING.name());
+            return stmt.executeUpdate();
+        }
+    }
+
+    public Map<OutboxStatus, Integer> countByStatus() throws SQLException {
+        Map<OutboxStatus, Integer> counts = new EnumMap<>(OutboxStatus.class);
+        for (OutboxStatus status : OutboxStatus.values()) {
+            counts.put(status, 0);
+        }
+        String sql = "SELECT status, COUNT(*) FROM email_outbox GROUP BY status";
+
+        try (Connection conn = connections.get();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                counts.put(OutboxStatus.valueOf(rs.getString(1)), rs.getInt(2));
+            }
+        }
+        return counts;
+    }
+
+    private OutboxMessage createMessageFromResultSet(ResultSet rs) throws SQLException {
+        OutboxMessage message = new OutboxMessage(
+                rs.getString("idempotency_key"),
+                rs.getInt("call_id"),
+                rs.getString("recipient"),
+                rs.getString("subject"),
+                rs.getString("body"));
+        message.setId(rs.getLong("id"));
+        message.setStatus(OutboxStatus.valueOf(rs.getString("status")));
+        message.setAttempts(rs.getInt("attempts"));
+        message.setNextAttemptAt(rs.getTimestamp("next_attempt_at").toLocalDateTime());
+        message.setLastError(rs.getString("last_error"));
+        return message;
+    }
+
+    private String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
@@ -0,0 +1,459 @@
+package com.smartcaller.dao;
+
+import com.smartcaller.dao.CallRecords.RecordWriter;
+import com.smartcaller.exception.InvalidScheduleException;
+import com.smartcaller.model.Call;
+import com.smartcaller.model.CallSeries;
+import com.smartcaller.model.CallStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Embedded CallRepository for single-user installs that don't run MySQL
+ * (-Dsmartcaller.store=file). Every change is appended to one local file as a
+ * length-prefixed, CRC-checked record; all reads are served from the in-memory indexes,
+ * which are rebuilt by replaying the file on open. A write is one append (plus an fsync
+ * when smartcaller.store.fsync=true), so it stays well under a millisecond on local disk.
+ * Recurring call series are stored the same way, one record per save.
+ *
+ * A record torn by a crash is detected by its checksum and cut off on the next open.
+ * When superseded records (status changes, reschedules, deletes) outnumber live calls,
+ * the file is compacted on open by rewriting the live calls to a new file and renaming it
+ * into place.
+ *
+ * I/O failures are reported as SQLException, like the other repositories.
+ */
+public class FileCallRepository extends InMemoryCallRepository implements AutoCloseable {
+    private static final int MAGIC = 0x53434C31; // "SCL1"
+    private static final int HEADER_BYTES = 4;
+    private static final int COMPACT_MIN_GARBAGE = 1_000;
+
+    private static final byte OP_ADD = 1;
+    private static final byte OP_STATUS = 2;
+    private static final byte OP_DELETE = 3;
+    private static final byte OP_RESCHEDULE = 4;
+    private static final byte OP_SERIES = 5;
+    private static final byte OP_SERIES_DELETE = 6;
+
+    private final Path path;
+    private final boolean fsync;
+    private final ChannelOpener opener;
+    private FileChannel channel;
+    private long garbageRecords;
+
+    // Opens the store file; tests substitute channels that fail on demand
+    @FunctionalInterface
+    interface ChannelOpener {
+        FileChannel open(Path path, OpenOption... options) throws IOException;
+    }
+
+    private FileCallRepository(Path path, boolean fsync, ChannelOpener opener) {
+        this.path = path;
+        this.fsync = fsync;
+        this.opener = opener;
+    }
+
+    public static FileCallRepository open(Path path) throws SQLException {
+        return open(path, Boolean.getBoolean("smartcaller.store.fsync"));
+    }
+
+    public static FileCallRepository open(Path path, boolean fsync) throws SQLException {
+        return open(path, fsync, FileChannel::open);
+    }
+
+    static FileCallRepository open(Path path, boolean fsync, ChannelOpener opener) throws SQLException {
+        FileCallRepository repository = new FileCallRepository(path, fsync, opener);
+        long start = System.nanoTime();
+        try {
+            repository.load();
+        } catch (IOException e) {
+            repository.close();
+            throw new SQLException("Cannot open call store " + path + ": " + e.getMessage(), e);
+        }
+        System.out.println("✅ Opened call store " + path + " (" + repository.size() + " calls) in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms.");
+        return repository;
+    }
+
+    private void load() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = opener.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            channel.force(true);
+        } else {
+            replay();
+        }
+        channel.position(channel.size());
+
+        if (garbageRecords >= COMPACT_MIN_GARBAGE && garbageRecords > size()) {
+            compact();
+        }
+    }
+
+    private void replay() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        channel.read(header, 0);
+        if (header.flip().remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+            throw new IOException("not a call store file");
+        }
+
+        long size = channel.size();
+        long position = CallRecords.readRecords(channel, HEADER_BYTES, this::apply);
+        if (position < size) {
+            // Torn or corrupt tail from an interrupted write: drop it so appends start clean
+            System.err.println("⚠️ Call store " + path + ": discarding " + (size - position) + " bytes of incomplete data");
+            channel.truncate(position);
+            channel.force(true);
+        }
+    }
+
+    private void apply(byte[] record, int length) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record, 0, length));
+        byte op = in.readByte();
+        int id = in.readInt();
+        switch (op) {
+            case OP_ADD -> {
+                put(id, CallRecords.readCall(in));
+                advanceIdTo(id);
+            }
+            case OP_STATUS -> {
+                CallStatus status = CallStatus.valueOf(in.readUTF());
+                garbageRecords++;
+                setStatus(id, status);
+            }
+            case OP_RESCHEDULE -> {
+                LocalDateTime time = CallRecords.readTime(in);
+                garbageRecords++;
+                setScheduledTime(id, time);
+            }
+            case OP_DELETE -> {
+                // The delete record and the add it cancels are both dead weight
+                garbageRecords += 2;
+                remove(id);
+                advanceIdTo(id);
+            }
+            case OP_SERIES -> {
+                // Each save of a series supersedes the previous one
+                if (containsSeries(id)) {
+                    garbageRecords++;
+                }
+                putSeries(id, CallRecords.readSeries(in));
+                advanceSeriesIdTo(id);
+            }
+            case OP_SERIES_DELETE -> {
+                garbageRecords += 2;
+                removeSeries(id);
+                advanceSeriesIdTo(id);
+            }
+            default -> throw new IOException("unknown record type " + op);
+        }
+    }
+
+    private static void writeCall(DataOutputStream out, int id, Call call) throws IOException {
+        out.writeByte(OP_ADD);
+        out.writeInt(id);
+        CallRecords.writeCall(out, call);
+    }
+
+    private static void writeSeries(DataOutputStream out, int id, CallSeries series) throws IOException {
+        out.writeByte(OP_SERIES);
+        out.writeInt(id);
+        CallRecords.writeSeries(out, series);
+    }
+
+    private void append(RecordWriter writer) throws SQLException {
+        try {
+            if (channel == null) {
+                throw new IOException("store is closed");
+            }
+            long position = channel.position();
+            try {
+                CallRecords.writeFully(channel, writer.toBuffer());
+                if (fsync) {
+                    channel.force(false);
+                }
+            } catch (IOException e) {
+                // Cut off what was written, or the next open would stop at the torn record
+                // and lose every record appended after it
+                try {
+                    channel.truncate(position);
+                } catch (IOException truncateError) {
+                    e.addSuppressed(truncateError);
+                }
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new SQLException("Error writing call store " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized int addCall(Call call) throws SQLException, InvalidScheduleException {
+        validateCall(call);
+        int id = nextId();
+        try {
+            RecordWriter writer = new RecordWriter();
+            writeCall(writer.begin(), id, call);
+            writer.end();
+            append(writer);
+        } catch (IOException e) {
+            throw new SQLException("Error encoding call: " + e.getMessage(), e);
+        }
+        put(id, call);
+        return id;
+    }
+
+    @Override
+    public synchronized int[] addCalls(List<Call> calls, int chunkSize) throws SQLException {
+        int[] ids = new int[calls.size()];
+        RecordWriter writer = new RecordWriter();
+        try {
+            for (int i = 0; i < calls.size(); i++) {
+                ids[i] = nextId();
+                writeCall(writer.begin(), ids[i], calls.get(i));
+                writer.end();
+            }
+        } catch (IOException e) {
+            throw new SQLException("Error encoding calls: " + e.getMessage(), e);
+        }
+        // One write for the whole batch; nothing is indexed unless it reached the file
+        append(writer);
+        for (int i = 0; i < calls.size(); i++) {
+            put(ids[i], calls.get(i));
+        }
+        return ids;
+    }
+
+    @Override
+    public synchronized boolean updateCallStatus(int callId, CallStatus status) throws SQLException {
+        if (!contains(callId)) {
+            return false;
+        }
+        try {
+            RecordWriter writer = new RecordWriter();
+            DataOutputStream out = writer.begin();
+            out.writeByte(OP_STATUS);
+            out.writeInt(callId);
+            out.writeUTF(status.name());
+            writer.end();
+            append(writer);
+        } catch (IOException e) {
+            throw new SQLException("Error encoding status change: " + e.getMessage(), e);
+        }
+        garbageRecords++;
+        return setStatus(callId, status);
+    }
+
+    @Override
+    public synchronized boolean updateScheduledTime(int callId, LocalDateTime scheduledTime) throws SQLException {
+        if (!contains(callId)) {
+            return false;
+        }
+        try {
+            RecordWriter writer = new RecordWriter();
+            DataOutputStream out = writer.begin();
+            out.writeByte(OP_RESCHEDULE);
+            out.writeInt(callId);
+            CallRecords.writeTime(out, scheduledTime);
+            writer.end();
+            append(writer);
+        } catch (IOException e) {
+            throw new SQLException("Error encoding reschedule: " + e.getMessage(), e);
+        }
+        garbageRecords++;
+        return setScheduledTime(callId, scheduledTime);
+    }
+
+    @Override
+    public synchronized boolean deleteCall(int callId) throws SQLException {
+        if (!contains(callId)) {
+            return false;
+        }
+        try {
+            RecordWriter writer = new RecordWriter();
+            DataOutputStream out = writer.begin();
+            out.writeByte(OP_DELETE);
+            out.writeInt(callId);
+            writer.end();
+            append(writer);
+        } catch (IOException e) {
+            throw new SQLException("Error encoding delete: " + e.getMessage(), e);
+        }
+        garbageRecords += 2;
+        return remove(callId);
+    }
+
+    @Override
+    public synchronized int addSeries(CallSeries series) throws SQLException {
+        int id = nextSeriesId();
+        try {
+            RecordWriter writer = new RecordWriter();
+            writeSeries(writer.begin(), id, series);
+            writer.end();
+            append(writer);
+        } catch (IOException e) {
+            throw new SQLException("Error encoding series: " + e.getMessage(), e);
+        }
+        putSeries(id, series);
+        return id;
+    }
+
+    @Override
+    public synchronized boolean updateSeries(CallSeries series) throws SQLException {
+        if (!containsSeries(series.getId())) {
+            return false;
+        }
+        try {
+            RecordWriter writer = new RecordWriter();
+            writeSeries(writer.begin(), series.getId(), series);
+            writer.end();
+            append(writer);
+        } catch (IOException e) {
+            throw new SQLException("Error encoding series: " + e.getMessage(), e);
+        }
+        garbageRecords++;
+        putSeries(series.getId(), series);
+        return true;
+    }
+
+    /**
+     * The occurrences and the series' new expansion point go out in one write, series last.
+     */
+    @Override
+    public synchronized int[] addOccurrences(CallSeries series, List<Call> occurrences) throws SQLException {
+        if (!containsSeries(series.getId())) {
+            throw new SQLException("No series " + series.getId());
+        }
+        int[] ids = new int[occurrences.size()];
+        RecordWriter writer = new RecordWriter();
+        try {
+            for (int i = 0; i < occurrences.size(); i++) {
+                ids[i] = nextId();
+                writeCall(writer.begin(), ids[i], occurrences.get(i));
+                writer.end();
+            }
+            writeSeries(writer.begin(), series.getId(), series);
+            writer.end();
+        } catch (IOException e) {
+            throw new SQLException("Error encoding occurrences: " + e.getMessage(), e);
+        }
+        append(writer);
+        for (int i = 0; i < occurrences.size(); i++) {
+            put(ids[i], occurrences.get(i));
+        }
+        garbageRecords++;
+        putSeries(series.getId(), series);
+        return ids;
+    }
+
+    @Override
+    public synchronized boolean deleteSeries(int seriesId) throws SQLException {
+        if (!containsSeries(seriesId)) {
+            return false;
+        }
+        try {
+            RecordWriter writer = new RecordWriter();
+            DataOutputStream out = writer.begin();
+            out.writeByte(OP_SERIES_DELETE);
+            out.writeInt(seriesId);
+            writer.end();
+            append(writer);
+        } catch (IOException e) {
+            throw new SQLException("Error encoding series delete: " + e.getMessage(), e);
+        }
+        garbageRecords += 2;
+        return removeSeries(seriesId);
+    }
+
+    /**
+     * Rewrites the file with one record per live call and series, dropping superseded records.
+     */
+    public synchronized void compact() throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".compact");
+        int live = 0;
+        int maxId = 0;
+        RecordWriter writer = new RecordWriter();
+        for (Call call : rows()) {
+            writeCall(writer.begin(), call.getId(), call);
+            writer.end();
+            maxId = Math.max(maxId, call.getId());
+            live++;
+        }
+        int lastId = lastIssuedId();
+        if (lastId > maxId) {
+            // The newest calls were deleted: a delete record for the highest id issued keeps
+            // that id from being handed out again after the file is reopened
+            DataOutputStream out = writer.begin();
+            out.writeByte(OP_DELETE);
+            out.writeInt(lastId);
+            writer.end();
+        }
+        int maxSeriesId = 0;
+        for (CallSeries series : seriesRows()) {
+            writeSeries(writer.begin(), series.getId(), series);
+            writer.end();
+            maxSeriesId = series.getId();
+        }
+        if (lastIssuedSeriesId() > maxSeriesId) {
+            DataOutputStream out = writer.begin();
+            out.writeByte(OP_SERIES_DELETE);
+            out.writeInt(lastIssuedSeriesId());
+            writer.end();
+        }
+
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).flip();
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            CallRecords.writeFully(out, writer.toBuffer());
+            out.force(true);
+        }
+
+        channel.close();
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = opener.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        garbageRecords = 0;
+        System.out.println("🧹 Compacted call store " + path + " to " + live + " calls.");
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(true);
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing call store " + path + ": " + e.getMessage());
+        }
+        channel = null;
+    }
+}
@@ -0,0 +1,311 @@
+package com.smartcaller.dao;
+
+import com.smartcaller.exception.InvalidScheduleException;
+import com.smartcaller.model.Call;
+import com.smartcaller.model.CallSeries;
+import com.smartcaller.model.CallStatus;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * CallRepository held entirely in memory; nothing survives a restart. Used for offline
+ * runs and benchmarks (-Dsmartcaller.store=memory), and as the index behind
+ * FileCallRepository and WriteBehindCallRepository. Calls are kept in a CompactCallTable
+ * (primitive columns, dictionary-encoded strings) so million-call stores fit a desktop
+ * heap; queries return fresh Call objects, like a database would. Rows are indexed by id,
+ * by (scheduled time, id) and by phone number, so every query is a lookup or an ordered
+ * range scan rather than a full sort.
+ */
+public class InMemoryCallRepository implements CallRepository {
+    private static final Comparator<Call> NEWEST_FIRST =
+            Comparator.comparing(Call::getScheduledTime).thenComparingInt(Call::getId).reversed();
+    private static final int ROWS_PAGE_SIZE = 1024;
+
+    private final CompactCallTable table = new CompactCallTable();
+    private final AtomicInteger nextId = new AtomicInteger();
+    // Series are few, so they are kept as plain objects; callers get copies
+    private final Map<Integer, CallSeries> seriesById = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSeriesId = new AtomicInteger();
+    // Claims by call id, guarded by itself. Never persisted: a restart frees every claim
+    private final Map<Integer, CallClaim> claims = new HashMap<>();
+
+    @Override
+    public int addCall(Call call) throws SQLException, InvalidScheduleException {
+        validateCall(call);
+        int id = nextId();
+        put(id, call);
+        return id;
+    }
+
+    @Override
+    public int[] addCalls(List<Call> calls, int chunkSize) throws SQLException {
+        int[] ids = new int[calls.size()];
+        for (int i = 0; i < calls.size(); i++) {
+            ids[i] = nextId();
+            put(ids[i], calls.get(i));
+        }
+        return ids;
+    }
+
+    protected int nextId() {
+        return nextId.incrementAndGet();
+    }
+
+    protected int lastIssuedId() {
+        return nextId.get();
+    }
+
+    // Ids are never reused, even after deletes, so a restored store continues after the highest seen
+    protected void advanceIdTo(int id) {
+        nextId.accumulateAndGet(id, Math::max);
+    }
+
+    // Assigns the id to the caller's object; the table keeps its own copy of the fields
+    protected void put(int id, Call call) {
+        call.setId(id);
+        table.put(id, call);
+    }
+
+    protected Call get(int id) {
+        return table.get(id);
+    }
+
+    protected boolean contains(int id) {
+        return table.contains(id);
+    }
+
+    /**
+     * Every call in time order, built a page at a time as the iteration goes. Weakly
+     * consistent: calls added or removed meanwhile may or may not be seen.
+     */
+    protected Iterable<Call> rows() {
+        return () -> streamRows().iterator();
+    }
+
+    private Stream<Call> streamRows() {
+        Iterator<Call> iterator = new Iterator<>() {
+            private List<Call> page = table.after(null, 0, ROWS_PAGE_SIZE);
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                if (index == page.size() && page.size() == ROWS_PAGE_SIZE) {
+                    Call last = page.get(index - 1);
+                    page = table.after(last.getScheduledTime(), last.getId(), ROWS_PAGE_SIZE);
+                    index = 0;
+                }
+                return index < page.size();
+            }
+
+            @Override
+            public Call next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.get(index++);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public List<Call> getAllCalls() throws SQLException {
+        return table.inTimeOrder(null);
+    }
+
+    @Override
+    public List<Call> getCallsByStatus(CallStatus status) throws SQLException {
+        return table.inTimeOrder(status);
+    }
+
+    @Override
+    public List<Call> getCallsByPhoneNumber(String phoneNumber) throws SQLException {
+        List<Call> calls = table.byPhone(phoneNumber);
+        calls.sort(NEWEST_FIRST);
+        return calls;
+    }
+
+    @Override
+    public List<Call> getCallsAfter(LocalDateTime scheduledTime, int id, int limit) throws SQLException {
+        return table.after(scheduledTime, id, limit);
+    }
+
+    @Override
+    public Stream<Call> streamAllCalls() throws SQLException {
+        return streamRows();
+    }
+
+    @Override
+    public boolean updateCallStatus(int callId, CallStatus status) throws SQLException {
+        return setStatus(callId, status);
+    }
+
+    @Override
+    public boolean updateScheduledTime(int callId, LocalDateTime scheduledTime) throws SQLException {
+        return setScheduledTime(callId, scheduledTime);
+    }
+
+    @Override
+    public boolean deleteCall(int callId) throws SQLException {
+        return remove(callId);
+    }
+
+    @Override
+    public List<CallClaim> claimCalls(List<Integer> callIds, String owner, Duration lease, int limit) throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        List<CallClaim> result = new ArrayList<>();
+        int granted = 0;
+        synchronized (claims) {
+            for (int i = 0; i < callIds.size() && granted < limit; i++) {
+                int id = callIds.get(i);
+                Call call = get(id);
+                if (call == null) {
+                    continue;
+                }
+                CallClaim held = claims.get(id);
+                if (call.getStatus() != CallStatus.PENDING) {
+                    claims.remove(id);
+                    result.add(new CallClaim(id, call.getStatus(), null, null));
+                } else if (held != null && !held.owner().equals(owner) && held.leaseUntil().isAfter(now)) {
+                    result.add(held);
+                } else {
+                    CallClaim claim = new CallClaim(id, CallStatus.PENDING, owner, now.plus(lease));
+                    claims.put(id, claim);
+                    result.add(claim);
+                    granted++;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean completeClaim(int callId, String owner, CallStatus status) throws SQLException {
+        synchronized (claims) {
+            CallClaim held = claims.get(callId);
+            if (held == null || !held.owner().equals(owner)) {
+                return false;
+            }
+            Call call = get(callId);
+            if (call == null || call.getStatus() != CallStatus.PENDING || !updateCallStatus(callId, status)) {
+                return false;
+            }
+            claims.remove(callId);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean releaseClaim(int callId, String owner) throws SQLException {
+        synchronized (claims) {
+            CallClaim held = claims.get(callId);
+            if (held == null || !held.owner().equals(owner)) {
+                return false;
+            }
+            claims.remove(callId);
+            return true;
+        }
+    }
+
+    @Override
+    public int addSeries(CallSeries series) throws SQLException {
+        int id = nextSeriesId();
+        putSeries(id, series);
+        return id;
+    }
+
+    @Override
+    public List<CallSeries> getAllSeries() throws SQLException {
+        List<CallSeries> all = new ArrayList<>(seriesById.size());
+        for (CallSeries stored : seriesRows()) {
+            all.add(new CallSeries(stored));
+        }
+        return all;
+    }
+
+    @Override
+    public boolean updateSeries(CallSeries series) throws SQLException {
+        if (!containsSeries(series.getId())) {
+            return false;
+        }
+        putSeries(series.getId(), series);
+        return true;
+    }
+
+    @Override
+    public int[] addOccurrences(CallSeries series, List<Call> occurrences) throws SQLException {
+        int[] ids = addCalls(occurrences, occurrences.size() + 1);
+        putSeries(series.getId(), series);
+        return ids;
+    }
+
+    @Override
+    public boolean deleteSeries(int seriesId) throws SQLException {
+        return removeSeries(seriesId);
+    }
+
+    protected int nextSeriesId() {
+        return nextSeriesId.incrementAndGet();
+    }
+
+    protected int lastIssuedSeriesId() {
+        return nextSeriesId.get();
+    }
+
+    protected void advanceSeriesIdTo(int id) {
+        nextSeriesId.accumulateAndGet(id, Math::max);
+    }
+
+    // Stores a copy, so later changes to the caller's object are not seen until saved
+    protected void putSeries(int id, CallSeries stored) {
+        stored.setId(id);
+        seriesById.put(id, new CallSeries(stored));
+    }
+
+    protected boolean containsSeries(int id) {
+        return seriesById.containsKey(id);
+    }
+
+    protected boolean removeSeries(int id) {
+        return seriesById.remove(id) != null;
+    }
+
+    // In id order
+    protected List<CallSeries> seriesRows() {
+        List<CallSeries> rows = new ArrayList<>(seriesById.values());
+        rows.sort(Comparator.comparingInt(CallSeries::getId));
+        return rows;
+    }
+
+    protected boolean setStatus(int callId, CallStatus status) {
+        return table.setStatus(callId, status);
+    }
+
+    protected boolean setScheduledTime(int callId, LocalDateTime scheduledTime) {
+        return table.setScheduledTime(callId, scheduledTime);
+    }
+
+    protected boolean remove(int callId) {
+        return table.remove(callId);
+    }
+
+    public int size() {
+        return table.size();
+    }
+}
@@ -0,0 +1,196 @@
+package com.smartcaller.dao;
+
+import com.smartcaller.model.Call;
+import com.smartcaller.model.CallStatus;
+import com.smartcaller.model.EmergencyCall;
+import com.smartcaller.model.VideoCall;
+import com.smartcaller.model.VoiceCall;
+import com.smartcaller.util.PhoneNumbers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of the pending queue, written on shutdown so the next start can skip the
+ * SQL scan. The file is memory-mapped on load:
+ *
+ *   header   magic, version, the CallWatermark it was taken at, call and string counts, body CRC
+ *   records  one fixed-width 36-byte record per call; names, numbers and details are
+ *            indexes into the string table
+ *   strings  offsets, then UTF-8 bytes; each distinct string is stored once
+ *
+ * A snapshot is only used if its watermark equals the database's current one, so anything
+ * changed behind the app's back (or a crash after changes) falls back to the normal load.
+ */
+public final class PendingCallSnapshot {
+    private static final int MAGIC = 0x53435031; // "SCP1"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 48;
+    private static final int RECORD_BYTES = 36;
+
+    private static final byte TYPE_VOICE = 0;
+    private static final byte TYPE_VIDEO = 1;
+    private static final byte TYPE_EMERGENCY = 2;
+    private static final CallStatus[] STATUSES = CallStatus.values();
+
+    private PendingCallSnapshot() {
+    }
+
+    public static void write(Path path, Collection<Call> calls, CallWatermark watermark) throws IOException {
+        Map<String, Integer> stringIndex = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        ByteBuffer records = ByteBuffer.allocate(calls.size() * RECORD_BYTES);
+        for (Call call : calls) {
+            String detail = "";
+            byte type = TYPE_VOICE;
+            if (call instanceof VideoCall videoCall) {
+                type = TYPE_VIDEO;
+                detail = videoCall.getVideoPlatform();
+            } else if (call instanceof EmergencyCall emergencyCall) {
+                type = TYPE_EMERGENCY;
+                detail = emergencyCall.getEmergencyType();
+            }
+            LocalDateTime time = call.getScheduledTime();
+            records.putInt(call.getId())
+                    .putLong(time.toEpochSecond(ZoneOffset.UTC))
+                    .putInt(time.getNano())
+                    .putInt(call.getPriority())
+                    .putInt(intern(call.getContactName(), stringIndex, strings))
+                    .putInt(intern(call.getPhoneNumber(), stringIndex, strings))
+                    .putInt(intern(detail, stringIndex, strings))
+                    .put(type)
+                    .put((byte) call.getStatus().ordinal())
+                    .putShort((short) call.getDurationMinutes());
+        }
+
+        int stringBytes = 0;
+        for (byte[] string : strings) {
+            stringBytes += string.length;
+        }
+        ByteBuffer body = ByteBuffer.allocate(records.capacity() + (strings.size() + 1) * Integer.BYTES + stringBytes);
+        body.put(records.flip());
+        int offset = 0;
+        for (byte[] string : strings) {
+            body.putInt(offset);
+            offset += string.length;
+        }
+        body.putInt(offset);
+        for (byte[] string : strings) {
+            body.put(string);
+        }
+        body.flip();
+
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC).putInt(VERSION)
+                .putInt(watermark.maxId()).putLong(watermark.rowCount())
+                .putLong(watermark.pendingCount()).putLong(watermark.pendingChecksum())
+                .putInt(calls.size()).putInt(strings.size()).putInt((int) crc.getValue())
+                .flip();
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CallRecords.writeFully(out, header);
+            CallRecords.writeFully(out, body);
+            out.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // A null (e.g. a video call without a platform) is stored as an empty string
+    private static int intern(String value, Map<String, Integer> stringIndex, List<byte[]> strings) {
+        String key = value == null ? "" : value;
+        return stringIndex.computeIfAbsent(key, k -> {
+            strings.add(k.getBytes(StandardCharsets.UTF_8));
+            return strings.size() - 1;
+        });
+    }
+
+    /**
+     * Loads the snapshot if it exists, is intact and was taken at the given watermark;
+     * otherwise returns null and the caller should load from the database.
+     */
+    public static List<Call> read(Path path, CallWatermark expected) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (file.getInt() != MAGIC || file.getInt() != VERSION) {
+                return null;
+            }
+            CallWatermark watermark = new CallWatermark(file.getInt(), file.getLong(), file.getLong(), file.getLong());
+            if (!watermark.equals(expected)) {
+                return null;
+            }
+            int callCount = file.getInt();
+            int stringCount = file.getInt();
+            int checksum = file.getInt();
+
+            ByteBuffer body = file.slice(HEADER_BYTES, file.capacity() - HEADER_BYTES);
+            long stringsStart = (long) callCount * RECORD_BYTES;
+            if (callCount < 0 || stringCount < 0
+                    || stringsStart + (stringCount + 1L) * Integer.BYTES > body.capacity()) {
+                return null;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                return null;
+            }
+
+            // Decode each distinct string once; calls sharing a contact share the String
+            String[] strings = new String[stringCount];
+            int bytesStart = (int) stringsStart + (stringCount + 1) * Integer.BYTES;
+            for (int i = 0; i < stringCount; i++) {
+                int from = body.getInt((int) stringsStart + i * Integer.BYTES);
+                int to = body.getInt((int) stringsStart + (i + 1) * Integer.BYTES);
+                byte[] bytes = new byte[to - from];
+                body.get(bytesStart + from, bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            List<Call> calls = new ArrayList<>(callCount);
+            for (int i = 0; i < callCount; i++) {
+                int at = i * RECORD_BYTES;
+                LocalDateTime time = LocalDateTime.ofEpochSecond(body.getLong(at + 4), body.getInt(at + 12), ZoneOffset.UTC);
+                String name = strings[body.getInt(at + 20)];
+                String phone = PhoneNumbers.intern(strings[body.getInt(at + 24)]);
+                String detail = strings[body.getInt(at + 28)];
+                Call call = switch (body.get(at + 32)) {
+                    case TYPE_VIDEO -> new VideoCall(name, phone, time, detail);
+                    case TYPE_EMERGENCY -> new EmergencyCall(name, phone, time, detail);
+                    default -> new VoiceCall(name, phone, time);
+                };
+                call.setId(body.getInt(at));
+                call.setPriority(body.getInt(at + 16));
+                call.setStatus(STATUSES[body.get(at + 33)]);
+                call.setDurationMinutes(body.getShort(at + 34));
+                calls.add(call);
+            }
+            return calls;
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("corrupt snapshot " + path, e);
+        }
+    }
+}
@@ -0,0 +1,695 @@
+package com.smartcaller.dao;
+
+import com.smartcaller.dao.CallRecords.RecordWriter;
+import com.smartcaller.exception.InvalidScheduleException;
+import com.smartcaller.model.Call;
+import com.smartcaller.model.CallSeries;
+import com.smartcaller.model.CallStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind MySQL persistence (-Dsmartcaller.store=mysql -Dsmartcaller.store.writeBehind=true).
+ * A change is appended to a local write-ahead log and applied to the in-memory indexes, and
+ * the caller returns once the log is fsynced; concurrent writers share one fsync (group
+ * commit). A background thread then writes everything changed since its last run to MySQL
+ * in one transaction, every smartcaller.wal.flushMillis. Scheduling costs a local append
+ * instead of a database round trip, and reads never touch the database.
+ *
+ * Every log record carries a sequence number (LSN). After smartcaller.wal.snapshotEvery
+ * records a snapshot of all calls is written and the log rolls to a new segment; segments
+ * that are both snapshotted and flushed are deleted. On open the snapshot is loaded and only
+ * the log tail after it is replayed. Anything logged but not yet in MySQL is written on the
+ * next flush, so a crash loses nothing that addCall has returned for.
+ *
+ * Ids are assigned here and written to MySQL explicitly, so this must be the only process
+ * writing to the calls table. For the same reason claims (claimCalls) are kept in memory,
+ * as in InMemoryCallRepository, rather than in MySQL.
+ */
+public class WriteBehindCallRepository extends InMemoryCallRepository implements AutoCloseable {
+    private static final int WAL_MAGIC = 0x5343574C; // "SCWL"
+    private static final int SNAPSHOT_MAGIC = 0x53435331; // "SCS1"
+    private static final int WAL_HEADER_BYTES = 4;
+    private static final int SNAPSHOT_HEADER_BYTES = 16; // magic + lsn + last issued id
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final String FLUSHED_FILE = "flushed.lsn";
+    private static final int FLUSH_CHUNK_SIZE = 500;
+
+    private static final byte OP_ADD = 1;
+    private static final byte OP_STATUS = 2;
+    private static final byte OP_DELETE = 3;
+    private static final byte OP_RESCHEDULE = 4;
+
+    private final CallDAO database;
+    private final Path directory;
+    private final boolean fsync;
+    private final long flushMillis;
+    private final long snapshotEvery;
+
+    // Guarded by this
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private FileChannel wal;
+    private long lastLsn;
+    private long recordsSinceSnapshot;
+    private Set<Integer> dirty = new HashSet<>();
+
+    // Taken before this, never after: group commit and segment rolls
+    private final Object syncLock = new Object();
+    private final Object flushLock = new Object();
+    private final AtomicLong durableLsn = new AtomicLong();
+    private volatile long flushedLsn;
+    private volatile long snapshotLsn;
+    private volatile boolean flushFailing;
+    private FileChannel flushedMarker;
+    private ScheduledExecutorService flusher;
+
+    private WriteBehindCallRepository(CallDAO database, Path directory, boolean fsync,
+                                      long flushMillis, long snapshotEvery) {
+        this.database = database;
+        this.directory = directory;
+        this.fsync = fsync;
+        this.flushMillis = flushMillis;
+        this.snapshotEvery = snapshotEvery;
+    }
+
+    /**
+     * Opens the log in smartcaller.wal.dir (default smartcaller-wal), with
+     * smartcaller.wal.fsync (default true), smartcaller.wal.flushMillis (default 200) and
+     * smartcaller.wal.snapshotEvery (default 50000 records).
+     */
+    public static WriteBehindCallRepository open(CallDAO database) throws SQLException {
+        return open(database, Path.of(System.getProperty("smartcaller.wal.dir", "smartcaller-wal")),
+                !"false".equalsIgnoreCase(System.getProperty("smartcaller.wal.fsync")),
+                Long.getLong("smartcaller.wal.flushMillis", 200),
+                Long.getLong("smartcaller.wal.snapshotEvery", 50_000));
+    }
+
+    public static WriteBehindCallRepository open(CallDAO database, Path directory, boolean fsync,
+                                                 long flushMillis, long snapshotEvery) throws SQLException {
+        WriteBehindCallRepository repository =
+                new WriteBehindCallRepository(database, directory, fsync, flushMillis, snapshotEvery);
+        long start = System.nanoTime();
+        try {
+            repository.load();
+        } catch (IOException e) {
+            repository.closeFiles();
+            throw new SQLException("Cannot open write-ahead log in " + directory + ": " + e.getMessage(), e);
+        }
+        System.out.println("✅ Opened write-behind call store " + directory + " (" + repository.size()
+                + " calls, " + repository.getUnflushedCount() + " unflushed) in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms.");
+        repository.startFlusher();
+        return repository;
+    }
+
+    private void load() throws IOException, SQLException {
+        Files.createDirectories(directory);
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshot)) {
+            readSnapshot(snapshot);
+        } else {
+            // First start (or snapshot lost): the database is the baseline, the log is replayed over it
+            for (Call call : database.getAllCalls()) {
+                put(call.getId(), call);
+            }
+            advanceIdTo(database.getMaxId());
+        }
+
+        flushedMarker = FileChannel.open(directory.resolve(FLUSHED_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Held until close, so a second instance can't interleave its own log with ours
+        try {
+            if (flushedMarker.tryLock() == null) {
+                throw new IOException("already in use by another process");
+            }
+        } catch (OverlappingFileLockException e) {
+            throw new IOException("already open in this process", e);
+        }
+        ByteBuffer marker = ByteBuffer.allocate(Long.BYTES);
+        flushedMarker.read(marker, 0);
+        flushedLsn = marker.flip().remaining() == Long.BYTES ? marker.getLong() : 0;
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "wal-*.log")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                segments.put(Long.parseLong(name.substring(4, name.length() - 4)), file);
+            }
+        }
+        lastLsn = Math.max(snapshotLsn, flushedLsn);
+        for (Map.Entry<Long, Path> segment : segments.entrySet()) {
+            replaySegment(segment.getValue());
+        }
+        durableLsn.set(lastLsn);
+        openSegment(lastLsn + 1);
+        deleteObsoleteSegments();
+    }
+
+    private void readSnapshot(Path snapshot) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER_BYTES);
+            channel.read(header, 0);
+            if (header.flip().remaining() < SNAPSHOT_HEADER_BYTES || header.getInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("not a call snapshot file");
+            }
+            snapshotLsn = header.getLong();
+            advanceIdTo(header.getInt());
+            CallRecords.readRecords(channel, SNAPSHOT_HEADER_BYTES, (payload, length) -> {
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload, 0, length));
+                int id = in.readInt();
+                put(id, CallRecords.readCall(in));
+                advanceIdTo(id);
+            });
+        }
+    }
+
+    // Records up to the snapshot are already in memory; records after the flush marker still owe MySQL a write
+    private void replaySegment(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(WAL_HEADER_BYTES);
+            channel.read(header, 0);
+            if (header.flip().remaining() < WAL_HEADER_BYTES || header.getInt() != WAL_MAGIC) {
+                System.err.println("⚠️ Skipping unreadable log segment " + file);
+                return;
+            }
+            long size = channel.size();
+            long position = CallRecords.readRecords(channel, WAL_HEADER_BYTES, (payload, length) -> {
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload, 0, length));
+                long lsn = in.readLong();
+                byte op = in.readByte();
+                int id = in.readInt();
+                if (lsn > snapshotLsn) {
+                    apply(op, id, in);
+                }
+                if (lsn > flushedLsn) {
+                    dirty.add(id);
+                }
+                advanceIdTo(id);
+                lastLsn = Math.max(lastLsn, lsn);
+            });
+            if (position < size) {
+                // Torn tail from a crash mid-append; nothing after it was acknowledged
+                System.err.println("⚠️ Log segment " + file + ": discarding " + (size - position) + " bytes of incomplete data");
+                channel.truncate(position);
+                channel.force(true);
+            }
+        }
+    }
+
+    private void apply(byte op, int id, DataInputStream in) throws IOException {
+        switch (op) {
+            case OP_ADD -> put(id, CallRecords.readCall(in));
+            case OP_STATUS -> setStatus(id, CallStatus.valueOf(in.readUTF()));
+            case OP_DELETE -> remove(id);
+            case OP_RESCHEDULE -> setScheduledTime(id, CallRecords.readTime(in));
+            default -> throw new IOException("unknown record type " + op);
+        }
+    }
+
+    private void openSegment(long firstLsn) throws IOException {
+        Path file = directory.resolve(String.format("wal-%020d.log", firstLsn));
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        CallRecords.writeFully(channel, ByteBuffer.allocate(WAL_HEADER_BYTES).putInt(WAL_MAGIC).flip());
+        channel.force(true);
+        wal = channel;
+        segments.put(firstLsn, file);
+    }
+
+    private void startFlusher() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "call-write-behind");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushSafely, 0, flushMillis, TimeUnit.MILLISECONDS);
+        // Best effort: anything not flushed by then is still in the log and goes out on the next start
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "call-write-behind-shutdown"));
+    }
+
+    // Appends framed records and returns the LSN of the last one. Caller holds this
+    private long append(RecordWriter writer) throws SQLException {
+        try {
+            if (wal == null) {
+                throw new IOException("store is closed");
+            }
+            long position = wal.position();
+            try {
+                CallRecords.writeFully(wal, writer.toBuffer());
+            } catch (IOException e) {
+                // Don't leave half a record in front of the next append
+                wal.truncate(position);
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new SQLException("Error writing call log in " + directory + ": " + e.getMessage(), e);
+        }
+        lastLsn += writer.count();
+        recordsSinceSnapshot += writer.count();
+        return lastLsn;
+    }
+
+    private DataOutputStream begin(RecordWriter writer, long lsn, byte op, int id) throws IOException {
+        DataOutputStream out = writer.begin();
+        out.writeLong(lsn);
+        out.writeByte(op);
+        out.writeInt(id);
+        return out;
+    }
+
+    /**
+     * Waits until the log is on disk up to lsn. Whoever gets here first forces everything
+     * written so far, which covers the other writers waiting behind it.
+     */
+    private void sync(long lsn) throws SQLException {
+        if (!fsync || durableLsn.get() >= lsn) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durableLsn.get() >= lsn) {
+                return;
+            }
+            long upTo;
+            FileChannel channel;
+            synchronized (this) {
+                upTo = lastLsn;
+                channel = wal;
+            }
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                throw new SQLException("Error syncing call log in " + directory + ": " + e.getMessage(), e);
+            }
+            durableLsn.accumulateAndGet(upTo, Math::max);
+        }
+    }
+
+    @Override
+    public int addCall(Call call) throws SQLException, InvalidScheduleException {
+        validateCall(call);
+        int id;
+        long lsn;
+        synchronized (this) {
+            id = nextId();
+            RecordWriter writer = new RecordWriter();
+            try {
+                CallRecords.writeCall(begin(writer, lastLsn + 1, OP_ADD, id), call);
+                writer.end();
+            } catch (IOException e) {
+                throw new SQLException("Error encoding call: " + e.getMessage(), e);
+            }
+            lsn = append(writer);
+            put(id, call);
+            dirty.add(id);
+        }
+        sync(lsn);
+        return id;
+    }
+
+    @Override
+    public int[] addCalls(List<Call> calls, int chunkSize) throws SQLException {
+        int[] ids = new int[calls.size()];
+        long lsn;
+        synchronized (this) {
+            RecordWriter writer = new RecordWriter();
+            try {
+                for (int i = 0; i < calls.size(); i++) {
+                    ids[i] = nextId();
+                    CallRecords.writeCall(begin(writer, lastLsn + 1 + i, OP_ADD, ids[i]), calls.get(i));
+                    writer.end();
+                }
+            } catch (IOException e) {
+                throw new SQLException("Error encoding calls: " + e.getMessage(), e);
+            }
+            // One append and one fsync for the whole batch
+            lsn = append(writer);
+            for (int i = 0; i < calls.size(); i++) {
+                put(ids[i], calls.get(i));
+                dirty.add(ids[i]);
+            }
+        }
+        sync(lsn);
+        return ids;
+    }
+
+    @Override
+    public boolean updateCallStatus(int callId, CallStatus status) throws SQLException {
+        long lsn;
+        synchronized (this) {
+            if (!contains(callId)) {
+                return false;
+            }
+            RecordWriter writer = new RecordWriter();
+            try {
+                begin(writer, lastLsn + 1, OP_STATUS, callId).writeUTF(status.name());
+                writer.end();
+            } catch (IOException e) {
+                throw new SQLException("Error encoding status change: " + e.getMessage(), e);
+            }
+            lsn = append(writer);
+            setStatus(callId, status);
+            dirty.add(callId);
+        }
+        sync(lsn);
+        return true;
+    }
+
+    @Override
+    public boolean updateScheduledTime(int callId, LocalDateTime scheduledTime) throws SQLException {
+        long lsn;
+        synchronized (this) {
+            if (!contains(callId)) {
+                return false;
+            }
+            RecordWriter writer = new RecordWriter();
+            try {
+                CallRecords.writeTime(begin(writer, lastLsn + 1, OP_RESCHEDULE, callId), scheduledTime);
+                writer.end();
+            } catch (IOException e) {
+                throw new SQLException("Error encoding reschedule: " + e.getMessage(), e);
+            }
+            lsn = append(writer);
+            setScheduledTime(callId, scheduledTime);
+            dirty.add(callId);
+        }
+        sync(lsn);
+        return true;
+    }
+
+    @Override
+    public boolean deleteCall(int callId) throws SQLException {
+        long lsn;
+        synchronized (this) {
+            if (!contains(callId)) {
+                return false;
+            }
+            RecordWriter writer = new RecordWriter();
+            try {
+                begin(writer, lastLsn + 1, OP_DELETE, callId);
+                writer.end();
+            } catch (IOException e) {
+                throw new SQLException("Error encoding delete: " + e.getMessage(), e);
+            }
+            lsn = append(writer);
+            remove(callId);
+            dirty.add(callId);
+        }
+        sync(lsn);
+        return true;
+    }
+
+    // Series change rarely, so they are written straight through to MySQL rather than logged
+
+    @Override
+    public int addSeries(CallSeries series) throws SQLException {
+        return database.addSeries(series);
+    }
+
+    @Override
+    public List<CallSeries> getAllSeries() throws SQLException {
+        return database.getAllSeries();
+    }
+
+    @Override
+    public boolean updateSeries(CallSeries series) throws SQLException {
+        return database.updateSeries(series);
+    }
+
+    /**
+     * Logs the occurrences like addCalls, then saves the series' expansion point in MySQL.
+     * If the save fails the occurrences are logged as deleted again, so the next expansion,
+     * which retries the same window, does not add them a second time.
+     */
+    @Override
+    public int[] addOccurrences(CallSeries series, List<Call> occurrences) throws SQLException {
+        int[] ids = addCalls(occurrences, FLUSH_CHUNK_SIZE);
+        try {
+            if (!database.updateSeries(series)) {
+                throw new SQLException("No series " + series.getId());
+            }
+        } catch (SQLException | RuntimeException e) {
+            try {
+                deleteCalls(ids);
+            } catch (SQLException undoError) {
+                e.addSuppressed(undoError);
+            }
+            throw e;
+        }
+        return ids;
+    }
+
+    // Logs a delete for each call in one append, like addCalls
+    private void deleteCalls(int[] ids) throws SQLException {
+        long lsn;
+        synchronized (this) {
+            RecordWriter writer = new RecordWriter();
+            try {
+                for (int i = 0; i < ids.length; i++) {
+                    begin(writer, lastLsn + 1 + i, OP_DELETE, ids[i]);
+                    writer.end();
+                }
+            } catch (IOException e) {
+                throw new SQLException("Error encoding deletes: " + e.getMessage(), e);
+            }
+            lsn = append(writer);
+            for (int id : ids) {
+                remove(id);
+                dirty.add(id);
+            }
+        }
+        sync(lsn);
+    }
+
+    @Override
+    public boolean deleteSeries(int seriesId) throws SQLException {
+        return database.deleteSeries(seriesId);
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+            if (flushFailing) {
+                flushFailing = false;
+                System.out.println("✅ Write-behind flush to MySQL recovered.");
+            }
+            if (recordsSinceSnapshot() >= snapshotEvery) {
+                snapshot();
+            }
+        } catch (SQLException | IOException | RuntimeException e) {
+            // Changes stay in the log and are retried next round; only report the first failure
+            if (!flushFailing) {
+                flushFailing = true;
+                System.err.println("Write-behind flush failed, will retry: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Writes every call changed since the last flush to MySQL in one transaction. Each
+     * changed id is written in its current state (or deleted), so several changes to one
+     * call cost a single row write.
+     */
+    public void flush() throws SQLException {
+        synchronized (flushLock) {
+            Set<Integer> ids;
+            long upTo;
+            synchronized (this) {
+                ids = dirty;
+                dirty = new HashSet<>();
+                upTo = lastLsn;
+            }
+            if (!ids.isEmpty()) {
+                write(ids, upTo);
+            }
+            if (upTo > flushedLsn) {
+                flushedLsn = upTo;
+                try {
+                    // Not fsynced: a stale marker only means some rows are written again after a crash
+                    flushedMarker.write(ByteBuffer.allocate(Long.BYTES).putLong(upTo).flip(), 0);
+                } catch (IOException e) {
+                    System.err.println("Could not record write-behind progress: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void write(Set<Integer> ids, long upTo) throws SQLException {
+        try {
+            // Never let MySQL get ahead of the log, or a crash could hand out an id twice
+            sync(upTo);
+            List<Call> upserts = new ArrayList<>();
+            List<Integer> deletes = new ArrayList<>();
+            for (int id : ids) {
+                Call call = get(id);
+                if (call != null) {
+                    upserts.add(call);
+                } else {
+                    deletes.add(id);
+                }
+            }
+            database.applyChanges(upserts, deletes, FLUSH_CHUNK_SIZE);
+        } catch (SQLException | RuntimeException e) {
+            synchronized (this) {
+                dirty.addAll(ids);
+            }
+            throw e;
+        }
+    }
+
+    private synchronized long recordsSinceSnapshot() {
+        return recordsSinceSnapshot;
+    }
+
+    /**
+     * Writes all calls to a new snapshot, starts a new log segment and deletes the segments
+     * that are no longer needed for either restart or flushing.
+     */
+    public void snapshot() throws IOException {
+        long lsn;
+        int lastId;
+        synchronized (syncLock) {
+            synchronized (this) {
+                if (wal == null) {
+                    return;
+                }
+                lsn = lastLsn;
+                lastId = lastIssuedId();
+                wal.force(false);
+                wal.close();
+                durableLsn.accumulateAndGet(lsn, Math::max);
+                openSegment(lsn + 1);
+                recordsSinceSnapshot = 0;
+            }
+        }
+
+        // Writers carry on meanwhile. The copy may include changes after lsn; replaying
+        // those records again on open gives the same result, so that is harmless.
+        Path file = directory.resolve(SNAPSHOT_FILE);
+        Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        int count = 0;
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CallRecords.writeFully(out, ByteBuffer.allocate(SNAPSHOT_HEADER_BYTES)
+                    .putInt(SNAPSHOT_MAGIC).putLong(lsn).putInt(lastId).flip());
+            RecordWriter writer = new RecordWriter();
+            for (Call call : rows()) {
+                DataOutputStream record = writer.begin();
+                record.writeInt(call.getId());
+                CallRecords.writeCall(record, call);
+                writer.end();
+                if (writer.count() == 1024) {
+                    CallRecords.writeFully(out, writer.toBuffer());
+                    writer.reset();
+                }
+                count++;
+            }
+            CallRecords.writeFully(out, writer.toBuffer());
+            out.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        snapshotLsn = lsn;
+        deleteObsoleteSegments();
+        System.out.println("💾 Snapshot of " + count + " calls at log position " + lsn + ".");
+    }
+
+    // A segment can go once every record in it is both in the snapshot and in MySQL
+    private synchronized void deleteObsoleteSegments() {
+        long safe = Math.min(snapshotLsn, flushedLsn);
+        List<Long> firsts = new ArrayList<>(segments.keySet());
+        for (int i = 0; i + 1 < firsts.size(); i++) {
+            long lastInSegment = firsts.get(i + 1) - 1;
+            if (lastInSegment > safe) {
+                break;
+            }
+            Path file = segments.remove(firsts.get(i));
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                System.err.println("Could not delete log segment " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Number of changed calls not yet written to MySQL.
+     */
+    public synchronized int getUnflushedCount() {
+        return dirty.size();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Stops the background flusher, then flushes and snapshots one last time so the next
+     * open has nothing to replay.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (wal == null) {
+                return;
+            }
+        }
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            flush();
+            if (recordsSinceSnapshot() > 0) {
+                snapshot();
+            }
+        } catch (SQLException | IOException e) {
+            System.err.println("Write-behind store closed with unflushed changes (kept in the log): " + e.getMessage());
+        }
+        closeFiles();
+    }
+
+    private void closeFiles() {
+        synchronized (syncLock) {
+            synchronized (this) {
+                try {
+                    if (wal != null) {
+                        wal.force(true);
+                        wal.close();
+                    }
+                    if (flushedMarker != null) {
+                        flushedMarker.close();
+                    }
+                } catch (IOException e) {
+                    System.err.println("Error closing call log in " + directory + ": " + e.getMessage());
+                }
+                wal = null;
+                flushedMarker = null;
+            }
+        }
+    }
+}
@@ -3,12 +3,15 @@ package com.smartcaller.model;
 import java.time.LocalDateTime;
 
 public abstract class Call {
+    public static final int DEFAULT_DURATION_MINUTES = 15;
+
     protected int id;
     protected String contactName;
     protected String phoneNumber;
     protected LocalDateTime scheduledTime;
     protected int priority;
     protected CallStatus status;
+    protected int durationMinutes;
 
     public Call(String contactName, String phoneNumber, LocalDateTime scheduledTime) {
         this.contactName = contactName;
@@ -16,6 +19,7 @@ public abstract class Call {
         this.scheduledTime = scheduledTime;
         this.priority = 1;
         this.status = CallStatus.PENDING;
+        this.durationMinutes = DEFAULT_DURATION_MINUTES;
     }
 
     // Getters and Setters
@@ -37,11 +41,17 @@ public abstract class Call {
     public CallStatus getStatus() { return status; }
     public void setStatus(CallStatus status) { this.status = status; }
 
+    // How long the call is expected to take; the slot it occupies is [scheduledTime, getEndTime())
+    public int getDurationMinutes() { return durationMinutes; }
+    public void setDurationMinutes(int durationMinutes) { this.durationMinutes = durationMinutes; }
+
+    public LocalDateTime getEndTime() { return scheduledTime.plusMinutes(durationMinutes); }
+
     public abstract String getCallType();
 
     @Override
     public String toString() {
-        return String.format("Call{id=%d, contact='%s', phone='%s', time=%s, type=%s, priority=%d, status=%s}",
-                id, contactName, phoneNumber, scheduledTime, getCallType(), priority, status);
+        return String.format("Call{id=%d, contact='%s', phone='%s', time=%s, duration=%dm, type=%s, priority=%d, status=%s}",
+                id, contactName, phoneNumber, scheduledTime, durationMinutes, getCallType(), priority, status);
     }
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.smartcaller.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A recurring call, stored once: the call's details, its first slot, a RecurrenceRule and
+ * the dates to skip. Occurrences become ordinary calls only a short horizon ahead;
+ * expandedThrough and expandedCount record how far that has got, so each expansion
+ * continues where the last one stopped.
+ */
+public class CallSeries {
+    private int id;
+    private String callType;
+    private String contactName;
+    private String phoneNumber;
+    private String detail;
+    private int priority;
+    private int durationMinutes;
+    private LocalDateTime start;
+    private RecurrenceRule rule;
+    private final TreeSet<LocalDate> exceptions = new TreeSet<>();
+    private LocalDateTime expandedThrough;
+    private int expandedCount;
+
+    public CallSeries(String callType, String contactName, String phoneNumber, String detail,
+                      LocalDateTime start, RecurrenceRule rule) {
+        this.callType = callType;
+        this.contactName = contactName;
+        this.phoneNumber = phoneNumber;
+        this.detail = detail;
+        this.start = start;
+        this.rule = rule;
+        this.priority = 1;
+        this.durationMinutes = Call.DEFAULT_DURATION_MINUTES;
+    }
+
+    /**
+     * A series repeating the given call, which is its first occurrence.
+     */
+    public static CallSeries of(Call first, RecurrenceRule rule) {
+        String detail = null;
+        if (first instanceof VideoCall videoCall) {
+            detail = videoCall.getVideoPlatform();
+        } else if (first instanceof EmergencyCall emergencyCall) {
+            detail = emergencyCall.getEmergencyType();
+        }
+        CallSeries series = new CallSeries(first.getCallType(), first.getContactName(), first.getPhoneNumber(),
+                detail, first.getScheduledTime(), rule);
+        series.setPriority(first.getPriority());
+        series.setDurationMinutes(first.getDurationMinutes());
+        return series;
+    }
+
+    public CallSeries(CallSeries other) {
+        this(other.callType, other.contactName, other.phoneNumber, other.detail, other.start, other.rule);
+        this.id = other.id;
+        this.priority = other.priority;
+        this.durationMinutes = other.durationMinutes;
+        this.exceptions.addAll(other.exceptions);
+        this.expandedThrough = other.expandedThrough;
+        this.expandedCount = other.expandedCount;
+    }
+
+    // Getters and Setters
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
+    public String getCallType() { return callType; }
+    public void setCallType(String callType) { this.callType = callType; }
+
+    public String getContactName() { return contactName; }
+    public void setContactName(String contactName) { this.contactName = contactName; }
+
+    public String getPhoneNumber() { return phoneNumber; }
+    public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; }
+
+    // Video platform or emergency type, depending on the call type
+    public String getDetail() { return detail; }
+    public void setDetail(String detail) { this.detail = detail; }
+
+    public int getPriority() { return priority; }
+    public void setPriority(int priority) { this.priority = priority; }
+
+    public int getDurationMinutes() { return durationMinutes; }
+    public void setDurationMinutes(int durationMinutes) { this.durationMinutes = durationMinutes; }
+
+    public LocalDateTime getStart() { return start; }
+    public void setStart(LocalDateTime start) { this.start = start; }
+
+    public RecurrenceRule getRule() { return rule; }
+    public void setRule(RecurrenceRule rule) { this.rule = rule; }
+
+    // Dates whose occurrence is skipped (EXDATE); they still count towards the rule's COUNT
+    public Set<LocalDate> getExceptions() { return exceptions; }
+
+    public LocalDateTime getExpandedThrough() { return expandedThrough; }
+    public void setExpandedThrough(LocalDateTime expandedThrough) { this.expandedThrough = expandedThrough; }
+
+    public int getExpandedCount() { return expandedCount; }
+    public void setExpandedCount(int expandedCount) { this.expandedCount = expandedCount; }
+
+    public boolean isExhausted() {
+        return rule.isExhausted(expandedThrough, expandedCount);
+    }
+
+    /**
+     * A new pending call for the occurrence at this time.
+     */
+    public Call occurrenceAt(LocalDateTime time) {
+        Call call = switch (callType) {
+            case "VIDEO_CALL" -> new VideoCall(contactName, phoneNumber, time, detail);
+            case "EMERGENCY_CALL" -> new EmergencyCall(contactName, phoneNumber, time, detail);
+            default -> new VoiceCall(contactName, phoneNumber, time);
+        };
+        call.setPriority(priority);
+        call.setDurationMinutes(durationMinutes);
+        return call;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CallSeries{id=%d, contact='%s', phone='%s', start=%s, rule=%s, type=%s, exceptions=%d, expandedThrough=%s}",
+                id, contactName, phoneNumber, start, rule, callType, exceptions.size(), expandedThrough);
+    }
+}
@@ -0,0 +1,72 @@
+package com.smartcaller.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A queued email in the persistent outbox. The idempotency key is unique, so enqueueing
+ * the same reminder twice (e.g. after a retry or restart) stores it only once.
+ */
+public class OutboxMessage {
+    private long id;
+    private String idempotencyKey;
+    private int callId;
+    private String recipient;
+    private String subject;
+    private String body;
+    private OutboxStatus status;
+    private int attempts;
+    private LocalDateTime nextAttemptAt;
+    private String lastError;
+
+    public OutboxMessage(String idempotencyKey, int callId, String recipient, String subject, String body) {
+        this.idempotencyKey = idempotencyKey;
+        this.callId = callId;
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+        this.status = OutboxStatus.PENDING;
+        this.nextAttemptAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+
+    public int getCallId() { return callId; }
+    public void setCallId(int callId) { this.callId = callId; }
+
+    public String getRecipient() { return recipient; }
+    public void setRecipient(String recipient) { this.recipient = recipient; }
+
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+
+    public String getBody() { return body; }
+    public void setBody(String body) { this.body = body; }
+
+    public OutboxStatus getStatus() { return status; }
+    public void setStatus(OutboxStatus status) { this.status = status; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public String getRecipientDomain() {
+        int at = recipient == null ? -1 : recipient.lastIndexOf('@');
+        return at < 0 ? "" : recipient.substring(at + 1).toLowerCase();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OutboxMessage{id=%d, key='%s', to='%s', status=%s, attempts=%d}",
+                id, idempotencyKey, recipient, status, attempts);
+    }
+}
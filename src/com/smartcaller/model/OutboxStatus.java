@@ -0,0 +1,5 @@
+package com.smartcaller.model;
+
+public enum OutboxStatus {
+    PENDING, SENT, DEAD, CANCELLED
+}
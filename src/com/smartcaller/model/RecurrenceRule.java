@@ -0,0 +1,302 @@
+package com.smartcaller.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * When a recurring call repeats, in a subset of iCalendar RRULE syntax:
+ * FREQ=DAILY|WEEKLY|MONTHLY, INTERVAL, BYDAY (weekly, e.g. MO,WE), BYMONTHDAY (monthly,
+ * e.g. 1,15,-1 for the last day) and an optional COUNT or UNTIL. Without BYDAY or
+ * BYMONTHDAY the day of the series start is used; months that lack a BYMONTHDAY are
+ * skipped, as in RFC 5545. Weeks start on Monday. Immutable.
+ */
+public final class RecurrenceRule {
+    private static final DateTimeFormatter UNTIL_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter UNTIL_DATE_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    public enum Frequency {
+        DAILY, WEEKLY, MONTHLY
+    }
+
+    private final Frequency frequency;
+    private final int interval;
+    private final EnumSet<DayOfWeek> byDay;
+    private final int[] byMonthDay;
+    private final int count;
+    private final LocalDateTime until;
+
+    /**
+     * @param byDay      weekly only; empty for the start's day of the week
+     * @param byMonthDay monthly only, 1..31 or -31..-1 counting from the month's end; empty for the start's day
+     * @param count      total occurrences, or 0 for no limit
+     * @param until      last possible occurrence, or null
+     */
+    public RecurrenceRule(Frequency frequency, int interval, Set<DayOfWeek> byDay, int[] byMonthDay,
+                          int count, LocalDateTime until) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("INTERVAL must be positive");
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("COUNT must not be negative");
+        }
+        if (count > 0 && until != null) {
+            throw new IllegalArgumentException("COUNT and UNTIL cannot both be set");
+        }
+        if (!byDay.isEmpty() && frequency != Frequency.WEEKLY) {
+            throw new IllegalArgumentException("BYDAY is only supported with FREQ=WEEKLY");
+        }
+        if (byMonthDay.length > 0 && frequency != Frequency.MONTHLY) {
+            throw new IllegalArgumentException("BYMONTHDAY is only supported with FREQ=MONTHLY");
+        }
+        for (int day : byMonthDay) {
+            if (day == 0 || day < -31 || day > 31) {
+                throw new IllegalArgumentException("Invalid BYMONTHDAY " + day);
+            }
+        }
+        this.frequency = frequency;
+        this.interval = interval;
+        this.byDay = byDay.isEmpty() ? EnumSet.noneOf(DayOfWeek.class) : EnumSet.copyOf(byDay);
+        this.byMonthDay = byMonthDay.clone();
+        this.count = count;
+        this.until = until;
+    }
+
+    public static RecurrenceRule daily() {
+        return new RecurrenceRule(Frequency.DAILY, 1, Set.of(), new int[0], 0, null);
+    }
+
+    public static RecurrenceRule weekly(DayOfWeek... days) {
+        return new RecurrenceRule(Frequency.WEEKLY, 1, Set.of(days), new int[0], 0, null);
+    }
+
+    public static RecurrenceRule monthly(int... daysOfMonth) {
+        return new RecurrenceRule(Frequency.MONTHLY, 1, Set.of(), daysOfMonth, 0, null);
+    }
+
+    /**
+     * Parses e.g. "FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,TH;UNTIL=20271231T170000". An "RRULE:" prefix
+     * is allowed; an UNTIL without a time means the end of that day.
+     */
+    public static RecurrenceRule parse(String rule) {
+        String text = rule.trim();
+        if (text.regionMatches(true, 0, "RRULE:", 0, 6)) {
+            text = text.substring(6);
+        }
+        Frequency frequency = null;
+        int interval = 1;
+        Set<DayOfWeek> byDay = EnumSet.noneOf(DayOfWeek.class);
+        int[] byMonthDay = new int[0];
+        int count = 0;
+        LocalDateTime until = null;
+        try {
+            for (String part : text.split(";")) {
+                if (part.isBlank()) {
+                    continue;
+                }
+                int equals = part.indexOf('=');
+                if (equals < 0) {
+                    throw new IllegalArgumentException("Expected NAME=VALUE: " + part);
+                }
+                String name = part.substring(0, equals).trim().toUpperCase(Locale.ROOT);
+                String value = part.substring(equals + 1).trim().toUpperCase(Locale.ROOT);
+                switch (name) {
+                    case "FREQ" -> frequency = Frequency.valueOf(value);
+                    case "INTERVAL" -> interval = Integer.parseInt(value);
+                    case "COUNT" -> count = Integer.parseInt(value);
+                    case "UNTIL" -> until = value.length() == 8
+                            ? LocalDate.parse(value, UNTIL_DATE_FORMAT).atTime(23, 59, 59)
+                            : LocalDateTime.parse(value.endsWith("Z") ? value.substring(0, value.length() - 1) : value,
+                            UNTIL_FORMAT);
+                    case "BYDAY" -> {
+                        for (String day : value.split(",")) {
+                            byDay.add(parseDay(day.trim()));
+                        }
+                    }
+                    case "BYMONTHDAY" -> byMonthDay = Arrays.stream(value.split(","))
+                            .mapToInt(day -> Integer.parseInt(day.trim())).toArray();
+                    default -> throw new IllegalArgumentException("Unsupported rule part " + name);
+                }
+            }
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid UNTIL in " + rule, e);
+        }
+        if (frequency == null) {
+            throw new IllegalArgumentException("FREQ is required: " + rule);
+        }
+        return new RecurrenceRule(frequency, interval, byDay, byMonthDay, count, until);
+    }
+
+    private static DayOfWeek parseDay(String day) {
+        for (DayOfWeek value : DayOfWeek.values()) {
+            if (value.name().startsWith(day) && day.length() == 2) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Unknown BYDAY " + day);
+    }
+
+    public Frequency getFrequency() { return frequency; }
+    public int getInterval() { return interval; }
+    public Set<DayOfWeek> getByDay() { return byDay.clone(); }
+    public int[] getByMonthDay() { return byMonthDay.clone(); }
+    public int getCount() { return count; }
+    public LocalDateTime getUntil() { return until; }
+
+    /**
+     * The rule's occurrences for a series starting at start, in order, that fall after
+     * after (null to include start itself) and at or before through. generated is how many
+     * occurrences came at or before after, so COUNT carries over between calls. Periods
+     * before after are skipped arithmetically, so the cost is proportional to the window,
+     * not to the age of the series.
+     */
+    public List<LocalDateTime> occurrences(LocalDateTime start, LocalDateTime after, LocalDateTime through,
+                                           int generated) {
+        List<LocalDateTime> result = new ArrayList<>();
+        LocalDate lastDate = through.toLocalDate();
+        for (long period = firstPeriod(start, after); ; period++) {
+            LocalDate periodStart = periodStart(start, period);
+            if (periodStart.isAfter(lastDate)) {
+                return result;
+            }
+            for (LocalDate date : datesIn(start, period)) {
+                LocalDateTime occurrence = date.atTime(start.toLocalTime());
+                if (occurrence.isBefore(start) || (after != null && !occurrence.isAfter(after))) {
+                    continue;
+                }
+                if (occurrence.isAfter(through) || (until != null && occurrence.isAfter(until))
+                        || (count > 0 && generated + result.size() >= count)) {
+                    return result;
+                }
+                result.add(occurrence);
+            }
+        }
+    }
+
+    // The period (day, week or month, counted in intervals from the start) that contains after
+    private long firstPeriod(LocalDateTime start, LocalDateTime after) {
+        if (after == null || !after.isAfter(start)) {
+            return 0;
+        }
+        LocalDate from = start.toLocalDate();
+        LocalDate to = after.toLocalDate();
+        long units = switch (frequency) {
+            case DAILY -> ChronoUnit.DAYS.between(from, to);
+            case WEEKLY -> ChronoUnit.WEEKS.between(weekOf(from), weekOf(to));
+            case MONTHLY -> ChronoUnit.MONTHS.between(YearMonth.from(from), YearMonth.from(to));
+        };
+        return units / interval;
+    }
+
+    private LocalDate periodStart(LocalDateTime start, long period) {
+        LocalDate from = start.toLocalDate();
+        return switch (frequency) {
+            case DAILY -> from.plusDays(period * interval);
+            case WEEKLY -> weekOf(from).plusWeeks(period * interval);
+            case MONTHLY -> YearMonth.from(from).plusMonths(period * interval).atDay(1);
+        };
+    }
+
+    // Candidate dates in one period, ascending
+    private List<LocalDate> datesIn(LocalDateTime start, long period) {
+        LocalDate periodStart = periodStart(start, period);
+        switch (frequency) {
+            case WEEKLY -> {
+                if (byDay.isEmpty()) {
+                    return List.of(periodStart.with(TemporalAdjusters.nextOrSame(start.getDayOfWeek())));
+                }
+                List<LocalDate> dates = new ArrayList<>(byDay.size());
+                for (DayOfWeek day : byDay) {
+                    dates.add(periodStart.with(TemporalAdjusters.nextOrSame(day)));
+                }
+                return dates;
+            }
+            case MONTHLY -> {
+                YearMonth month = YearMonth.from(periodStart);
+                int length = month.lengthOfMonth();
+                int[] days = byMonthDay.length == 0 ? new int[]{start.getDayOfMonth()} : byMonthDay;
+                int[] resolved = new int[days.length];
+                int n = 0;
+                for (int day : days) {
+                    int dayOfMonth = day > 0 ? day : length + 1 + day;
+                    if (dayOfMonth >= 1 && dayOfMonth <= length) {
+                        resolved[n++] = dayOfMonth;
+                    }
+                }
+                int[] sorted = Arrays.stream(resolved, 0, n).sorted().distinct().toArray();
+                List<LocalDate> dates = new ArrayList<>(sorted.length);
+                for (int day : sorted) {
+                    dates.add(month.atDay(day));
+                }
+                return dates;
+            }
+            default -> {
+                return List.of(periodStart);
+            }
+        }
+    }
+
+    private static LocalDate weekOf(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    /**
+     * True if there can be no occurrence after this one.
+     */
+    public boolean isExhausted(LocalDateTime after, int generated) {
+        return (count > 0 && generated >= count) || (until != null && after != null && !after.isBefore(until));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof RecurrenceRule other && toString().equals(other.toString());
+    }
+
+    @Override
+    public int hashCode() {
+        return toString().hashCode();
+    }
+
+    /**
+     * The rule in RRULE syntax, as accepted by parse.
+     */
+    @Override
+    public String toString() {
+        StringBuilder rule = new StringBuilder("FREQ=").append(frequency);
+        if (interval != 1) {
+            rule.append(";INTERVAL=").append(interval);
+        }
+        if (!byDay.isEmpty()) {
+            rule.append(";BYDAY=");
+            for (DayOfWeek day : byDay) {
+                rule.append(day.name(), 0, 2).append(',');
+            }
+            rule.setLength(rule.length() - 1);
+        }
+        if (byMonthDay.length > 0) {
+            rule.append(";BYMONTHDAY=");
+            for (int day : byMonthDay) {
+                rule.append(day).append(',');
+            }
+            rule.setLength(rule.length() - 1);
+        }
+        if (count > 0) {
+            rule.append(";COUNT=").append(count);
+        }
+        if (until != null) {
+            rule.append(";UNTIL=").append(until.format(UNTIL_FORMAT));
+        }
+        return rule.toString();
+    }
+}
@@ -0,0 +1,155 @@
+package com.smartcaller.service;
+
+import com.smartcaller.model.Call;
+import com.smartcaller.model.EmergencyCall;
+import com.smartcaller.util.InputValidator;
+import com.smartcaller.util.PhoneNumbers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The default scorer. A call starts at 10 points per priority level plus a bonus for
+ * emergencies, and once its scheduled time has passed it gains points for every minute it
+ * waits, so an overdue low-priority call eventually overtakes newer high-priority ones
+ * instead of starving behind them.
+ *
+ * Contacts can have an SLA: how long their call may wait past its slot. Their calls age
+ * fast enough to gain a full priority range (SLA_POINTS) by the deadline, which puts an
+ * overdue priority-1 call above any new non-emergency call once the SLA is up.
+ */
+public class AgingScorer implements CallScorer {
+    public static final double POINTS_PER_PRIORITY = 10;
+    public static final double SLA_POINTS = POINTS_PER_PRIORITY * InputValidator.MAX_PRIORITY;
+
+    private final double emergencyBonus;
+    private final double pointsPerHour;
+    private final Map<Long, Duration> slas = new ConcurrentHashMap<>();
+
+    public AgingScorer(double emergencyBonus, double pointsPerHour) {
+        if (!(emergencyBonus >= 0) || !(pointsPerHour >= 0) || Double.isInfinite(pointsPerHour)) {
+            throw new IllegalArgumentException("Bonus and aging rate must be non-negative");
+        }
+        this.emergencyBonus = emergencyBonus;
+        this.pointsPerHour = pointsPerHour;
+    }
+
+    /**
+     * -Dsmartcaller.aging.pointsPerHour (default 10), -Dsmartcaller.aging.emergencyBonus
+     * (default 50) and -Dsmartcaller.sla=number=minutes,... for per-contact SLAs.
+     * Malformed values are reported and replaced by the defaults; bad SLA entries are skipped.
+     */
+    public static AgingScorer fromSystemProperties() {
+        AgingScorer scorer = new AgingScorer(
+                doubleProperty("smartcaller.aging.emergencyBonus", 50),
+                doubleProperty("smartcaller.aging.pointsPerHour", 10));
+        String slas = System.getProperty("smartcaller.sla", "");
+        for (String entry : slas.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int equals = entry.lastIndexOf('=');
+            try {
+                scorer.setSla(entry.substring(0, equals).trim(),
+                        Duration.ofMinutes(Long.parseLong(entry.substring(equals + 1).trim())));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                System.err.println("Ignoring invalid smartcaller.sla entry '" + entry + "'");
+            }
+        }
+        return scorer;
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            double parsed = Double.parseDouble(value.trim());
+            if (parsed >= 0 && !Double.isInfinite(parsed)) {
+                return parsed;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        System.err.println("Invalid " + name + " '" + value + "', using " + defaultValue);
+        return defaultValue;
+    }
+
+    /**
+     * Sets how long calls to this number (in any spelling) may wait past their slot, or
+     * clears it when sla is null. Queued calls keep their old score until re-scored.
+     */
+    public void setSla(String phoneNumber, Duration sla) {
+        long key = PhoneNumbers.key(phoneNumber);
+        if (key == PhoneNumbers.NO_KEY) {
+            throw new IllegalArgumentException("Invalid phone number: " + phoneNumber);
+        }
+        if (sla == null) {
+            slas.remove(key);
+        } else if (sla.toMinutes() < 1) {
+            throw new IllegalArgumentException("SLA must be at least a minute");
+        } else {
+            slas.put(key, sla);
+        }
+    }
+
+    public Duration getSla(String phoneNumber) {
+        return slas.get(PhoneNumbers.key(phoneNumber));
+    }
+
+    public double getEmergencyBonus() { return emergencyBonus; }
+    public double getPointsPerHour() { return pointsPerHour; }
+
+    @Override
+    public ScoreProfile profile(Call call) {
+        return new ScoreProfile(base(call), call.getScheduledTime(), perMinute(call));
+    }
+
+    private double base(Call call) {
+        return call.getPriority() * POINTS_PER_PRIORITY + (call instanceof EmergencyCall ? emergencyBonus : 0);
+    }
+
+    private double perMinute(Call call) {
+        double rate = pointsPerHour / 60;
+        Duration sla = getSla(call.getPhoneNumber());
+        return sla == null ? rate : Math.max(rate, SLA_POINTS / sla.toMinutes());
+    }
+
+    @Override
+    public List<String> explain(Call call, LocalDateTime now) {
+        List<String> reasons = new ArrayList<>();
+        reasons.add(String.format("Priority %d: %.0f points", call.getPriority(),
+                call.getPriority() * POINTS_PER_PRIORITY));
+        if (call instanceof EmergencyCall && emergencyBonus > 0) {
+            reasons.add(String.format("Emergency: +%.0f", emergencyBonus));
+        }
+        Duration sla = getSla(call.getPhoneNumber());
+        double perMinute = perMinute(call);
+        Duration overdue = Duration.between(call.getScheduledTime(), now);
+        if (overdue.isNegative() || overdue.isZero()) {
+            reasons.add("Not overdue yet (due at " + call.getScheduledTime() + ")");
+        } else {
+            reasons.add(String.format("Overdue by %s: +%.1f (%.1f per hour)", format(overdue),
+                    profile(call).at(now) - base(call), perMinute * 60));
+        }
+        if (sla != null) {
+            String status = overdue.compareTo(sla) > 0
+                    ? "breached by " + format(overdue.minus(sla))
+                    : overdue.isNegative() ? "not started" : format(sla.minus(overdue)) + " left";
+            reasons.add("Contact SLA " + format(sla) + ": " + status);
+        }
+        return reasons;
+    }
+
+    private static String format(Duration duration) {
+        long minutes = duration.toMinutes();
+        if (minutes < 60) {
+            return minutes + " min";
+        }
+        return minutes % 60 == 0 ? minutes / 60 + " h" : minutes / 60 + " h " + minutes % 60 + " min";
+    }
+}
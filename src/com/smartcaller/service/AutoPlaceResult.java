@@ -0,0 +1,17 @@
+package com.smartcaller.service;
+
+import com.smartcaller.model.Call;
+
+import java.util.List;
+
+/**
+ * Outcome of CallManager.autoPlace: the batch insert of the placed calls, the pending
+ * calls moved to make room for emergencies, and the calls no slot was found for.
+ */
+public record AutoPlaceResult(BatchScheduleResult scheduled, List<Call> bumped, List<Call> unplaced) {
+    @Override
+    public String toString() {
+        return String.format("AutoPlaceResult{scheduled=%d, failed=%d, bumped=%d, unplaced=%d}",
+                scheduled.getScheduledCount(), scheduled.getFailureCount(), bumped.size(), unplaced.size());
+    }
+}
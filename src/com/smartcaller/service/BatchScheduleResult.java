@@ -0,0 +1,43 @@
+package com.smartcaller.service;
+
+import com.smartcaller.model.Call;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of CallManager.scheduleCalls: the calls that were stored plus one
+ * failure entry per rejected row, indexed by the row's position in the input.
+ */
+public class BatchScheduleResult {
+    private final List<Call> scheduled = new ArrayList<>();
+    private final List<Failure> failures = new ArrayList<>();
+
+    void addScheduled(Call call) {
+        scheduled.add(call);
+    }
+
+    void addFailure(int index, Call call, String reason) {
+        failures.add(new Failure(index, call, reason));
+    }
+
+    public List<Call> getScheduled() { return Collections.unmodifiableList(scheduled); }
+    public List<Failure> getFailures() { return Collections.unmodifiableList(failures); }
+
+    public int getScheduledCount() { return scheduled.size(); }
+    public int getFailureCount() { return failures.size(); }
+    public boolean hasFailures() { return !failures.isEmpty(); }
+
+    public record Failure(int index, Call call, String reason) {
+        @Override
+        public String toString() {
+            return String.format("Row %d (%s): %s", index, call == null ? "null" : call.getContactName(), reason);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BatchScheduleResult{scheduled=%d, failed=%d}", scheduled.size(), failures.size());
+    }
+}
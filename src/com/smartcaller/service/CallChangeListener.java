@@ -0,0 +1,14 @@
+package com.smartcaller.service;
+
+import com.smartcaller.model.Call;
+
+/**
+ * Receives notifications whenever CallManager adds, changes or removes a call.
+ */
+public interface CallChangeListener {
+    void callAdded(Call call);
+
+    void callUpdated(Call call);
+
+    void callRemoved(Call call);
+}
@@ -0,0 +1,231 @@
+package com.smartcaller.service;
+
+import com.smartcaller.model.Call;
+import com.smartcaller.model.CallStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background engine that acts on Call.getScheduledTime(). Each pending call gets one
+ * entry in a DelayQueue, so the dispatcher thread sleeps until the earliest call is due
+ * (O(log n) per call, no scans of the pending set). When a call comes due the listeners
+ * are notified; if it is still pending once its grace period has passed it is marked MISSED.
+ * The grace period is the grace window, or for a call whose score ages, however long it
+ * takes to gain a full priority range (AgingScorer.SLA_POINTS): 10 hours at the default
+ * rate, or the contact's SLA; at most a week. An overdue call is not given up before aging
+ * has had a chance to lift it past newer calls.
+ *
+ * Listener callbacks are handed to the event executor, so GUI callers can pass
+ * SwingUtilities::invokeLater to receive them on the EDT. Marking a call missed writes to
+ * the database and runs on CallManager's I/O executor first.
+ */
+public class CallDispatcher implements CallChangeListener {
+    // Longest a due call is kept pending for, however slowly its score ages
+    private static final long MAX_GRACE_MILLIS = Duration.ofDays(7).toMillis();
+
+    private final CallManager callManager;
+    private final Executor eventExecutor;
+    private final Duration graceWindow;
+    private final DelayQueue<DueEntry> dueQueue = new DelayQueue<>();
+    private final Map<Call, DueEntry> entries = new ConcurrentHashMap<>();
+    private final List<CallDueListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private Thread worker;
+
+    public CallDispatcher(CallManager callManager, Executor eventExecutor, Duration graceWindow) {
+        this.callManager = callManager;
+        this.eventExecutor = eventExecutor;
+        this.graceWindow = graceWindow;
+    }
+
+    public CallDispatcher(CallManager callManager) {
+        this(callManager, Runnable::run, Duration.ofMinutes(15));
+    }
+
+    public void addListener(CallDueListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(CallDueListener listener) {
+        listeners.remove(listener);
+    }
+
+    public synchronized void start() {
+        if (worker != null) {
+            return;
+        }
+        callManager.addChangeListener(this);
+        for (Call call : callManager.getAllPendingCalls()) {
+            track(call);
+        }
+
+        worker = new Thread(this::run, "call-dispatcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public synchronized void stop() {
+        callManager.removeChangeListener(this);
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+        dueQueue.clear();
+        entries.clear();
+    }
+
+    public int getTrackedCount() {
+        return entries.size();
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                DueEntry entry = dueQueue.take();
+                // Entries are cancelled lazily: a stale entry is simply skipped when it surfaces
+                if (entries.get(entry.call) != entry) {
+                    continue;
+                }
+                if (entry.phase == Phase.DUE) {
+                    schedule(entry.call, Phase.GRACE_EXPIRED, entry.scheduledMillis,
+                            entry.scheduledMillis + graceMillis(entry.call));
+                    eventExecutor.execute(() -> fireDue(entry.call));
+                } else {
+                    entries.remove(entry.call, entry);
+                    // The status update is a database write, so it goes to the I/O executor, not the event executor
+                    callManager.markCallMissedAsync(entry.call).whenComplete((missed, error) -> {
+                        if (error != null) {
+                            System.err.println("Error marking call missed: " + error.getMessage());
+                        } else if (missed) {
+                            eventExecutor.execute(() -> fireMissed(entry.call));
+                        }
+                    });
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                System.err.println("Call dispatcher error: " + e.getMessage());
+            }
+        }
+    }
+
+    private void fireDue(Call call) {
+        if (call.getStatus() != CallStatus.PENDING) {
+            return;
+        }
+        for (CallDueListener listener : listeners) {
+            try {
+                listener.onCallDue(call);
+            } catch (RuntimeException e) {
+                System.err.println("Call due listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void fireMissed(Call call) {
+        for (CallDueListener listener : listeners) {
+            try {
+                listener.onCallMissed(call);
+            } catch (RuntimeException e) {
+                System.err.println("Call missed listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private long graceMillis(Call call) {
+        long grace = graceWindow.toMillis();
+        ScoreProfile profile = callManager.getScorer().profile(call);
+        if (profile.ages()) {
+            double agingMinutes = AgingScorer.SLA_POINTS / profile.perMinute();
+            grace = Math.max(grace, (long) Math.min(MAX_GRACE_MILLIS, Math.ceil(agingMinutes * 60_000)));
+        }
+        return grace;
+    }
+
+    private void track(Call call) {
+        if (call.getStatus() != CallStatus.PENDING || call.getScheduledTime() == null) {
+            untrack(call);
+            return;
+        }
+        long scheduledMillis = toEpochMillis(call.getScheduledTime());
+        schedule(call, Phase.DUE, scheduledMillis, scheduledMillis);
+    }
+
+    private void untrack(Call call) {
+        entries.remove(call);
+    }
+
+    private void schedule(Call call, Phase phase, long scheduledMillis, long fireAtMillis) {
+        DueEntry entry = new DueEntry(call, phase, scheduledMillis, fireAtMillis, sequence.incrementAndGet());
+        entries.put(call, entry);
+        dueQueue.offer(entry);
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @Override
+    public void callAdded(Call call) {
+        track(call);
+    }
+
+    @Override
+    public void callUpdated(Call call) {
+        DueEntry current = entries.get(call);
+        if (call.getStatus() != CallStatus.PENDING) {
+            untrack(call);
+        } else if (current == null || current.scheduledMillis != toEpochMillis(call.getScheduledTime())) {
+            // Rescheduled (or re-opened) call: start again from its new scheduled time
+            track(call);
+        }
+    }
+
+    @Override
+    public void callRemoved(Call call) {
+        untrack(call);
+    }
+
+    private enum Phase {
+        DUE, GRACE_EXPIRED
+    }
+
+    private static class DueEntry implements Delayed {
+        private final Call call;
+        private final Phase phase;
+        private final long scheduledMillis;
+        private final long fireAtMillis;
+        private final long seq;
+
+        DueEntry(Call call, Phase phase, long scheduledMillis, long fireAtMillis, long seq) {
+            this.call = call;
+            this.phase = phase;
+            this.scheduledMillis = scheduledMillis;
+            this.fireAtMillis = fireAtMillis;
+            this.seq = seq;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(fireAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            DueEntry o = (DueEntry) other;
+            int cmp = Long.compare(fireAtMillis, o.fireAtMillis);
+            return cmp != 0 ? cmp : Long.compare(seq, o.seq);
+        }
+    }
+}
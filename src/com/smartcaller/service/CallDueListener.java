@@ -0,0 +1,14 @@
+package com.smartcaller.service;
+
+import com.smartcaller.model.Call;
+
+/**
+ * Callback fired by CallDispatcher when a pending call reaches its scheduled time,
+ * and again if it is still pending once its grace period has passed.
+ */
+public interface CallDueListener {
+    void onCallDue(Call call);
+
+    default void onCallMissed(Call call) {
+    }
+}
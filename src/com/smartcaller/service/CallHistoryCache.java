@@ -0,0 +1,248 @@
+package com.smartcaller.service;
+
+import com.smartcaller.model.Call;
+import com.smartcaller.util.PhoneNumbers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded per-phone call history cache with LRU eviction and an optional TTL. Entries
+ * are keyed by PhoneNumbers.key, so every spelling of a number shares one history.
+ * Bounded both by number of phone numbers and by total calls held, which is what
+ * actually drives heap use. Each entry is kept sorted newest first, so lookups
+ * return without re-sorting.
+ *
+ * Thread-safe. Numbers are hashed onto independently locked segments, each an LRU
+ * with its share of the bounds, so lookups for different numbers rarely contend.
+ */
+public class CallHistoryCache {
+    private static final int DEFAULT_SEGMENTS = 16;
+    private static final Comparator<Call> NEWEST_FIRST =
+            Comparator.comparing(Call::getScheduledTime).reversed()
+                    .thenComparing(Comparator.comparingInt(Call::getId).reversed());
+
+    private final Segment[] segments;
+
+    /**
+     * @param ttl how long a loaded history stays valid; null or zero disables expiry
+     */
+    public CallHistoryCache(int maxNumbers, int maxCalls, Duration ttl) {
+        if (maxNumbers < 1 || maxCalls < 1) {
+            throw new IllegalArgumentException("Cache bounds must be positive");
+        }
+        long ttlMillis = ttl == null ? 0 : ttl.toMillis();
+        int count = Math.min(DEFAULT_SEGMENTS, maxNumbers);
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(
+                    Math.max(1, maxNumbers / count),
+                    Math.max(1, maxCalls / count),
+                    ttlMillis);
+        }
+    }
+
+    private Segment segmentFor(long key) {
+        int h = Long.hashCode(key);
+        return segments[((h ^ (h >>> 16)) & 0x7fffffff) % segments.length];
+    }
+
+    /**
+     * Returns a copy of the cached history (newest first), or null on a miss.
+     */
+    public List<Call> get(String phoneNumber) {
+        long key = PhoneNumbers.key(phoneNumber);
+        return segmentFor(key).get(key);
+    }
+
+    /**
+     * Caches a freshly loaded history and returns a sorted copy of it.
+     */
+    public List<Call> put(String phoneNumber, List<Call> calls) {
+        long key = PhoneNumbers.key(phoneNumber);
+        return segmentFor(key).put(key, calls);
+    }
+
+    /**
+     * Adds a call to its number's history if that history is cached; otherwise does nothing,
+     * since the call will be picked up when the history is next loaded.
+     */
+    public void add(Call call) {
+        long key = PhoneNumbers.key(call.getPhoneNumber());
+        segmentFor(key).add(key, call);
+    }
+
+    /**
+     * Replaces the cached instance with the same id, e.g. after a status change.
+     */
+    public void update(Call call) {
+        long key = PhoneNumbers.key(call.getPhoneNumber());
+        segmentFor(key).update(key, call);
+    }
+
+    public void remove(Call call) {
+        long key = PhoneNumbers.key(call.getPhoneNumber());
+        segmentFor(key).remove(key, call);
+    }
+
+    public void invalidate(String phoneNumber) {
+        long key = PhoneNumbers.key(phoneNumber);
+        segmentFor(key).invalidate(key);
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public CacheStats getStats() {
+        int numbers = 0;
+        int calls = 0;
+        long hits = 0, misses = 0, evictions = 0, expirations = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                numbers += segment.entries.size();
+                calls += segment.totalCalls;
+                hits += segment.hits;
+                misses += segment.misses;
+                evictions += segment.evictions;
+                expirations += segment.expirations;
+            }
+        }
+        return new CacheStats(numbers, calls, hits, misses, evictions, expirations);
+    }
+
+    public record CacheStats(int numbers, int calls, long hits, long misses, long evictions, long expirations) {
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    private static class Segment {
+        private final int maxNumbers;
+        private final int maxCalls;
+        private final long ttlMillis;
+        private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private int totalCalls = 0;
+
+        private long hits;
+        private long misses;
+        private long evictions;
+        private long expirations;
+
+        Segment(int maxNumbers, int maxCalls, long ttlMillis) {
+            this.maxNumbers = maxNumbers;
+            this.maxCalls = maxCalls;
+            this.ttlMillis = ttlMillis;
+        }
+
+        synchronized List<Call> get(long key) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+            if (ttlMillis > 0 && System.currentTimeMillis() - entry.loadedAt > ttlMillis) {
+                removeEntry(key);
+                expirations++;
+                misses++;
+                return null;
+            }
+            hits++;
+            return new ArrayList<>(entry.calls);
+        }
+
+        synchronized List<Call> put(long key, List<Call> calls) {
+            removeEntry(key);
+            List<Call> sorted = new ArrayList<>(calls);
+            sorted.sort(NEWEST_FIRST);
+            entries.put(key, new Entry(sorted));
+            totalCalls += sorted.size();
+            evictIfNeeded(key);
+            return new ArrayList<>(sorted);
+        }
+
+        synchronized void add(long key, Call call) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return;
+            }
+            int index = Collections.binarySearch(entry.calls, call, NEWEST_FIRST);
+            if (index >= 0) {
+                // Already loaded from the database; keep the caller's (live) instance
+                entry.calls.set(index, call);
+                return;
+            }
+            entry.calls.add(-index - 1, call);
+            totalCalls++;
+            evictIfNeeded(key);
+        }
+
+        synchronized void update(long key, Call call) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return;
+            }
+            for (int i = 0; i < entry.calls.size(); i++) {
+                if (entry.calls.get(i).getId() == call.getId()) {
+                    entry.calls.set(i, call);
+                    return;
+                }
+            }
+        }
+
+        synchronized void remove(long key, Call call) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.calls.removeIf(cached -> cached.getId() == call.getId())) {
+                totalCalls--;
+            }
+        }
+
+        synchronized void invalidate(long key) {
+            removeEntry(key);
+        }
+
+        synchronized void clear() {
+            entries.clear();
+            totalCalls = 0;
+        }
+
+        private void removeEntry(long key) {
+            Entry removed = entries.remove(key);
+            if (removed != null) {
+                totalCalls -= removed.calls.size();
+            }
+        }
+
+        // Evicts least recently used numbers, never the one just written
+        private void evictIfNeeded(long keep) {
+            Iterator<Map.Entry<Long, Entry>> it = entries.entrySet().iterator();
+            while ((entries.size() > maxNumbers || totalCalls > maxCalls) && it.hasNext()) {
+                Map.Entry<Long, Entry> eldest = it.next();
+                if (eldest.getKey() == keep) {
+                    continue;
+                }
+                totalCalls -= eldest.getValue().calls.size();
+                it.remove();
+                evictions++;
+            }
+        }
+    }
+
+    private static class Entry {
+        final List<Call> calls;
+        final long loadedAt = System.currentTimeMillis();
+
+        Entry(List<Call> calls) {
+            this.calls = calls;
+        }
+    }
+}
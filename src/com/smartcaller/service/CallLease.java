@@ -0,0 +1,16 @@
+package com.smartcaller.service;
+
+import com.smartcaller.model.Call;
+
+import java.time.LocalDateTime;
+
+/**
+ * A call claimed for an operator, theirs to work until expiresAt (local clock). Pass it
+ * back to CallManager.completeCall or releaseCall; renewLease extends it.
+ */
+public record CallLease(Call call, String operator, LocalDateTime expiresAt) {
+
+    public boolean isExpired(LocalDateTime now) {
+        return !expiresAt.isAfter(now);
+    }
+}
@@ -1,54 +1,178 @@
 package com.smartcaller.service;
 
 import com.smartcaller.model.*;
-import com.smartcaller.dao.CallDAO;
+import com.smartcaller.dao.CallRepository;
+import com.smartcaller.dao.CallWatermark;
+import com.smartcaller.dao.PendingCallSnapshot;
 import com.smartcaller.exception.InvalidScheduleException;
+import com.smartcaller.util.IoExecutors;
+import com.smartcaller.util.PhoneNumbers;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
+/**
+ * Central call scheduling service. Safe to share between the UI, the dispatcher and
+ * background workers: the pending store and history cache are concurrent, processing
+ * claims a call atomically before touching the database, history loads are serialized
+ * per phone-number stripe, and the undo/redo stacks are guarded by their own lock.
+ *
+ * The *Async methods run the same operations on the I/O executor (virtual threads by
+ * default, see IoExecutors) and return a CompletableFuture; UI code completes them with
+ * whenCompleteAsync(..., SwingUtilities::invokeLater) so the EDT never blocks on JDBC.
+ */
 public class CallManager {
-    private final CallDAO callDAO;
-    private final PriorityQueue<Call> callQueue;
-    private final Map<String, List<Call>> callHistory;
-    private final Stack<Action> undoStack;
-    private final Stack<Action> redoStack;
+    private static final int HISTORY_LOCK_STRIPES = 64;
+    // Operator that processNextCall claims as
+    private static final String DEFAULT_OPERATOR = "default";
+
+    private final CallRepository callDAO;
+    private final Executor ioExecutor;
+    private final CallStore callQueue;
+    private final CallHistoryCache callHistory;
+    private final Deque<Action> undoStack;
+    private final Deque<Action> redoStack;
+    private final ReentrantLock actionLock = new ReentrantLock();
+    private final ReentrantLock[] historyLocks = new ReentrantLock[HISTORY_LOCK_STRIPES];
+    private final List<CallChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    private volatile int batchSize = 500;
+    private volatile ConflictPolicy conflictPolicy;
+    private final ConflictDetector conflicts;
+    private final SlotFinder slotFinder;
+    private final WorkDistributor work;
+    private volatile WorkingHours workingHours = WorkingHours.fromSystemProperties();
+    // Operators taking calls at the same time; a slot is full once this many calls overlap in it
+    private volatile int operators = Math.max(1, Integer.getInteger("smartcaller.operators", 1));
+    // Recurring series by id; guarded by seriesLock, which is held across their database writes
+    private final Map<Integer, CallSeries> series = new HashMap<>();
+    private final ReentrantLock seriesLock = new ReentrantLock();
+    private volatile Duration seriesHorizon = Duration.ofDays(Long.getLong("smartcaller.series.horizonDays", 14));
+    private volatile long startupMillis;
+    private final Path snapshotPath;
 
     public CallManager() {
-        this.callDAO = new CallDAO();
-        this.callQueue = new PriorityQueue<>(
-                Comparator.comparing(Call::getPriority).reversed()
-                        .thenComparing(Call::getScheduledTime)
-        );
-        this.callHistory = new HashMap<>();
-        this.undoStack = new Stack<>();
-        this.redoStack = new Stack<>();
+        this(CallRepository.fromSystemProperties());
+    }
+
+    public CallManager(CallRepository callDAO) {
+        this(callDAO, IoExecutors.io());
+    }
+
+    public CallManager(CallRepository callDAO, Executor ioExecutor) {
+        this.callDAO = callDAO;
+        this.ioExecutor = ioExecutor;
+        this.callQueue = new CallStore(CallScorer.fromSystemProperties());
+        this.conflicts = new ConflictDetector(callQueue);
+        this.slotFinder = new SlotFinder(callQueue);
+        this.work = new WorkDistributor(callQueue, callDAO, this::settledElsewhere);
+        this.conflictPolicy = conflictPolicyFromSystemProperties();
+        this.callHistory = new CallHistoryCache(
+                Integer.getInteger("smartcaller.history.maxNumbers", 1_000),
+                Integer.getInteger("smartcaller.history.maxCalls", 50_000),
+                Duration.ofMinutes(Long.getLong("smartcaller.history.ttlMinutes", 30)));
+        this.undoStack = new ArrayDeque<>();
+        this.redoStack = new ArrayDeque<>();
+        String snapshot = System.getProperty("smartcaller.snapshot.path", "smartcaller-pending.snap");
+        this.snapshotPath = snapshot.isBlank() ? null : Path.of(snapshot);
+        for (int i = 0; i < historyLocks.length; i++) {
+            historyLocks[i] = new ReentrantLock();
+        }
         loadCallsFromDatabase();
+        loadSeries();
     }
 
+    // Startup only needs the pending queue; per-phone history is loaded on first lookup
     private void loadCallsFromDatabase() {
+        long start = System.nanoTime();
         try {
-            List<Call> calls = callDAO.getAllCalls();
-
-            // Only add PENDING calls to the queue
-            for (Call call : calls) {
-                if (call.getStatus() == CallStatus.PENDING) {
-                    callQueue.offer(call);
-                }
-
-                // Build call history (include all calls for history)
-                callHistory
-                        .computeIfAbsent(call.getPhoneNumber(), k -> new ArrayList<>())
-                        .add(call);
+            String source = "database";
+            List<Call> pending = loadSnapshot();
+            if (pending != null) {
+                source = "snapshot";
+            } else {
+                pending = callDAO.getCallsByStatus(CallStatus.PENDING);
             }
-            System.out.println("✅ Loaded " + callQueue.size() + " pending calls from database.");
+            for (Call call : pending) {
+                callQueue.add(call);
+            }
+            startupMillis = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("✅ Loaded " + callQueue.size() + " pending calls from " + source + " in " + startupMillis + " ms.");
         } catch (SQLException e) {
             System.err.println("Error loading calls from database: " + e.getMessage());
         }
     }
 
+    private void loadSeries() {
+        seriesLock.lock();
+        try {
+            for (CallSeries stored : callDAO.getAllSeries()) {
+                series.put(stored.getId(), stored);
+            }
+            if (!series.isEmpty()) {
+                System.out.println("✅ Loaded " + series.size() + " recurring calls.");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading recurring calls: " + e.getMessage());
+        } finally {
+            seriesLock.unlock();
+        }
+        expandSeries();
+    }
+
+    private List<Call> loadSnapshot() throws SQLException {
+        if (snapshotPath == null) {
+            return null;
+        }
+        CallWatermark watermark = callDAO.getWatermark();
+        if (watermark == null) {
+            return null;
+        }
+        try {
+            return PendingCallSnapshot.read(snapshotPath, watermark);
+        } catch (IOException e) {
+            System.err.println("Ignoring unreadable snapshot " + snapshotPath + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Saves the pending queue for a fast next start. Call on shutdown, once no more changes
+     * are coming. Skipped (returns false) if the database no longer matches the queue, e.g.
+     * another instance changed it, since that snapshot would be rejected anyway.
+     */
+    public boolean saveSnapshot() {
+        if (snapshotPath == null) {
+            return false;
+        }
+        try {
+            CallWatermark watermark = callDAO.getWatermark();
+            List<Call> pending = callQueue.inTimeOrder();
+            if (watermark == null || !watermark.matchesPending(pending)) {
+                return false;
+            }
+            PendingCallSnapshot.write(snapshotPath, pending, watermark);
+            System.out.println("💾 Saved " + pending.size() + " pending calls to " + snapshotPath + ".");
+            return true;
+        } catch (SQLException | IOException e) {
+            System.err.println("Could not save snapshot " + snapshotPath + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    public long getStartupMillis() {
+        return startupMillis;
+    }
+
     public List<Call> getAllCallsFromDatabase() {
         try {
             return callDAO.getAllCalls();
@@ -58,24 +182,428 @@ public class CallManager {
         }
     }
 
+    /**
+     * One page of calls in scheduled-time order, starting after the given (time, id) position.
+     * Pass null and 0 for the first page.
+     */
+    public List<Call> getCallsPage(LocalDateTime afterTime, int afterId, int limit) {
+        try {
+            return callDAO.getCallsAfter(afterTime, afterId, limit);
+        } catch (SQLException e) {
+            System.err.println("Database error while fetching calls page: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Streams every call in the database in constant memory. Close the stream when done.
+     */
+    public Stream<Call> streamAllCallsFromDatabase() {
+        try {
+            return callDAO.streamAllCalls();
+        } catch (SQLException e) {
+            System.err.println("Database error while streaming calls: " + e.getMessage());
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * What scheduling does with a call that overlaps a pending one (see ScheduleConflict):
+     * REJECT it, WARN and schedule it anyway, or skip the check (OFF).
+     * Set with -Dsmartcaller.conflicts=off|warn|reject (default warn).
+     */
+    public enum ConflictPolicy {
+        OFF, WARN, REJECT
+    }
+
+    private static ConflictPolicy conflictPolicyFromSystemProperties() {
+        String policy = System.getProperty("smartcaller.conflicts", "warn");
+        try {
+            return ConflictPolicy.valueOf(policy.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown smartcaller.conflicts '" + policy + "', using warn");
+            return ConflictPolicy.WARN;
+        }
+    }
+
+    public ConflictPolicy getConflictPolicy() { return conflictPolicy; }
+
+    public void setConflictPolicy(ConflictPolicy conflictPolicy) {
+        this.conflictPolicy = Objects.requireNonNull(conflictPolicy);
+    }
+
+    /**
+     * Pending calls this call would overlap, same contact first. Empty if it fits.
+     */
+    public List<ScheduleConflict> findConflicts(Call call) {
+        return conflicts.find(call, operators);
+    }
+
+    /**
+     * Overlaps for a whole batch, found in one sweep: at most one per call, for the calls
+     * that clash with a pending call or with an earlier call in the batch.
+     */
+    public List<ScheduleConflict> findConflicts(Collection<Call> calls) {
+        return conflicts.sweep(calls, operators);
+    }
+
+    /**
+     * How many operators take calls at the same time (-Dsmartcaller.operators, default 1).
+     * Calls are not assigned to one when scheduled, so overlap checks and free-slot searches
+     * only count a slot as full once this many calls are booked in it at some moment.
+     */
+    public int getOperators() { return operators; }
+
+    public void setOperators(int operators) {
+        if (operators < 1) {
+            throw new IllegalArgumentException("Need at least one operator, got " + operators);
+        }
+        this.operators = operators;
+    }
+
+    public WorkingHours getWorkingHours() { return workingHours; }
+
+    public void setWorkingHours(WorkingHours workingHours) {
+        this.workingHours = Objects.requireNonNull(workingHours);
+    }
+
+    /**
+     * The earliest count free slots of this length from the given time (or now, if later),
+     * within the working hours and the next two months. Slots start on a 5-minute grid and
+     * don't overlap each other. Throws IllegalArgumentException if count is not positive.
+     */
+    public List<LocalDateTime> findFreeSlots(int durationMinutes, LocalDateTime from, int count) {
+        return slotFinder.findFree(notBeforeNow(from), durationMinutes, workingHours, operators, count, null);
+    }
+
+    /**
+     * Gives each call the earliest free slot from the given time (or now), highest priority
+     * first, and schedules them as one batch. Emergency calls take the earliest slot held
+     * only by lower-priority, non-emergency calls if no free one comes sooner; those calls
+     * are moved to the next free slot after it, and moved back if the emergency call is not
+     * stored after all. Calls that fit nowhere within two months are left unscheduled.
+     */
+    public AutoPlaceResult autoPlace(Collection<Call> calls, LocalDateTime from) {
+        WorkingHours hours = workingHours;
+        int operators = this.operators;
+        LocalDateTime start = notBeforeNow(from);
+        List<Call> byPriority = new ArrayList<>(calls);
+        byPriority.sort(Comparator.comparingInt(Call::getPriority).reversed());
+
+        // The batch's own bookings, until it is inserted at the end
+        OccupancyIndex reserved = new OccupancyIndex();
+        List<Call> placed = new ArrayList<>(byPriority.size());
+        List<Call> unplaced = new ArrayList<>();
+        List<Move> moves = new ArrayList<>();
+        for (Call call : byPriority) {
+            SlotFinder.Placement placement = slotFinder.place(call, start, hours, operators, reserved);
+            if (placement == null) {
+                unplaced.add(call);
+                continue;
+            }
+            call.setScheduledTime(placement.start());
+            reserved.add(placement.start(), call.getDurationMinutes());
+            placed.add(call);
+            for (Call victim : placement.bumped()) {
+                LocalDateTime was = victim.getScheduledTime();
+                List<LocalDateTime> moveTo = slotFinder.findFree(call.getEndTime(),
+                        victim.getDurationMinutes(), hours, operators, 1, reserved);
+                if (!moveTo.isEmpty() && rescheduleCall(victim, moveTo.get(0))) {
+                    moves.add(new Move(call, victim, was));
+                } else {
+                    System.err.println("⚠️ Could not move " + victim.getContactName() + " out of the way of "
+                            + call.getContactName());
+                }
+            }
+        }
+
+        BatchScheduleResult result;
+        try {
+            result = scheduleCalls(placed);
+        } catch (RuntimeException e) {
+            moves.forEach(this::undoMove);
+            throw e;
+        }
+        Set<Call> stored = Collections.newSetFromMap(new IdentityHashMap<>());
+        stored.addAll(result.getScheduled());
+        List<Call> bumped = new ArrayList<>(moves.size());
+        for (Move move : moves) {
+            if (stored.contains(move.forCall)) {
+                bumped.add(move.call);
+            } else {
+                undoMove(move);
+            }
+        }
+        return new AutoPlaceResult(result, bumped, unplaced);
+    }
+
+    private void undoMove(Move move) {
+        if (!rescheduleCall(move.call, move.from)) {
+            System.err.println("⚠️ Could not move " + move.call.getContactName() + " back to " + move.from);
+        }
+    }
+
+    private static LocalDateTime notBeforeNow(LocalDateTime from) {
+        LocalDateTime now = LocalDateTime.now();
+        return from == null || from.isBefore(now) ? now : from;
+    }
+
+    /**
+     * Moves a pending call to a new time. Returns false if it is not pending or the
+     * database update fails.
+     */
+    public boolean rescheduleCall(Call call, LocalDateTime scheduledTime) {
+        if (call.getStatus() != CallStatus.PENDING) {
+            return false;
+        }
+        ReentrantLock lock = historyLockFor(call.getPhoneNumber());
+        lock.lock();
+        try {
+            if (!callDAO.updateScheduledTime(call.getId(), scheduledTime)) {
+                return false;
+            }
+            // History is kept in time order, so take the call out while its time changes
+            callHistory.remove(call);
+            call.setScheduledTime(scheduledTime);
+            callQueue.update(call);
+            callHistory.add(call);
+        } catch (SQLException e) {
+            System.err.println("Error rescheduling call: " + e.getMessage());
+            return false;
+        } finally {
+            lock.unlock();
+        }
+        fireCallUpdated(call);
+        System.out.println("🔁 Call moved: " + call.getContactName() + " to " + scheduledTime);
+        return true;
+    }
+
+    public Duration getSeriesHorizon() { return seriesHorizon; }
+
+    public void setSeriesHorizon(Duration seriesHorizon) {
+        if (seriesHorizon.isNegative() || seriesHorizon.isZero()) {
+            throw new IllegalArgumentException("Series horizon must be positive");
+        }
+        this.seriesHorizon = seriesHorizon;
+    }
+
+    /**
+     * Schedules a recurring call, stored once. The given call is the first occurrence and is
+     * validated like any other call. Occurrences become pending calls only as far as the
+     * series horizon ahead (-Dsmartcaller.series.horizonDays, default 14); expandSeries
+     * moves that window along as time passes.
+     */
+    public CallSeries scheduleSeries(Call first, RecurrenceRule rule) throws InvalidScheduleException {
+        callDAO.validateCall(first);
+        CallSeries created = CallSeries.of(first, rule);
+        seriesLock.lock();
+        try {
+            created.setId(callDAO.addSeries(created));
+            series.put(created.getId(), created);
+            expand(created, LocalDateTime.now());
+        } catch (SQLException e) {
+            throw new InvalidScheduleException("Database error: " + e.getMessage());
+        } finally {
+            seriesLock.unlock();
+        }
+        System.out.println("🔁 Recurring call scheduled: " + created.getContactName() + " " + rule);
+        return new CallSeries(created);
+    }
+
+    public List<CallSeries> getAllSeries() {
+        seriesLock.lock();
+        try {
+            List<CallSeries> all = new ArrayList<>(series.size());
+            for (CallSeries stored : series.values()) {
+                all.add(new CallSeries(stored));
+            }
+            all.sort(Comparator.comparingInt(CallSeries::getId));
+            return all;
+        } finally {
+            seriesLock.unlock();
+        }
+    }
+
+    /**
+     * Adds every series' occurrences up to the horizon that are not queued yet. Each series
+     * continues from where it last stopped, so this is cheap to call often; finished series
+     * and ones already expanded far enough are skipped. Returns the number of calls added.
+     */
+    public int expandSeries() {
+        LocalDateTime now = LocalDateTime.now();
+        int added = 0;
+        seriesLock.lock();
+        try {
+            for (CallSeries stored : series.values()) {
+                added += expand(stored, now);
+            }
+        } finally {
+            seriesLock.unlock();
+        }
+        if (added > 0) {
+            System.out.println("🔁 Added " + added + " upcoming occurrences of recurring calls.");
+        }
+        return added;
+    }
+
+    // Caller holds seriesLock
+    private int expand(CallSeries stored, LocalDateTime now) {
+        LocalDateTime through = now.plus(seriesHorizon);
+        if (stored.isExhausted() || (stored.getExpandedThrough() != null && !stored.getExpandedThrough().isBefore(through))) {
+            return 0;
+        }
+        List<LocalDateTime> times = stored.getRule().occurrences(stored.getStart(), stored.getExpandedThrough(),
+                through, stored.getExpandedCount());
+        List<Call> occurrences = new ArrayList<>(times.size());
+        for (LocalDateTime time : times) {
+            // Skipped dates, slots that passed while the app was down, and ones already queued
+            if (!stored.getExceptions().contains(time.toLocalDate()) && time.isAfter(now)
+                    && findOccurrence(stored, time) == null) {
+                occurrences.add(stored.occurrenceAt(time));
+            }
+        }
+
+        CallSeries advanced = new CallSeries(stored);
+        advanced.setExpandedThrough(through);
+        advanced.setExpandedCount(stored.getExpandedCount() + times.size());
+        int[] ids;
+        try {
+            ids = callDAO.addOccurrences(advanced, occurrences);
+        } catch (SQLException e) {
+            // Nothing moved, so the next expansion retries the same window
+            System.err.println("Error expanding recurring call " + stored.getId() + ": " + e.getMessage());
+            return 0;
+        }
+        stored.setExpandedThrough(through);
+        stored.setExpandedCount(advanced.getExpandedCount());
+
+        for (int i = 0; i < occurrences.size(); i++) {
+            Call call = occurrences.get(i);
+            call.setId(ids[i]);
+            callQueue.add(call);
+            recordInHistory(call);
+        }
+        for (Call call : occurrences) {
+            fireCallAdded(call);
+        }
+        return occurrences.size();
+    }
+
+    // The pending call for a series' occurrence at this time, if it has been expanded
+    private Call findOccurrence(CallSeries stored, LocalDateTime time) {
+        for (Call call : callQueue.overlappingForNumber(stored.getPhoneNumber(), time, time.plusMinutes(1), 16)) {
+            if (call.getScheduledTime().equals(time) && call.getContactName().equals(stored.getContactName())
+                    && call.getCallType().equals(stored.getCallType())) {
+                return call;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Skips one date of a series (an exception). An occurrence already queued for that date
+     * is removed. Returns false if there is no such series or the database update fails.
+     */
+    public boolean skipOccurrence(int seriesId, LocalDate date) {
+        Call queued;
+        seriesLock.lock();
+        try {
+            CallSeries stored = series.get(seriesId);
+            if (stored == null) {
+                return false;
+            }
+            CallSeries updated = new CallSeries(stored);
+            updated.getExceptions().add(date);
+            if (!callDAO.updateSeries(updated)) {
+                return false;
+            }
+            stored.getExceptions().add(date);
+            // Every occurrence is at the start's time of day
+            queued = findOccurrence(stored, date.atTime(stored.getStart().toLocalTime()));
+            if (queued != null) {
+                removeOccurrence(queued);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error skipping occurrence: " + e.getMessage());
+            return false;
+        } finally {
+            seriesLock.unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Ends a series and removes its occurrences that are still pending. Returns false if
+     * there is no such series or the database update fails.
+     */
+    public boolean deleteSeries(int seriesId) {
+        seriesLock.lock();
+        try {
+            CallSeries stored = series.get(seriesId);
+            if (stored == null || !callDAO.deleteSeries(seriesId)) {
+                return false;
+            }
+            series.remove(seriesId);
+            if (stored.getExpandedThrough() != null) {
+                // Not counting towards COUNT here: this only has to cover what was expanded
+                for (LocalDateTime time : stored.getRule().occurrences(stored.getStart(), LocalDateTime.now(),
+                        stored.getExpandedThrough(), 0)) {
+                    Call queued = findOccurrence(stored, time);
+                    if (queued != null) {
+                        removeOccurrence(queued);
+                    }
+                }
+            }
+            System.out.println("🗑 Recurring call deleted: " + stored.getContactName());
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error deleting recurring call: " + e.getMessage());
+            return false;
+        } finally {
+            seriesLock.unlock();
+        }
+    }
+
+    private void removeOccurrence(Call call) throws SQLException {
+        callDAO.deleteCall(call.getId());
+        if (callQueue.remove(call)) {
+            removeFromHistory(call);
+            fireCallRemoved(call);
+        }
+    }
+
     public void scheduleCall(Call call) throws InvalidScheduleException {
+        ConflictPolicy policy = conflictPolicy;
+        if (policy != ConflictPolicy.OFF) {
+            List<ScheduleConflict> overlaps = conflicts.find(call, operators);
+            if (!overlaps.isEmpty() && policy == ConflictPolicy.REJECT) {
+                throw new InvalidScheduleException(overlaps.get(0).describe());
+            }
+            for (ScheduleConflict overlap : overlaps) {
+                System.out.println("⚠️ " + overlap);
+            }
+        }
         try {
             int callId = callDAO.addCall(call);
             call.setId(callId);
 
-            // Only add to queue if it's PENDING
-            if (call.getStatus() == CallStatus.PENDING) {
-                callQueue.offer(call);
-            }
+            actionLock.lock();
+            try {
+                // Only add to queue if it's PENDING
+                if (call.getStatus() == CallStatus.PENDING) {
+                    callQueue.add(call);
+                }
 
-            // Update call history (include all calls)
-            callHistory
-                    .computeIfAbsent(call.getPhoneNumber(), k -> new ArrayList<>())
-                    .add(call);
+                // Update call history (include all calls)
+                recordInHistory(call);
 
-            // Push to undo stack
-            undoStack.push(new Action(ActionType.ADD, call));
-            redoStack.clear();
+                // Push to undo stack
+                undoStack.push(new Action(ActionType.ADD, call));
+                redoStack.clear();
+            } finally {
+                actionLock.unlock();
+            }
+            fireCallAdded(call);
 
             System.out.println("Call scheduled successfully! ID: " + callId);
         } catch (SQLException e) {
@@ -83,6 +611,100 @@ public class CallManager {
         }
     }
 
+    /**
+     * Schedules many calls at once. Every row is validated up front, the valid ones are
+     * inserted in batches of batchSize inside one transaction, and the in-memory queue and
+     * history are updated once at the end. Bulk loads are not recorded on the undo stack.
+     */
+    public BatchScheduleResult scheduleCalls(Collection<Call> calls) {
+        BatchScheduleResult result = new BatchScheduleResult();
+        List<Call> valid = new ArrayList<>(calls.size());
+        List<Integer> validIndexes = new ArrayList<>(calls.size());
+
+        int index = 0;
+        LocalDateTime now = LocalDateTime.now();
+        for (Call call : calls) {
+            try {
+                if (call == null) {
+                    throw new InvalidScheduleException("Call is null");
+                }
+                callDAO.validateCall(call, now);
+                valid.add(call);
+                validIndexes.add(index);
+            } catch (InvalidScheduleException e) {
+                result.addFailure(index, call, e.getMessage());
+            }
+            index++;
+        }
+
+        ConflictPolicy policy = conflictPolicy;
+        if (policy != ConflictPolicy.OFF && !valid.isEmpty()) {
+            List<ScheduleConflict> overlaps = conflicts.sweep(valid, operators);
+            if (policy == ConflictPolicy.REJECT && !overlaps.isEmpty()) {
+                Map<Call, ScheduleConflict> rejected = new IdentityHashMap<>();
+                for (ScheduleConflict overlap : overlaps) {
+                    rejected.put(overlap.call(), overlap);
+                }
+                List<Call> fitting = new ArrayList<>(valid.size() - rejected.size());
+                List<Integer> fittingIndexes = new ArrayList<>(valid.size() - rejected.size());
+                for (int i = 0; i < valid.size(); i++) {
+                    ScheduleConflict overlap = rejected.get(valid.get(i));
+                    if (overlap != null) {
+                        result.addFailure(validIndexes.get(i), valid.get(i), overlap.describe());
+                    } else {
+                        fitting.add(valid.get(i));
+                        fittingIndexes.add(validIndexes.get(i));
+                    }
+                }
+                valid = fitting;
+                validIndexes = fittingIndexes;
+            } else if (!overlaps.isEmpty()) {
+                System.out.println("⚠️ " + overlaps.size() + " calls in the batch overlap other calls.");
+            }
+        }
+
+        if (valid.isEmpty()) {
+            return result;
+        }
+
+        int[] ids;
+        try {
+            ids = callDAO.addCalls(valid, batchSize);
+        } catch (SQLException e) {
+            // The whole transaction was rolled back, so none of the valid rows were stored
+            for (int i = 0; i < valid.size(); i++) {
+                result.addFailure(validIndexes.get(i), valid.get(i), "Database error: " + e.getMessage());
+            }
+            return result;
+        }
+
+        for (int i = 0; i < valid.size(); i++) {
+            Call call = valid.get(i);
+            call.setId(ids[i]);
+            result.addScheduled(call);
+            if (call.getStatus() == CallStatus.PENDING) {
+                callQueue.add(call);
+            }
+            recordInHistory(call);
+        }
+        for (Call call : result.getScheduled()) {
+            fireCallAdded(call);
+        }
+
+        System.out.println("Batch scheduled " + result.getScheduledCount() + " calls ("
+                + result.getFailureCount() + " rejected).");
+        return result;
+    }
+
+    public int getBatchSize() { return batchSize; }
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.batchSize = batchSize;
+    }
+
     public Call getNextCall() {
         // Only return the next call if it's PENDING
         Call nextCall = callQueue.peek();
@@ -92,63 +714,285 @@ public class CallManager {
         return null;
     }
 
+    /**
+     * Why getNextCall() returns what it does, or null if nothing is pending.
+     */
+    public NextCallExplanation explainNextCall() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Call> leaders = callQueue.leaders(now);
+        if (leaders.isEmpty()) {
+            return null;
+        }
+        CallScorer scorer = callQueue.getScorer();
+        Call next = leaders.get(0);
+        Call runnerUp = leaders.size() > 1 ? leaders.get(1) : null;
+        return new NextCallExplanation(next, scorer.profile(next).at(now), scorer.explain(next, now),
+                runnerUp, runnerUp != null ? scorer.profile(runnerUp).at(now) : 0);
+    }
+
+    public CallScorer getScorer() {
+        return callQueue.getScorer();
+    }
+
+    /**
+     * Orders the queue by this scorer from now on; every pending call is re-scored.
+     */
+    public void setScorer(CallScorer scorer) {
+        callQueue.setScorer(scorer);
+    }
+
+    /**
+     * Sets (or with null clears) how long calls to this number may wait past their slot,
+     * and re-scores the contact's pending calls. Needs the aging scorer.
+     */
+    public void setContactSla(String phoneNumber, Duration sla) {
+        if (!(callQueue.getScorer() instanceof AgingScorer agingScorer)) {
+            throw new IllegalStateException("Contact SLAs need the aging scorer (smartcaller.scoring=aging)");
+        }
+        agingScorer.setSla(phoneNumber, sla);
+        callQueue.rescore(phoneNumber);
+    }
+
+    /**
+     * Takes the next call and marks it COMPLETED. The call is claimed in the repository
+     * first, so an operator in another app instance sharing the database cannot take it too.
+     */
     public Call processNextCall() {
-        // Get the next call without removing it first
-        Call nextCall = callQueue.peek();
+        CallLease lease;
+        try {
+            lease = work.next(DEFAULT_OPERATOR, 1);
+        } catch (SQLException e) {
+            System.err.println("Error claiming next call: " + e.getMessage());
+            return null;
+        }
+        if (lease == null) {
+            System.out.println("❌ No pending calls to process!");
+            return null;
+        }
+        return completeCall(lease) ? lease.call() : null;
+    }
 
-        // Check if there's a valid PENDING call
-        if (nextCall != null && nextCall.getStatus() == CallStatus.PENDING) {
-            // Remove from queue
-            nextCall = callQueue.poll();
+    /**
+     * Claims the next call for this operator: from their own queue of calls claimed ahead
+     * (smartcaller.operators.prefetch, default 2), else the shared queue, else stolen from
+     * the operator with the most queued. Null if nothing can be claimed. The call is leased
+     * for smartcaller.lease.minutes (default 10); complete or release it before then, or
+     * renewLease, or it goes back to the queue.
+     */
+    public CallLease claimNextCall(String operator) {
+        try {
+            return work.next(operator);
+        } catch (SQLException e) {
+            System.err.println("Error claiming next call: " + e.getMessage());
+            return null;
+        }
+    }
 
-            try {
-                // Update status to COMPLETED in database
-                callDAO.updateCallStatus(nextCall.getId(), CallStatus.COMPLETED);
-                nextCall.setStatus(CallStatus.COMPLETED);
-
-                System.out.println("✅ Call processed: " + nextCall.getContactName());
-                return nextCall;
-
-            } catch (SQLException e) {
-                System.err.println("Error updating call status: " + e.getMessage());
-                // If database update fails, add back to queue
-                callQueue.offer(nextCall);
-                return null;
-            }
-        } else {
-            // No pending calls available
-            if (nextCall != null) {
-                System.out.println("⚠️ Next call is already " + nextCall.getStatus() + ": " + nextCall.getContactName());
-            } else {
-                System.out.println("❌ No pending calls to process!");
+    public boolean completeCall(CallLease lease) {
+        return completeCall(lease, CallStatus.COMPLETED);
+    }
+
+    /**
+     * Records how a leased call ended. Returns false if the lease was lost (it expired, or
+     * another instance claimed the call) or the update failed; the call is then released.
+     */
+    public boolean completeCall(CallLease lease, CallStatus status) {
+        Call call = lease.call();
+        try {
+            if (!work.complete(lease, status)) {
+                System.out.println("⚠️ Lease on " + call.getContactName() + " was lost; call not updated.");
+                return false;
             }
+        } catch (SQLException e) {
+            System.err.println("Error updating call status: " + e.getMessage());
+            work.release(lease);
+            return false;
+        }
+        call.setStatus(status);
+        callHistory.update(call);
+        fireCallUpdated(call);
+        System.out.println("✅ Call processed: " + call.getContactName());
+        return true;
+    }
+
+    /**
+     * Gives a leased call back to the shared queue without completing it.
+     */
+    public boolean releaseCall(CallLease lease) {
+        return work.release(lease);
+    }
+
+    /**
+     * Extends a lease by the lease duration. Null if it was already lost.
+     */
+    public CallLease renewLease(CallLease lease) {
+        try {
+            return work.renew(lease);
+        } catch (SQLException e) {
+            System.err.println("Error renewing lease: " + e.getMessage());
             return null;
         }
     }
 
+    /**
+     * Returns calls whose lease ran out, and calls set aside because another instance held
+     * them, to the queue. Run periodically by LeaseReaper.
+     */
+    public int expireLeases() {
+        return work.expire();
+    }
+
+    public List<CallLease> getActiveLeases() {
+        return work.activeLeases();
+    }
+
+    /**
+     * Calls queued per operator, not counting the one each is working.
+     */
+    public Map<String, Integer> getOperatorQueueSizes() {
+        return work.queueSizes();
+    }
+
+    public String getInstanceId() { return work.getInstanceId(); }
+
+    public Duration getLeaseDuration() { return work.getLeaseDuration(); }
+
+    public void setLeaseDuration(Duration leaseDuration) {
+        work.setLeaseDuration(leaseDuration);
+    }
+
+    public int getPrefetch() { return work.getPrefetch(); }
+
+    public void setPrefetch(int prefetch) {
+        work.setPrefetch(prefetch);
+    }
+
+    // Another instance finished this call; bring the local copy in line
+    private void settledElsewhere(Call call, CallStatus status) {
+        call.setStatus(status);
+        callHistory.update(call);
+        fireCallUpdated(call);
+    }
+
+    /**
+     * Marks a pending call as MISSED, taking it out of the queue. Returns false if the
+     * call is no longer pending, is leased to an operator, or the database update fails.
+     */
+    public boolean markCallMissed(Call call) {
+        if (call.getStatus() != CallStatus.PENDING || !callQueue.removeUnclaimed(call)) {
+            return false;
+        }
+
+        try {
+            if (!callDAO.updateCallStatus(call.getId(), CallStatus.MISSED)) {
+                // Claimed by another instance sharing the database; look again once its lease is up
+                work.park(call);
+                System.out.println("⚠️ " + call.getContactName() + " is being handled elsewhere; not marked missed.");
+                return false;
+            }
+            call.setStatus(CallStatus.MISSED);
+            callHistory.update(call);
+            fireCallUpdated(call);
+            System.out.println("❌ Call missed: " + call.getContactName());
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error marking call as missed: " + e.getMessage());
+            callQueue.add(call);
+            return false;
+        }
+    }
+
+    /**
+     * Calls to this number, newest first. Any spelling of the number matches (see PhoneNumbers).
+     */
     public List<Call> getCallHistory(String phoneNumber) {
-        return callHistory.getOrDefault(phoneNumber, new ArrayList<>())
-                .stream()
-                .sorted(Comparator.comparing(Call::getScheduledTime).reversed())
-                .collect(Collectors.toList());
+        if (PhoneNumbers.key(phoneNumber) == PhoneNumbers.NO_KEY) {
+            return new ArrayList<>();
+        }
+        // Cached entries are already sorted newest first
+        List<Call> history = callHistory.get(phoneNumber);
+        return history != null ? history : loadHistory(phoneNumber);
+    }
+
+    public CallHistoryCache.CacheStats getHistoryCacheStats() {
+        return callHistory.getStats();
+    }
+
+    private ReentrantLock historyLockFor(String phoneNumber) {
+        int h = Long.hashCode(PhoneNumbers.key(phoneNumber));
+        return historyLocks[(h ^ (h >>> 16)) & (HISTORY_LOCK_STRIPES - 1)];
+    }
+
+    // Holds the number's stripe lock across the query so a concurrent write cannot slip in between read and cache
+    private List<Call> loadHistory(String phoneNumber) {
+        List<Call> history = new ArrayList<>();
+        ReentrantLock lock = historyLockFor(phoneNumber);
+        lock.lock();
+        try {
+            for (Call call : callDAO.getCallsByPhoneNumber(phoneNumber)) {
+                // Share the queued instance so later status changes show up in the history too
+                Call queued = callQueue.get(call.getId());
+                history.add(queued != null ? queued : call);
+            }
+            history = callHistory.put(phoneNumber, history);
+        } catch (SQLException e) {
+            // Not cached, so the next lookup retries
+            System.err.println("Error loading call history: " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+        return history;
+    }
+
+    // Writes only touch numbers whose history is already cached; others pick the call up from the database when loaded
+    private void recordInHistory(Call call) {
+        ReentrantLock lock = historyLockFor(call.getPhoneNumber());
+        lock.lock();
+        try {
+            callHistory.add(call);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeFromHistory(Call call) {
+        ReentrantLock lock = historyLockFor(call.getPhoneNumber());
+        lock.lock();
+        try {
+            callHistory.remove(call);
+        } finally {
+            lock.unlock();
+        }
     }
 
     public List<Call> getUpcomingCalls() {
-        return callQueue.stream()
-                .filter(call -> call.getScheduledTime().isAfter(LocalDateTime.now()))
-                .filter(call -> call.getStatus() == CallStatus.PENDING) // Only pending calls
-                .sorted(Comparator.comparing(Call::getScheduledTime))
-                .collect(Collectors.toList());
+        // The store only holds PENDING calls and keeps them indexed by scheduled time
+        return callQueue.scheduledAfter(LocalDateTime.now());
     }
 
     public List<Call> getAllPendingCalls() {
-        return callQueue.stream()
-                .filter(call -> call.getStatus() == CallStatus.PENDING)
-                .sorted(Comparator.comparing(Call::getScheduledTime))
-                .collect(Collectors.toList());
+        return callQueue.inTimeOrder();
     }
 
+    public int getPendingCount() {
+        return callQueue.size();
+    }
+
+    /**
+     * Undoes the last scheduled call. Returns false if there is nothing to undo, the
+     * database update fails, or another instance sharing the database is working the call;
+     * in the last case it can be undone again once that instance lets go of it.
+     */
     public boolean undoLastAction() {
+        actionLock.lock();
+        try {
+            return undoLocked();
+        } finally {
+            actionLock.unlock();
+        }
+    }
+
+    private boolean undoLocked() {
         if (undoStack.isEmpty()) {
             System.out.println("Nothing to undo!");
             return false;
@@ -157,23 +1001,52 @@ public class CallManager {
         Action lastAction = undoStack.pop();
         redoStack.push(lastAction);
 
+        boolean held = false;
         try {
             switch (lastAction.getType()) {
                 case ADD:
+                    // Don't delete a call another instance sharing the database is working
+                    if (lastAction.getCall().getStatus() == CallStatus.PENDING) {
+                        if (!work.hold(lastAction.getCall())) {
+                            redoStack.pop();
+                            undoStack.push(lastAction);
+                            System.out.println("⚠️ " + lastAction.getCall().getContactName()
+                                    + " is being handled elsewhere; not removed.");
+                            return false;
+                        }
+                        held = true;
+                    }
                     callDAO.deleteCall(lastAction.getCall().getId());
                     callQueue.remove(lastAction.getCall());
-                    callHistory.get(lastAction.getCall().getPhoneNumber()).remove(lastAction.getCall());
+                    work.forget(lastAction.getCall());
+                    removeFromHistory(lastAction.getCall());
+                    fireCallRemoved(lastAction.getCall());
                     System.out.println("Undo: Removed scheduled call");
                     break;
             }
             return true;
         } catch (SQLException e) {
             System.err.println("Error during undo: " + e.getMessage());
+            // Nothing was undone: let other instances have the call again, and keep it undoable
+            if (held) {
+                work.unhold(lastAction.getCall());
+            }
+            redoStack.pop();
+            undoStack.push(lastAction);
             return false;
         }
     }
 
     public boolean redoLastAction() {
+        actionLock.lock();
+        try {
+            return redoLocked();
+        } finally {
+            actionLock.unlock();
+        }
+    }
+
+    private boolean redoLocked() {
         if (redoStack.isEmpty()) {
             System.out.println("Nothing to redo!");
             return false;
@@ -189,11 +1062,10 @@ public class CallManager {
                     lastAction.getCall().setId(callId);
                     // Only add to queue if it was PENDING
                     if (lastAction.getCall().getStatus() == CallStatus.PENDING) {
-                        callQueue.offer(lastAction.getCall());
+                        callQueue.add(lastAction.getCall());
                     }
-                    callHistory
-                            .computeIfAbsent(lastAction.getCall().getPhoneNumber(), k -> new ArrayList<>())
-                            .add(lastAction.getCall());
+                    recordInHistory(lastAction.getCall());
+                    fireCallAdded(lastAction.getCall());
                     System.out.println("Redo: Restored scheduled call");
                     break;
             }
@@ -204,11 +1076,95 @@ public class CallManager {
         }
     }
 
+    // Async variants; failures (e.g. InvalidScheduleException) complete the future exceptionally
+
+    public CompletableFuture<Call> scheduleCallAsync(Call call) {
+        return IoExecutors.supplyAsync(() -> {
+            scheduleCall(call);
+            return call;
+        }, ioExecutor);
+    }
+
+    public CompletableFuture<CallSeries> scheduleSeriesAsync(Call first, RecurrenceRule rule) {
+        return IoExecutors.supplyAsync(() -> scheduleSeries(first, rule), ioExecutor);
+    }
+
+    public CompletableFuture<BatchScheduleResult> scheduleCallsAsync(Collection<Call> calls) {
+        return IoExecutors.supplyAsync(() -> scheduleCalls(calls), ioExecutor);
+    }
+
+    public CompletableFuture<Call> processNextCallAsync() {
+        return IoExecutors.supplyAsync(this::processNextCall, ioExecutor);
+    }
+
+    public CompletableFuture<Boolean> markCallMissedAsync(Call call) {
+        return IoExecutors.supplyAsync(() -> markCallMissed(call), ioExecutor);
+    }
+
+    public CompletableFuture<List<Call>> getAllCallsFromDatabaseAsync() {
+        return IoExecutors.supplyAsync(this::getAllCallsFromDatabase, ioExecutor);
+    }
+
+    public CompletableFuture<List<Call>> getCallHistoryAsync(String phoneNumber) {
+        return IoExecutors.supplyAsync(() -> getCallHistory(phoneNumber), ioExecutor);
+    }
+
+    public CompletableFuture<Boolean> undoLastActionAsync() {
+        return IoExecutors.supplyAsync(this::undoLastAction, ioExecutor);
+    }
+
+    public CompletableFuture<Boolean> redoLastActionAsync() {
+        return IoExecutors.supplyAsync(this::redoLastAction, ioExecutor);
+    }
+
+    public Executor getIoExecutor() {
+        return ioExecutor;
+    }
+
+    public void addChangeListener(CallChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(CallChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    private void fireCallAdded(Call call) {
+        for (CallChangeListener listener : changeListeners) {
+            listener.callAdded(call);
+        }
+    }
+
+    private void fireCallUpdated(Call call) {
+        for (CallChangeListener listener : changeListeners) {
+            listener.callUpdated(call);
+        }
+    }
+
+    private void fireCallRemoved(Call call) {
+        for (CallChangeListener listener : changeListeners) {
+            listener.callRemoved(call);
+        }
+    }
+
     // Inner classes for undo/redo functionality
     private enum ActionType {
         ADD, UPDATE, DELETE
     }
 
+    // A call autoPlace moved out of forCall's way, and where it was
+    private static class Move {
+        final Call forCall;
+        final Call call;
+        final LocalDateTime from;
+
+        Move(Call forCall, Call call, LocalDateTime from) {
+            this.forCall = forCall;
+            this.call = call;
+            this.from = from;
+        }
+    }
+
     private static class Action {
         private final ActionType type;
         private final Call call;
@@ -0,0 +1,59 @@
+package com.smartcaller.service;
+
+import com.smartcaller.model.Call;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Decides the order pending calls are processed in: the highest score goes next, ties to
+ * the earlier scheduled time. Scores are ScoreProfiles, fixed until a point and rising
+ * linearly after it. That is what lets CallStore keep every call aging at the same rate in
+ * one heap under a key that never changes, instead of re-scoring the queue as time passes.
+ *
+ * Profiles are taken when a call is added or updated. A scorer whose settings change must
+ * have the affected calls re-scored (CallStore.rescore / rescoreAll).
+ */
+public interface CallScorer {
+
+    ScoreProfile profile(Call call);
+
+    /**
+     * Why the call scores what it does at this time, one line per contribution.
+     */
+    List<String> explain(Call call, LocalDateTime now);
+
+    /**
+     * The original fixed order: priority, then scheduled time. Nothing ages.
+     */
+    static CallScorer byPriority() {
+        return new CallScorer() {
+            @Override
+            public ScoreProfile profile(Call call) {
+                return ScoreProfile.fixed(call.getPriority());
+            }
+
+            @Override
+            public List<String> explain(Call call, LocalDateTime now) {
+                return List.of("Priority " + call.getPriority() + "; equal priorities go in scheduled order");
+            }
+        };
+    }
+
+    /**
+     * -Dsmartcaller.scoring=aging (default, see AgingScorer.fromSystemProperties) or priority.
+     */
+    static CallScorer fromSystemProperties() {
+        String scoring = System.getProperty("smartcaller.scoring", "aging");
+        switch (scoring.trim().toLowerCase(Locale.ROOT)) {
+            case "priority":
+                return byPriority();
+            case "aging":
+                return AgingScorer.fromSystemProperties();
+            default:
+                System.err.println("Unknown smartcaller.scoring '" + scoring + "', using aging");
+                return AgingScorer.fromSystemProperties();
+        }
+    }
+}
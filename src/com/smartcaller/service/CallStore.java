@@ -0,0 +1,622 @@
+package com.smartcaller.service;
+
+import com.smartcaller.model.Call;
+import com.smartcaller.util.PhoneNumbers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory store for pending calls with three indexes kept in step:
+ * <ul>
+ *   <li>id &rarr; call hash index for O(1) lookup,</li>
+ *   <li>scored heaps (see CallScorer): one for calls at a fixed score and one per aging
+ *       rate for overdue calls. Inside an aging heap the key is the score minus rate &times;
+ *       time, which never changes as the clock moves, so nothing is re-sorted; the next
+ *       call is the best of the heap tops. A set ordered by aging start moves calls into
+ *       their aging heap as they fall due. O(log n) add, poll and removal by id,</li>
+ *   <li>a skip list keyed on (scheduled time, id) for time-ordered views without sorting,</li>
+ *   <li>the same per phone number (PhoneNumbers.key), for overlap checks against one contact,</li>
+ *   <li>a per-minute occupancy map of the booked time (OccupancyIndex), for free-slot searches.</li>
+ * </ul>
+ * Calls are keyed by id, so they must be stored (and have their id assigned) before being added.
+ * If a call's priority, scheduled time or duration changes while it is in the store, call update();
+ * if the scorer's settings change, rescore() the affected calls.
+ *
+ * A claimed call (see claim()) is being worked by an operator: it leaves the scored heaps
+ * but stays in every other index, so it still counts as pending, shows up in the views
+ * and books its slot, until it is removed or released.
+ *
+ * Thread-safe. Mutations and peek() are serialized on the store's monitor; lookups and the
+ * time-ordered views never lock (the views are weakly consistent snapshots).
+ */
+public class CallStore {
+    // Aging starts, earliest first; ties by id so each node has its own place
+    private static final Comparator<Node> BY_AGING_START =
+            Comparator.<Node>comparingDouble(node -> node.agingFrom).thenComparingInt(node -> node.call.getId());
+
+    private volatile CallScorer scorer;
+    private final Map<Integer, Node> byId = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<TimeKey, Call> byTime = new ConcurrentSkipListMap<>();
+    private final Map<Long, ConcurrentNavigableMap<TimeKey, Call>> byPhone = new ConcurrentHashMap<>();
+    // Longest duration ever added; only grows, so overlap scans stay correct after removals
+    private volatile int longestMinutes;
+    private final OccupancyIndex occupancy = new OccupancyIndex();
+    private final Band fixed = new Band(0);
+    private final Map<Double, Band> agingBands = new HashMap<>();
+    private final TreeSet<Node> waiting = new TreeSet<>(BY_AGING_START);
+    // Latest minute calls have been promoted up to; never goes back, so heap keys stay valid
+    private double clock = Double.NEGATIVE_INFINITY;
+    private volatile int size = 0;
+
+    public CallStore() {
+        this(CallScorer.byPriority());
+    }
+
+    public CallStore(CallScorer scorer) {
+        this.scorer = scorer;
+    }
+
+    public CallScorer getScorer() {
+        return scorer;
+    }
+
+    /**
+     * Switches scorer and re-scores every call. O(n log n).
+     */
+    public synchronized void setScorer(CallScorer scorer) {
+        this.scorer = scorer;
+        rescoreAll();
+    }
+
+    public synchronized void add(Call call) {
+        removeById(call.getId());
+
+        Node node = new Node(call, new TimeKey(call.getScheduledTime(), call.getId()));
+        byId.put(call.getId(), node);
+        byTime.put(node.timeKey, call);
+        node.phoneKey = PhoneNumbers.key(call.getPhoneNumber());
+        if (node.phoneKey != PhoneNumbers.NO_KEY) {
+            byPhone.computeIfAbsent(node.phoneKey, k -> new ConcurrentSkipListMap<>()).put(node.timeKey, call);
+        }
+        longestMinutes = Math.max(longestMinutes, call.getDurationMinutes());
+        node.durationMinutes = call.getDurationMinutes();
+        occupancy.add(call.getScheduledTime(), node.durationMinutes);
+
+        advance(LocalDateTime.now());
+        score(node);
+        size++;
+    }
+
+    public Call get(int id) {
+        Node node = byId.get(id);
+        return node != null ? node.call : null;
+    }
+
+    public boolean contains(Call call) {
+        Node node = byId.get(call.getId());
+        return node != null && node.call == call;
+    }
+
+    /**
+     * The call with the highest score now, ties to the earlier scheduled time.
+     * O(log n) per call that started aging since the last look, plus one step per aging rate.
+     */
+    public synchronized Call peek() {
+        Node head = head(LocalDateTime.now());
+        return head != null ? head.call : null;
+    }
+
+    public synchronized Call poll() {
+        Node head = head(LocalDateTime.now());
+        if (head == null) {
+            return null;
+        }
+        removeNode(head);
+        return head.call;
+    }
+
+    /**
+     * Removes and returns up to count calls from the head, best first.
+     */
+    public synchronized List<Call> poll(int count) {
+        List<Call> polled = new ArrayList<>(Math.min(count, size));
+        LocalDateTime now = LocalDateTime.now();
+        Node head;
+        while (polled.size() < count && (head = head(now)) != null) {
+            removeNode(head);
+            polled.add(head.call);
+        }
+        return polled;
+    }
+
+    /**
+     * Takes up to count calls from the head, best first, out of score order without removing
+     * them from the store: they stay in the time, phone and occupancy indexes until they are
+     * removed, or go back into score order with release().
+     */
+    public synchronized List<Call> claim(int count) {
+        List<Call> claimed = new ArrayList<>(Math.min(count, size));
+        LocalDateTime now = LocalDateTime.now();
+        Node head;
+        while (claimed.size() < count && (head = head(now)) != null) {
+            unscore(head);
+            head.claimed = true;
+            claimed.add(head.call);
+        }
+        return claimed;
+    }
+
+    /**
+     * Takes this call out of score order as claim(int) does, adding it first if it is not
+     * in the store.
+     */
+    public synchronized void claim(Call call) {
+        Node node = byId.get(call.getId());
+        if (node == null || node.call != call) {
+            add(call);
+            node = byId.get(call.getId());
+        }
+        if (!node.claimed) {
+            unscore(node);
+            node.claimed = true;
+        }
+    }
+
+    /**
+     * Puts a claimed call back into score order; adds it if it has left the store meanwhile.
+     */
+    public synchronized void release(Call call) {
+        Node node = byId.get(call.getId());
+        if (node == null || node.call != call) {
+            add(call);
+        } else if (node.claimed) {
+            node.claimed = false;
+            advance(LocalDateTime.now());
+            score(node);
+        }
+    }
+
+    public synchronized boolean isClaimed(Call call) {
+        Node node = byId.get(call.getId());
+        return node != null && node.call == call && node.claimed;
+    }
+
+    /**
+     * Atomically removes the head if it is still the given call, so two threads that
+     * peeked the same call cannot both take it.
+     */
+    public synchronized boolean pollIf(Call expected) {
+        Node head = head(LocalDateTime.now());
+        if (head == null || head.call != expected) {
+            return false;
+        }
+        removeNode(head);
+        return true;
+    }
+
+    /**
+     * The head and the call that would follow it, at most two calls, at this time.
+     */
+    public synchronized List<Call> leaders(LocalDateTime now) {
+        List<Call> leaders = new ArrayList<>(2);
+        Node head = head(now);
+        if (head == null) {
+            return leaders;
+        }
+        leaders.add(head.call);
+        Node second = null;
+        for (Band band : bands()) {
+            Node[] candidates = band == head.band
+                    ? new Node[]{band.at(1), band.at(2)}
+                    : new Node[]{band.at(0)};
+            for (Node candidate : candidates) {
+                if (candidate != null && (second == null || ahead(candidate, second))) {
+                    second = candidate;
+                }
+            }
+        }
+        if (second != null) {
+            leaders.add(second.call);
+        }
+        return leaders;
+    }
+
+    /**
+     * Removes this exact call instance; returns false if it is not in the store.
+     */
+    public synchronized boolean remove(Call call) {
+        Node node = byId.get(call.getId());
+        if (node == null || node.call != call) {
+            return false;
+        }
+        removeNode(node);
+        return true;
+    }
+
+    /**
+     * As remove(), but leaves a claimed call where it is and returns false.
+     */
+    public synchronized boolean removeUnclaimed(Call call) {
+        Node node = byId.get(call.getId());
+        if (node == null || node.call != call || node.claimed) {
+            return false;
+        }
+        removeNode(node);
+        return true;
+    }
+
+    public synchronized Call removeById(int id) {
+        Node node = byId.get(id);
+        if (node == null) {
+            return null;
+        }
+        removeNode(node);
+        return node.call;
+    }
+
+    /**
+     * Re-scores and re-positions a call after its priority, scheduled time or duration changed.
+     */
+    public synchronized void update(Call call) {
+        Node node = byId.get(call.getId());
+        if (node == null || node.call != call) {
+            return;
+        }
+        TimeKey newKey = new TimeKey(call.getScheduledTime(), call.getId());
+        if (!newKey.equals(node.timeKey) || node.durationMinutes != call.getDurationMinutes()) {
+            occupancy.remove(node.timeKey.time(), node.durationMinutes);
+            node.durationMinutes = call.getDurationMinutes();
+            occupancy.add(call.getScheduledTime(), node.durationMinutes);
+        }
+        if (!newKey.equals(node.timeKey)) {
+            byTime.remove(node.timeKey);
+            ConcurrentNavigableMap<TimeKey, Call> phoneIndex = byPhone.get(node.phoneKey);
+            if (phoneIndex != null) {
+                phoneIndex.remove(node.timeKey);
+                phoneIndex.put(newKey, call);
+            }
+            node.timeKey = newKey;
+            byTime.put(newKey, call);
+        }
+        longestMinutes = Math.max(longestMinutes, call.getDurationMinutes());
+        if (!node.claimed) {
+            unscore(node);
+            advance(LocalDateTime.now());
+            score(node);
+        }
+    }
+
+    /**
+     * Re-scores the queued calls to this number, e.g. after its SLA changed. O(k log n).
+     */
+    public synchronized void rescore(String phoneNumber) {
+        ConcurrentNavigableMap<TimeKey, Call> phoneIndex = byPhone.get(PhoneNumbers.key(phoneNumber));
+        if (phoneIndex == null) {
+            return;
+        }
+        advance(LocalDateTime.now());
+        for (Call call : phoneIndex.values()) {
+            Node node = byId.get(call.getId());
+            if (!node.claimed) {
+                unscore(node);
+                score(node);
+            }
+        }
+    }
+
+    /**
+     * Re-scores every call, e.g. after the scorer's settings changed. O(n log n).
+     */
+    public synchronized void rescoreAll() {
+        List<Node> nodes = new ArrayList<>(byId.values());
+        fixed.clear();
+        agingBands.clear();
+        waiting.clear();
+        advance(LocalDateTime.now());
+        for (Node node : nodes) {
+            if (!node.claimed) {
+                score(node);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public synchronized void clear() {
+        for (Node node : byId.values()) {
+            occupancy.remove(node.timeKey.time(), node.durationMinutes);
+        }
+        byId.clear();
+        byTime.clear();
+        byPhone.clear();
+        fixed.clear();
+        agingBands.clear();
+        waiting.clear();
+        size = 0;
+    }
+
+    /**
+     * All calls ordered by scheduled time.
+     */
+    public List<Call> inTimeOrder() {
+        return new ArrayList<>(byTime.values());
+    }
+
+    /**
+     * Calls scheduled strictly after the given time, ordered by scheduled time. O(log n + k).
+     */
+    public List<Call> scheduledAfter(LocalDateTime time) {
+        return new ArrayList<>(byTime.tailMap(new TimeKey(time, Integer.MAX_VALUE), false).values());
+    }
+
+    /**
+     * Calls scheduled in [from, to), ordered by scheduled time. O(log n + k).
+     */
+    public List<Call> scheduledBetween(LocalDateTime from, LocalDateTime to) {
+        return new ArrayList<>(byTime.subMap(
+                new TimeKey(from, Integer.MIN_VALUE), true,
+                new TimeKey(to, Integer.MIN_VALUE), false).values());
+    }
+
+    /**
+     * The call with the earliest scheduled time, or null.
+     */
+    public Call earliest() {
+        Map.Entry<TimeKey, Call> first = byTime.firstEntry();
+        return first != null ? first.getValue() : null;
+    }
+
+    /**
+     * Calls whose slot [scheduled time, end time) overlaps [from, to), in time order, at most
+     * limit of them. Scans the calls starting in [from - longest duration, to): O(log n + k).
+     */
+    public List<Call> overlapping(LocalDateTime from, LocalDateTime to, int limit) {
+        return overlapping(byTime, from, to, limit);
+    }
+
+    /**
+     * As overlapping(), restricted to calls to this number in any spelling.
+     */
+    public List<Call> overlappingForNumber(String phoneNumber, LocalDateTime from, LocalDateTime to, int limit) {
+        ConcurrentNavigableMap<TimeKey, Call> phoneIndex = byPhone.get(PhoneNumbers.key(phoneNumber));
+        return phoneIndex == null ? new ArrayList<>() : overlapping(phoneIndex, from, to, limit);
+    }
+
+    private List<Call> overlapping(ConcurrentNavigableMap<TimeKey, Call> index, LocalDateTime from,
+                                   LocalDateTime to, int limit) {
+        List<Call> overlaps = new ArrayList<>();
+        for (Call call : index.subMap(new TimeKey(from.minusMinutes(longestMinutes), Integer.MIN_VALUE), true,
+                new TimeKey(to, Integer.MIN_VALUE), false).values()) {
+            if (call.getEndTime().isAfter(from)) {
+                overlaps.add(call);
+                if (overlaps.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    OccupancyIndex occupancy() {
+        return occupancy;
+    }
+
+    private void removeNode(Node node) {
+        byId.remove(node.call.getId());
+        byTime.remove(node.timeKey);
+        occupancy.remove(node.timeKey.time(), node.durationMinutes);
+        ConcurrentNavigableMap<TimeKey, Call> phoneIndex = byPhone.get(node.phoneKey);
+        if (phoneIndex != null) {
+            phoneIndex.remove(node.timeKey);
+            if (phoneIndex.isEmpty()) {
+                byPhone.remove(node.phoneKey);
+            }
+        }
+        if (!node.claimed) {
+            unscore(node);
+        }
+        size--;
+    }
+
+    private void advance(LocalDateTime now) {
+        clock = Math.max(clock, ScoreProfile.minutes(now));
+    }
+
+    // Profiles the call and files it in the fixed heap, or its aging heap if already due
+    private void score(Node node) {
+        ScoreProfile profile = scorer.profile(node.call);
+        node.base = profile.base();
+        node.perMinute = profile.ages() ? profile.perMinute() : 0;
+        node.agingFrom = profile.ages() ? ScoreProfile.minutes(profile.agingFrom()) : Double.POSITIVE_INFINITY;
+        if (node.perMinute > 0 && node.agingFrom <= clock) {
+            ageing(node);
+        } else {
+            node.key = node.base;
+            fixed.add(node);
+            if (node.perMinute > 0) {
+                waiting.add(node);
+            }
+        }
+    }
+
+    private void unscore(Node node) {
+        Band band = node.band;
+        band.remove(node);
+        if (band == fixed) {
+            if (node.perMinute > 0) {
+                waiting.remove(node);
+            }
+        } else if (band.size == 0) {
+            agingBands.remove(band.perMinute);
+        }
+    }
+
+    private void ageing(Node node) {
+        node.key = node.base - node.perMinute * node.agingFrom;
+        agingBands.computeIfAbsent(node.perMinute, Band::new).add(node);
+    }
+
+    private Node head(LocalDateTime now) {
+        advance(now);
+        while (!waiting.isEmpty() && waiting.first().agingFrom <= clock) {
+            Node due = waiting.pollFirst();
+            fixed.remove(due);
+            ageing(due);
+        }
+        Node head = null;
+        for (Band band : bands()) {
+            Node top = band.at(0);
+            if (top != null && (head == null || ahead(top, head))) {
+                head = top;
+            }
+        }
+        return head;
+    }
+
+    private List<Band> bands() {
+        List<Band> bands = new ArrayList<>(agingBands.size() + 1);
+        bands.add(fixed);
+        bands.addAll(agingBands.values());
+        return bands;
+    }
+
+    private double scoreNow(Node node) {
+        return node.key + node.band.perMinute * clock;
+    }
+
+    private boolean ahead(Node a, Node b) {
+        int cmp = Double.compare(scoreNow(b), scoreNow(a));
+        return cmp != 0 ? cmp < 0 : a.timeKey.compareTo(b.timeKey) < 0;
+    }
+
+    /**
+     * An indexed binary heap of calls sharing one aging rate (0 for fixed scores), highest
+     * key first, ties to the earlier scheduled time.
+     */
+    private static final class Band {
+        final double perMinute;
+        Node[] heap = new Node[16];
+        int size;
+
+        Band(double perMinute) {
+            this.perMinute = perMinute;
+        }
+
+        Node at(int index) {
+            return index < size ? heap[index] : null;
+        }
+
+        void add(Node node) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            node.band = this;
+            node.heapIndex = size;
+            heap[size++] = node;
+            siftUp(node.heapIndex);
+        }
+
+        void remove(Node node) {
+            int index = node.heapIndex;
+            Node last = heap[--size];
+            heap[size] = null;
+            if (index != size) {
+                heap[index] = last;
+                last.heapIndex = index;
+                siftDown(siftUp(index));
+            }
+            node.heapIndex = -1;
+            node.band = null;
+        }
+
+        void clear() {
+            Arrays.fill(heap, 0, size, null);
+            size = 0;
+        }
+
+        private static int compare(Node a, Node b) {
+            int cmp = Double.compare(b.key, a.key);
+            return cmp != 0 ? cmp : a.timeKey.compareTo(b.timeKey);
+        }
+
+        private int siftUp(int index) {
+            Node node = heap[index];
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (compare(node, heap[parent]) >= 0) {
+                    break;
+                }
+                heap[index] = heap[parent];
+                heap[index].heapIndex = index;
+                index = parent;
+            }
+            heap[index] = node;
+            node.heapIndex = index;
+            return index;
+        }
+
+        private int siftDown(int index) {
+            Node node = heap[index];
+            int half = size >>> 1;
+            while (index < half) {
+                int child = 2 * index + 1;
+                int right = child + 1;
+                if (right < size && compare(heap[right], heap[child]) < 0) {
+                    child = right;
+                }
+                if (compare(node, heap[child]) <= 0) {
+                    break;
+                }
+                heap[index] = heap[child];
+                heap[index].heapIndex = index;
+                index = child;
+            }
+            heap[index] = node;
+            node.heapIndex = index;
+            return index;
+        }
+    }
+
+    private static class Node {
+        final Call call;
+        TimeKey timeKey;
+        long phoneKey;
+        int durationMinutes; // as indexed; the call's own field may since have changed
+        double base;
+        double perMinute;
+        double agingFrom; // minute aging starts, or +infinity
+        double key; // base in the fixed heap, base - perMinute * agingFrom in an aging one
+        Band band;
+        int heapIndex;
+        boolean claimed; // out of the heaps while an operator works it
+
+        Node(Call call, TimeKey timeKey) {
+            this.call = call;
+            this.timeKey = timeKey;
+        }
+    }
+
+    private record TimeKey(LocalDateTime time, int id) implements Comparable<TimeKey> {
+        @Override
+        public int compareTo(TimeKey other) {
+            int cmp = time.compareTo(other.time);
+            return cmp != 0 ? cmp : Integer.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.smartcaller.service;
+
+import com.smartcaller.model.Call;
+import com.smartcaller.util.PhoneNumbers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Finds overlapping call slots, using CallStore's time and per-number indexes over the
+ * pending calls. One call costs two O(log n + k) range scans. A batch is checked in one
+ * sweep in start-time order, instead of comparing every pair of rows.
+ *
+ * Calls are not assigned to an operator when they are scheduled; whoever is free takes
+ * the next one. So with k operators a set of calls can be worked if and only if no more
+ * than k of them are in progress at any moment, which is what is checked.
+ */
+class ConflictDetector {
+    private static final int MAX_REPORTED = 10;
+
+    private final CallStore pending;
+
+    ConflictDetector(CallStore pending) {
+        this.pending = pending;
+    }
+
+    /**
+     * Pending calls overlapping this one: same contact first, then the rest (at most 10 of
+     * each). With more than one operator, other contacts' calls only count once all
+     * operators are busy at some moment of the slot; those are the calls reported.
+     */
+    List<ScheduleConflict> find(Call call, int operators) {
+        return find(call, operators, List.of());
+    }
+
+    // As above, also counting booked, calls accepted earlier in a batch that overlap this one
+    private List<ScheduleConflict> find(Call call, int operators, List<Call> booked) {
+        List<ScheduleConflict> conflicts = new ArrayList<>();
+        if (call.getScheduledTime() == null) {
+            return conflicts;
+        }
+        LocalDateTime start = call.getScheduledTime();
+        LocalDateTime end = call.getEndTime();
+        List<Call> sameContact = new ArrayList<>(booked.size());
+        for (Call existing : booked) {
+            if (sameNumber(call, existing)) {
+                sameContact.add(existing);
+            }
+        }
+        sameContact.addAll(pending.overlappingForNumber(call.getPhoneNumber(), start, end, MAX_REPORTED + 1));
+        for (Call existing : sameContact) {
+            if (existing != call && conflicts.size() < MAX_REPORTED) {
+                conflicts.add(new ScheduleConflict(call, existing, ScheduleConflict.Scope.CONTACT));
+            }
+        }
+        int contactConflicts = conflicts.size();
+        List<Call> others = new ArrayList<>(booked);
+        if (operators == 1) {
+            others.addAll(pending.overlapping(start, end, MAX_REPORTED + contactConflicts + 1));
+        } else {
+            others.addAll(pending.overlapping(start, end, Integer.MAX_VALUE));
+            others.removeIf(existing -> existing == call);
+            others = busiest(others, start);
+            if (others.size() < operators) {
+                return conflicts;
+            }
+        }
+        for (Call existing : others) {
+            if (existing != call && !sameNumber(call, existing) && conflicts.size() < contactConflicts + MAX_REPORTED) {
+                conflicts.add(new ScheduleConflict(call, existing, ScheduleConflict.Scope.OPERATOR));
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * The largest group of these calls that are all in progress at one moment, from start
+     * on (they all overlap the slot). That is how many operators the slot already needs.
+     */
+    private static List<Call> busiest(List<Call> calls, LocalDateTime start) {
+        calls.sort(Comparator.comparing(Call::getScheduledTime));
+        PriorityQueue<LocalDateTime> ends = new PriorityQueue<>();
+        LocalDateTime busiestAt = start;
+        int most = 0;
+        for (Call call : calls) {
+            LocalDateTime at = call.getScheduledTime().isAfter(start) ? call.getScheduledTime() : start;
+            while (!ends.isEmpty() && !ends.peek().isAfter(at)) {
+                ends.poll();
+            }
+            ends.add(call.getEndTime());
+            if (ends.size() > most) {
+                most = ends.size();
+                busiestAt = at;
+            }
+        }
+        List<Call> group = new ArrayList<>(most);
+        for (Call call : calls) {
+            if (!call.getScheduledTime().isAfter(busiestAt) && call.getEndTime().isAfter(busiestAt)) {
+                group.add(call);
+            }
+        }
+        return group;
+    }
+
+    /**
+     * Checks a batch in one pass. Rows are visited in start order, and at most one conflict
+     * is reported per row. A row is reported if it conflicts, as find would report it, with
+     * the pending calls plus the earlier rows that were not themselves reported. Those are
+     * exactly the rows to drop so that the rest fit together. Only accepted rows still in
+     * progress at a row's start can overlap it, and there are at most as many of those as
+     * operators: O(n log n) for the sort, then one find per row.
+     */
+    List<ScheduleConflict> sweep(Collection<Call> calls, int operators) {
+        List<Call> ordered = new ArrayList<>(calls.size());
+        for (Call call : calls) {
+            if (call != null && call.getScheduledTime() != null) {
+                ordered.add(call);
+            }
+        }
+        ordered.sort(Comparator.comparing(Call::getScheduledTime));
+
+        List<ScheduleConflict> conflicts = new ArrayList<>();
+        List<Call> running = new ArrayList<>();
+        for (Call call : ordered) {
+            running.removeIf(accepted -> !accepted.getEndTime().isAfter(call.getScheduledTime()));
+            List<ScheduleConflict> found = find(call, operators, running);
+            if (!found.isEmpty()) {
+                conflicts.add(found.get(0));
+            } else {
+                running.add(call);
+            }
+        }
+        return conflicts;
+    }
+
+    private static boolean sameNumber(Call a, Call b) {
+        return PhoneNumbers.sameNumber(a.getPhoneNumber(), b.getPhoneNumber());
+    }
+}
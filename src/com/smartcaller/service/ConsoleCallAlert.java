@@ -0,0 +1,20 @@
+package com.smartcaller.service;
+
+import com.smartcaller.model.Call;
+
+/**
+ * Prints due and missed calls to the console.
+ */
+public class ConsoleCallAlert implements CallDueListener {
+    @Override
+    public void onCallDue(Call call) {
+        System.out.println("\n🔔 Call due now: " + call.getContactName() + " (" + call.getPhoneNumber()
+                + ") - " + call.getCallType() + ", priority " + call.getPriority());
+    }
+
+    @Override
+    public void onCallMissed(Call call) {
+        System.out.println("\n❌ Call missed: " + call.getContactName() + " (" + call.getPhoneNumber()
+                + ") scheduled at " + call.getScheduledTime());
+    }
+}
@@ -0,0 +1,280 @@
+package com.smartcaller.service;
+
+import com.smartcaller.dao.EmailOutboxDAO;
+import com.smartcaller.model.OutboxMessage;
+import com.smartcaller.model.OutboxStatus;
+
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durable email delivery. Messages are written to the email_outbox table under an
+ * idempotency key, so a message is stored once however often it is enqueued. A background
+ * thread drains due messages through a SmtpTransportPool: failures are retried with
+ * exponential backoff and jitter, messages that keep failing are dead-lettered, and each
+ * recipient domain is held to a per-minute rate. Pending rows survive restarts and are
+ * picked up on the next start().
+ *
+ * Each drain claims its batch in the table under this instance's id before sending, so
+ * app instances sharing one database can all run an outbox without sending a message
+ * twice. A batch left claimed by an instance that died goes back out when its lease ends.
+ */
+public class EmailOutbox {
+    private static final int MAX_ATTEMPTS = Integer.getInteger("smartcaller.outbox.maxAttempts", 8);
+    private static final int BATCH_SIZE = Integer.getInteger("smartcaller.outbox.batchSize", 50);
+    private static final long POLL_MILLIS = Long.getLong("smartcaller.outbox.pollMillis", 5_000);
+    private static final long BASE_BACKOFF_MILLIS = Long.getLong("smartcaller.outbox.backoffMillis", 30_000);
+    private static final long MAX_BACKOFF_MILLIS = Long.getLong("smartcaller.outbox.maxBackoffMillis", 3_600_000);
+    private static final int PER_DOMAIN_PER_MINUTE = Integer.getInteger("smartcaller.outbox.perDomainPerMinute", 20);
+    // Must outlast sending one batch, or another instance could pick the batch up mid-send
+    private static final Duration LEASE = Duration.ofMillis(Long.getLong("smartcaller.outbox.leaseMillis", 300_000));
+    private static final int MAX_OWNER_LENGTH = 64;
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final EmailOutboxDAO outboxDAO;
+    private final SmtpTransportPool transportPool;
+    private final DomainRateLimiter rateLimiter = new DomainRateLimiter(PER_DOMAIN_PER_MINUTE);
+    private final String instanceId;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failedAttempts = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+    private final AtomicLong sendNanos = new AtomicLong();
+
+    private ScheduledExecutorService executor;
+
+    public EmailOutbox(EmailOutboxDAO outboxDAO, SmtpTransportPool transportPool) {
+        this.outboxDAO = outboxDAO;
+        this.transportPool = transportPool;
+        // pid@host plus a sequence number, as WorkDistributor names its call claims
+        String id = System.getProperty("smartcaller.instanceId", ManagementFactory.getRuntimeMXBean().getName())
+                + "#outbox-" + INSTANCES.incrementAndGet();
+        this.instanceId = id.length() > MAX_OWNER_LENGTH ? id.substring(0, MAX_OWNER_LENGTH) : id;
+    }
+
+    /**
+     * Builds an outbox from SmtpSettings.fromSystemProperties(), or returns null if SMTP is not configured.
+     */
+    public static EmailOutbox fromSystemProperties() {
+        SmtpSettings settings = SmtpSettings.fromSystemProperties();
+        if (settings == null) {
+            return null;
+        }
+        int connections = Integer.getInteger("smartcaller.smtp.connections", 2);
+        return new EmailOutbox(new EmailOutboxDAO(), new SmtpTransportPool(settings, connections));
+    }
+
+    /**
+     * Creates the outbox table if needed and starts the sender. Returns false if the database is unavailable.
+     */
+    public synchronized boolean start() {
+        if (executor != null) {
+            return true;
+        }
+        try {
+            outboxDAO.createTableIfMissing();
+        } catch (SQLException e) {
+            System.err.println("❌ Email outbox unavailable: " + e.getMessage());
+            return false;
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "email-outbox");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(this::drainSafely, 0, POLL_MILLIS, TimeUnit.MILLISECONDS);
+        System.out.println("📧 Email outbox started (" + transportPool.getSettings() + ")");
+        return true;
+    }
+
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        transportPool.close();
+    }
+
+    /**
+     * Stores a message for delivery. Returns false if it was already queued or sent, or could not be stored.
+     */
+    public boolean enqueue(OutboxMessage message) {
+        try {
+            return outboxDAO.enqueue(message);
+        } catch (SQLException e) {
+            System.err.println("❌ Could not queue email " + message.getIdempotencyKey() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Cancels messages for a call that have not gone out yet.
+     */
+    public void cancelForCall(int callId) {
+        try {
+            outboxDAO.cancelForCall(callId);
+        } catch (SQLException e) {
+            System.err.println("Error cancelling emails for call " + callId + ": " + e.getMessage());
+        }
+    }
+
+    private void drainSafely() {
+        try {
+            drainOnce();
+        } catch (SQLException e) {
+            System.err.println("Email outbox drain failed: " + e.getMessage());
+        } catch (RuntimeException e) {
+            // Keep the scheduled task alive; it would otherwise be cancelled silently
+            System.err.println("Email outbox drain failed: " + e);
+        }
+    }
+
+    /**
+     * Claims and sends one batch of due messages. Returns how many were sent.
+     */
+    public int drainOnce() throws SQLException {
+        List<OutboxMessage> due = outboxDAO.claimDue(instanceId, LEASE, BATCH_SIZE);
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        List<OutboxMessage> batch = new ArrayList<>(due.size());
+        List<MimeMessage> mimeMessages = new ArrayList<>(due.size());
+        for (OutboxMessage message : due) {
+            long wait = rateLimiter.tryAcquire(message.getRecipientDomain());
+            if (wait > 0) {
+                // Over the domain's budget: push back without spending an attempt
+                outboxDAO.defer(message.getId(), LocalDateTime.now().plusNanos(wait * 1_000_000));
+                deferred.incrementAndGet();
+                continue;
+            }
+            try {
+                mimeMessages.add(EmailService.createMessage(transportPool.getSession(),
+                        transportPool.getSettings().fromAddress(), message.getRecipient(),
+                        message.getSubject(), message.getBody()));
+                batch.add(message);
+            } catch (MessagingException e) {
+                // A malformed address will never send, so don't retry it
+                outboxDAO.markDead(message.getId(), message.getAttempts() + 1, e.getMessage());
+                deadLettered.incrementAndGet();
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        List<EmailResult> results = EmailService.sendBulk(transportPool, mimeMessages);
+        sendNanos.addAndGet(System.nanoTime() - start);
+
+        int sentNow = 0;
+        for (EmailResult result : results) {
+            OutboxMessage message = batch.get(result.index());
+            if (result.success()) {
+                outboxDAO.markSent(message.getId());
+                sent.incrementAndGet();
+                sentNow++;
+                continue;
+            }
+
+            failedAttempts.incrementAndGet();
+            int attempts = message.getAttempts() + 1;
+            if (attempts >= MAX_ATTEMPTS) {
+                outboxDAO.markDead(message.getId(), attempts, result.error());
+                deadLettered.incrementAndGet();
+                System.err.println("❌ Giving up on email to " + message.getRecipient()
+                        + " after " + attempts + " attempts: " + result.error());
+            } else {
+                outboxDAO.markRetry(message.getId(), attempts,
+                        LocalDateTime.now().plusNanos(backoffMillis(attempts) * 1_000_000), result.error());
+            }
+        }
+        System.out.println("📧 Outbox: sent " + sentNow + " of " + batch.size() + " due reminder(s)");
+        return sentNow;
+    }
+
+    // Exponential backoff capped at MAX_BACKOFF_MILLIS, with the upper half randomised so
+    // messages that failed together don't all retry together
+    private static long backoffMillis(int attempts) {
+        long delay = BASE_BACKOFF_MILLIS << Math.min(attempts - 1, 20);
+        delay = Math.min(delay, MAX_BACKOFF_MILLIS);
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    /**
+     * Queue depth by status plus delivery counters for this session. Depth counts are -1
+     * if the database could not be reached.
+     */
+    public OutboxStats getStats() {
+        Map<OutboxStatus, Integer> counts;
+        try {
+            counts = outboxDAO.countByStatus();
+        } catch (SQLException e) {
+            System.err.println("Error reading outbox stats: " + e.getMessage());
+            counts = new HashMap<>();
+        }
+        long sentCount = sent.get();
+        long nanos = sendNanos.get();
+        return new OutboxStats(
+                counts.getOrDefault(OutboxStatus.PENDING, -1),
+                counts.getOrDefault(OutboxStatus.DEAD, -1),
+                sentCount,
+                failedAttempts.get(),
+                deadLettered.get(),
+                deferred.get(),
+                transportPool.getConnectCount(),
+                nanos == 0 ? 0 : sentCount * 1e9 / nanos);
+    }
+
+    /**
+     * @param messagesPerSecond sends per second of time spent talking to SMTP
+     */
+    public record OutboxStats(int pending, int dead, long sent, long failedAttempts, long deadLettered,
+                              long deferred, long smtpConnects, double messagesPerSecond) {
+    }
+
+    /**
+     * Token bucket per recipient domain, refilled continuously at perMinute tokens a minute.
+     */
+    private static class DomainRateLimiter {
+        private final double capacity;
+        private final double tokensPerMilli;
+        private final Map<String, double[]> buckets = new HashMap<>(); // {tokens, lastRefillMillis}
+
+        DomainRateLimiter(int perMinute) {
+            this.capacity = Math.max(1, perMinute);
+            this.tokensPerMilli = capacity / 60_000.0;
+        }
+
+        /**
+         * Takes a token and returns 0, or returns how many millis until one is available.
+         */
+        synchronized long tryAcquire(String domain) {
+            long now = System.currentTimeMillis();
+            double[] bucket = buckets.computeIfAbsent(domain, d -> new double[]{capacity, now});
+            bucket[0] = Math.min(capacity, bucket[0] + (now - bucket[1]) * tokensPerMilli);
+            bucket[1] = now;
+            if (bucket[0] >= 1) {
+                bucket[0] -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - bucket[0]) / tokensPerMilli);
+        }
+    }
+}
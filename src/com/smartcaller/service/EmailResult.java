@@ -0,0 +1,15 @@
+package com.smartcaller.service;
+
+/**
+ * Outcome of one message in a bulk send; index is the message's position in the input list.
+ */
+public record EmailResult(int index, String recipient, boolean success, String error) {
+
+    static EmailResult sent(int index, String recipient) {
+        return new EmailResult(index, recipient, true, null);
+    }
+
+    static EmailResult failed(int index, String recipient, String error) {
+        return new EmailResult(index, recipient, false, error);
+    }
+}
@@ -1,102 +1,209 @@
 package com.smartcaller.service;
 
 import com.smartcaller.model.Call;
+import com.smartcaller.util.IoExecutors;
 import javax.swing.*;
 import java.awt.BorderLayout;
-import java.util.Properties;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.mail.*;
 import javax.mail.internet.*;
 
 public class EmailService {
 
     /**
-     * Send email notification for scheduled call
+     * Send email notification for scheduled call. The send runs on the I/O executor and the
+     * outcome is reported to the user in a dialog on the EDT; the returned future completes
+     * with true once the message has actually been sent. Reminders that must not be lost
+     * should go through EmailOutbox instead.
      */
-    public static boolean sendEmailNotification(String toEmail, String fromEmail,
-                                                String password, Call call, JFrame parentFrame) {
-        // Email configuration
-        String host = "smtp.gmail.com"; // For Gmail
-        String port = "587";
-
-        Properties properties = new Properties();
-        properties.put("mail.smtp.auth", "true");
-        properties.put("mail.smtp.starttls.enable", "true");
-        properties.put("mail.smtp.host", host);
-        properties.put("mail.smtp.port", port);
-
-        // Show progress dialog
+    public static CompletableFuture<Boolean> sendEmailNotification(String toEmail, String fromEmail,
+                                                                   String password, Call call, JFrame parentFrame) {
+        SmtpSettings settings = SmtpSettings.gmail(fromEmail, password);
+
+        // Show progress dialog; it is modal, so open it after the current event finishes
         JDialog progressDialog = createProgressDialog(parentFrame, "Sending email to " + call.getContactName() + "...");
-        progressDialog.setVisible(true);
+        SwingUtilities.invokeLater(() -> progressDialog.setVisible(true));
 
-        SwingWorker<Boolean, Void> worker = new SwingWorker<>() {
-            @Override
-            protected Boolean doInBackground() {
-                try {
-                    // Create session
-                    Session session = Session.getInstance(properties, new Authenticator() {
-                        @Override
-                        protected PasswordAuthentication getPasswordAuthentication() {
-                            return new PasswordAuthentication(fromEmail, password);
-                        }
-                    });
-
-                    // Create message
-                    Message message = new MimeMessage(session);
-                    message.setFrom(new InternetAddress(fromEmail));
-                    message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(toEmail));
-                    message.setSubject("📞 Call Reminder: " + call.getContactName());
-
-                    String emailContent = createEmailContent(call);
-                    message.setText(emailContent);
-
-                    // Send message
-                    Transport.send(message);
-                    return true;
-
-                } catch (Exception e) {
-                    System.err.println("Email error: " + e.getMessage());
-                    e.printStackTrace();
-                    return false;
-                }
+        CompletableFuture<Boolean> sent = IoExecutors.supplyAsync(() -> {
+            try {
+                Session session = Session.getInstance(settings.toProperties(), new Authenticator() {
+                    @Override
+                    protected PasswordAuthentication getPasswordAuthentication() {
+                        return new PasswordAuthentication(fromEmail, password);
+                    }
+                });
+                Transport.send(createReminderMessage(session, fromEmail, toEmail, call));
+                return true;
+            } catch (MessagingException e) {
+                System.err.println("❌ Email to " + toEmail + " failed: " + e);
+                return false;
+            }
+        });
+
+        sent.whenCompleteAsync((success, error) -> {
+            progressDialog.dispose();
+            if (error != null) {
+                JOptionPane.showMessageDialog(parentFrame,
+                        "Email error: " + IoExecutors.unwrap(error).getMessage(),
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE);
+            } else if (success) {
+                JOptionPane.showMessageDialog(parentFrame,
+                        "✅ Email sent successfully!\n\n" +
+                                "To: " + toEmail + "\n" +
+                                "Subject: Call Reminder\n" +
+                                "Contact: " + call.getContactName(),
+                        "Email Sent",
+                        JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(parentFrame,
+                        "❌ Failed to send email!\n\n" +
+                                "Please check:\n" +
+                                "• Internet connection\n" +
+                                "• Email credentials\n" +
+                                "• SMTP settings",
+                        "Email Failed",
+                        JOptionPane.ERROR_MESSAGE);
+            }
+        }, SwingUtilities::invokeLater);
+        return sent;
+    }
+
+    /**
+     * Builds a call reminder message without sending it.
+     */
+    public static MimeMessage createReminderMessage(Session session, String fromEmail, String toEmail, Call call)
+            throws MessagingException {
+        return createMessage(session, fromEmail, toEmail, reminderSubject(call), createEmailContent(call));
+    }
+
+    public static MimeMessage createMessage(Session session, String fromEmail, String toEmail,
+                                            String subject, String body) throws MessagingException {
+        MimeMessage message = new MimeMessage(session);
+        message.setFrom(new InternetAddress(fromEmail));
+        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(toEmail));
+        message.setSubject(subject);
+        message.setText(body);
+        return message;
+    }
+
+    static String reminderSubject(Call call) {
+        return "📞 Call Reminder: " + call.getContactName();
+    }
+
+    /**
+     * Sends many messages without any UI. Up to pool.getMaxConnections() workers each hold one
+     * pooled SMTP connection and push messages over it back to back, so the handshake is paid
+     * once per connection rather than once per message. Returns one result per message, in
+     * input order; a rejected recipient fails only that message.
+     */
+    public static List<EmailResult> sendBulk(SmtpTransportPool pool, List<? extends Message> messages) {
+        EmailResult[] results = new EmailResult[messages.size()];
+        if (messages.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Workers run on the shared I/O executor; their number, not the executor, bounds SMTP concurrency
+        int workers = Math.min(pool.getMaxConnections(), messages.size());
+        AtomicInteger cursor = new AtomicInteger();
+        ExecutorService executor = IoExecutors.io();
+        List<Future<?>> futures = new ArrayList<>(workers);
+        try {
+            for (int w = 0; w < workers; w++) {
+                futures.add(executor.submit(() -> drain(pool, messages, cursor, results)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Bulk email worker failed: " + e.getCause().getMessage());
+        } finally {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        // Anything a worker never reached (interrupted or crashed) is reported as not sent
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = EmailResult.failed(i, recipientOf(messages.get(i)), "Not sent");
+            }
+        }
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    private static void drain(SmtpTransportPool pool, List<? extends Message> messages,
+                              AtomicInteger cursor, EmailResult[] results) {
+        Transport transport;
+        try {
+            transport = pool.borrow();
+        } catch (MessagingException e) {
+            int index;
+            while ((index = cursor.getAndIncrement()) < messages.size()) {
+                results[index] = EmailResult.failed(index, recipientOf(messages.get(index)), e.getMessage());
             }
+            return;
+        }
 
-            @Override
-            protected void done() {
-                progressDialog.dispose();
+        boolean broken = false;
+        try {
+            int index;
+            while ((index = cursor.getAndIncrement()) < messages.size()) {
+                Message message = messages.get(index);
+                String recipient = recipientOf(message);
                 try {
-                    boolean success = get();
-                    if (success) {
-                        JOptionPane.showMessageDialog(parentFrame,
-                                "✅ Email sent successfully!\n\n" +
-                                        "To: " + toEmail + "\n" +
-                                        "Subject: Call Reminder\n" +
-                                        "Contact: " + call.getContactName(),
-                                "Email Sent",
-                                JOptionPane.INFORMATION_MESSAGE);
-                    } else {
-                        JOptionPane.showMessageDialog(parentFrame,
-                                "❌ Failed to send email!\n\n" +
-                                        "Please check:\n" +
-                                        "• Internet connection\n" +
-                                        "• Email credentials\n" +
-                                        "• SMTP settings",
-                                "Email Failed",
-                                JOptionPane.ERROR_MESSAGE);
-                    }
-                } catch (Exception e) {
-                    JOptionPane.showMessageDialog(parentFrame,
-                            "Email error: " + e.getMessage(),
-                            "Error",
-                            JOptionPane.ERROR_MESSAGE);
+                    transport = sendOne(pool, transport, message);
+                    results[index] = EmailResult.sent(index, recipient);
+                } catch (MessagingException e) {
+                    results[index] = EmailResult.failed(index, recipient, e.getMessage());
                 }
             }
-        };
+        } catch (RuntimeException e) {
+            broken = true;
+            throw e;
+        } finally {
+            pool.release(transport, broken);
+        }
+    }
+
+    // Sends over the given connection, reconnecting once if the server dropped it; returns the transport to keep using
+    private static Transport sendOne(SmtpTransportPool pool, Transport transport, Message message)
+            throws MessagingException {
+        try {
+            message.saveChanges();
+            transport.sendMessage(message, message.getAllRecipients());
+            return transport;
+        } catch (SendFailedException e) {
+            throw e;
+        } catch (MessagingException e) {
+            if (transport.isConnected()) {
+                throw e;
+            }
+            Transport fresh = pool.reconnect(transport);
+            fresh.sendMessage(message, message.getAllRecipients());
+            return fresh;
+        }
+    }
 
-        worker.execute();
-        return true;
+    private static String recipientOf(Message message) {
+        try {
+            Address[] recipients = message.getAllRecipients();
+            return recipients == null || recipients.length == 0 ? "" : recipients[0].toString();
+        } catch (MessagingException e) {
+            return "";
+        }
     }
 
-    private static String createEmailContent(Call call) {
+    static String createEmailContent(Call call) {
         return """
                 Call Reminder Notification
 
@@ -120,6 +227,23 @@ public class EmailService {
         );
     }
 
+    static String digestSubject(List<Call> calls) {
+        return "📞 " + calls.size() + " upcoming calls";
+    }
+
+    static String createDigestContent(List<Call> calls) {
+        StringBuilder content = new StringBuilder("Call Reminder Digest\n\nYou have ")
+                .append(calls.size()).append(" upcoming calls:\n\n");
+        for (Call call : calls) {
+            content.append("• ").append(call.getScheduledTime())
+                    .append("  ").append(call.getContactName())
+                    .append(" (").append(call.getPhoneNumber()).append(")")
+                    .append(" - ").append(call.getCallType())
+                    .append(", priority ").append(call.getPriority()).append('\n');
+        }
+        return content.append("\nPlease be available for these calls.\n\nBest regards,\nSmart Caller System").toString();
+    }
+
     private static JDialog createProgressDialog(JFrame parent, String message) {
         JDialog dialog = new JDialog(parent, "Sending Email", true);
         dialog.setLayout(new BorderLayout());
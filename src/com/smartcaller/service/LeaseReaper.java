@@ -0,0 +1,53 @@
+package com.smartcaller.service;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Puts calls whose lease ran out back in the queue by calling CallManager.expireLeases on
+ * a background thread, every smartcaller.lease.sweepSeconds (default 30).
+ */
+public class LeaseReaper {
+    private final CallManager callManager;
+    private final long periodMillis;
+    private ScheduledExecutorService executor;
+
+    public LeaseReaper(CallManager callManager, Duration period) {
+        this.callManager = callManager;
+        this.periodMillis = period.toMillis();
+    }
+
+    public LeaseReaper(CallManager callManager) {
+        this(callManager, Duration.ofSeconds(Long.getLong("smartcaller.lease.sweepSeconds", 30)));
+    }
+
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "lease-reaper");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleAtFixedRate(this::expireSafely, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private void expireSafely() {
+        try {
+            callManager.expireLeases();
+        } catch (RuntimeException e) {
+            // Keep the scheduled task alive; it would otherwise be cancelled silently
+            System.err.println("Lease expiry error: " + e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.smartcaller.service;
+
+import com.smartcaller.model.Call;
+
+import java.util.List;
+
+/**
+ * Why a call is next: its score and the scorer's reasons, and the call that would follow
+ * it (null if none) with its score.
+ */
+public record NextCallExplanation(Call call, double score, List<String> reasons,
+                                  Call runnerUp, double runnerUpScore) {
+
+    /**
+     * Multi-line text for the UI.
+     */
+    public String describe() {
+        StringBuilder text = new StringBuilder(String.format("Score %.1f%n", score));
+        for (String reason : reasons) {
+            text.append("  • ").append(reason).append(System.lineSeparator());
+        }
+        if (runnerUp == null) {
+            text.append("No other pending calls.");
+        } else {
+            text.append(String.format("Ahead of %s (%s) at %.1f", runnerUp.getContactName(),
+                    runnerUp.getPhoneNumber(), runnerUpScore));
+            if (runnerUpScore == score) {
+                text.append(", scheduled earlier");
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,93 @@
+package com.smartcaller.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Which minutes are booked, bucketed by day. Each day holds a count of calls per minute
+ * plus a 1440-bit busy mask (23 longs), so a free-slot search scans a day 64 minutes at a
+ * time. A call occupies every minute it touches: [start rounded down, end rounded up).
+ * Days with nothing booked are dropped.
+ *
+ * Thread-safe.
+ */
+final class OccupancyIndex {
+    static final int MINUTES_PER_DAY = 24 * 60;
+    static final int WORDS_PER_DAY = (MINUTES_PER_DAY + 63) / 64;
+
+    private final Map<Long, Day> days = new HashMap<>();
+
+    synchronized void add(LocalDateTime start, int durationMinutes) {
+        update(start, durationMinutes, 1);
+    }
+
+    synchronized void remove(LocalDateTime start, int durationMinutes) {
+        update(start, durationMinutes, -1);
+    }
+
+    /**
+     * ORs the day's busy mask into busy (WORDS_PER_DAY longs); bit m is minute m of the day.
+     */
+    synchronized void orBusy(long epochDay, long[] busy) {
+        Day day = days.get(epochDay);
+        if (day != null) {
+            for (int i = 0; i < WORDS_PER_DAY; i++) {
+                busy[i] |= day.busy[i];
+            }
+        }
+    }
+
+    /**
+     * Adds the day's per-minute call counts into load (MINUTES_PER_DAY ints).
+     */
+    synchronized void addLoad(long epochDay, int[] load) {
+        Day day = days.get(epochDay);
+        if (day != null) {
+            for (int m = 0; m < MINUTES_PER_DAY; m++) {
+                load[m] += day.counts[m];
+            }
+        }
+    }
+
+    private void update(LocalDateTime start, int durationMinutes, int delta) {
+        long seconds = start.toEpochSecond(ZoneOffset.UTC);
+        long endSeconds = seconds + durationMinutes * 60L + (start.getNano() != 0 ? 1 : 0);
+        long from = Math.floorDiv(seconds, 60);
+        long to = Math.floorDiv(endSeconds + 59, 60);
+        for (long minute = from; minute < to; ) {
+            long epochDay = Math.floorDiv(minute, MINUTES_PER_DAY);
+            int first = (int) (minute - epochDay * MINUTES_PER_DAY);
+            int last = (int) Math.min(MINUTES_PER_DAY, first + (to - minute));
+            Day day = days.get(epochDay);
+            if (day == null) {
+                if (delta < 0) {
+                    minute += last - first;
+                    continue;
+                }
+                day = new Day();
+                days.put(epochDay, day);
+            }
+            for (int m = first; m < last; m++) {
+                int count = day.counts[m] += delta;
+                if (count == 0) {
+                    day.busy[m >>> 6] &= ~(1L << m);
+                } else if (count == delta && delta > 0) {
+                    day.busy[m >>> 6] |= 1L << m;
+                }
+            }
+            day.booked += delta;
+            if (day.booked == 0) {
+                days.remove(epochDay);
+            }
+            minute += last - first;
+        }
+    }
+
+    private static final class Day {
+        final int[] counts = new int[MINUTES_PER_DAY];
+        final long[] busy = new long[WORDS_PER_DAY];
+        int booked; // calls touching this day
+    }
+}
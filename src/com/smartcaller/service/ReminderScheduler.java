@@ -0,0 +1,305 @@
+package com.smartcaller.service;
+
+import com.smartcaller.model.Call;
+import com.smartcaller.model.CallStatus;
+import com.smartcaller.model.OutboxMessage;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends reminder emails a fixed lead time before each pending call, e.g. 24 hours and
+ * 15 minutes ahead. Every (call, lead time) pair is one entry in a time-ordered reminder
+ * index kept in step with CallManager through change events. A background thread wakes
+ * once per tick, takes everything that has come due and writes it to the EmailOutbox;
+ * when one recipient has digestThreshold or more reminders in a tick they go out as a
+ * single digest email. Sending is left to the outbox, so bursts are smoothed by its rate
+ * limits and nothing here runs on the EDT.
+ *
+ * If a call is added after one of its lead times has passed (or the app was down), only
+ * the latest passed reminder is sent, straight away; earlier ones are skipped.
+ */
+public class ReminderScheduler implements CallChangeListener {
+    private static final Comparator<Reminder> BY_FIRE_TIME = Comparator
+            .comparingLong((Reminder r) -> r.fireAtMillis)
+            .thenComparingInt(r -> r.call.getId())
+            .thenComparingLong(r -> r.leadMinutes);
+
+    private final CallManager callManager;
+    private final EmailOutbox outbox;
+    private final List<String> recipients;
+    private final List<Long> leadMinutes;
+    private final int digestThreshold;
+    private final long tickMillis;
+
+    // Guarded by this
+    private final TreeSet<Reminder> index = new TreeSet<>(BY_FIRE_TIME);
+    private final Map<Integer, List<Reminder>> byCallId = new HashMap<>();
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * @param leadTimes how long before each call to remind, e.g. 24h and 15min
+     */
+    public ReminderScheduler(CallManager callManager, EmailOutbox outbox, List<String> recipients,
+                             List<Duration> leadTimes, int digestThreshold, Duration tick) {
+        if (recipients.isEmpty() || leadTimes.isEmpty()) {
+            throw new IllegalArgumentException("At least one recipient and one lead time are required");
+        }
+        this.callManager = callManager;
+        this.outbox = outbox;
+        this.recipients = List.copyOf(recipients);
+        this.leadMinutes = leadTimes.stream().map(Duration::toMinutes).distinct().sorted().toList();
+        this.digestThreshold = Math.max(2, digestThreshold);
+        this.tickMillis = tick.toMillis();
+    }
+
+    /**
+     * Builds a scheduler with its own EmailOutbox from system properties: smartcaller.smtp.*,
+     * smartcaller.reminder.to (comma separated), smartcaller.reminder.leadMinutes (default "1440,15"),
+     * smartcaller.reminder.digestThreshold (default 5) and smartcaller.reminder.tickSeconds (default 60).
+     * Returns null if reminders are not configured.
+     */
+    public static ReminderScheduler fromSystemProperties(CallManager callManager) {
+        String to = System.getProperty("smartcaller.reminder.to");
+        EmailOutbox outbox = EmailOutbox.fromSystemProperties();
+        if (outbox == null || to == null || to.isBlank()) {
+            return null;
+        }
+
+        List<String> recipients = new ArrayList<>();
+        for (String recipient : to.split(",")) {
+            if (!recipient.isBlank()) {
+                recipients.add(recipient.trim());
+            }
+        }
+        List<Duration> leadTimes = new ArrayList<>();
+        for (String lead : System.getProperty("smartcaller.reminder.leadMinutes", "1440,15").split(",")) {
+            if (!lead.isBlank()) {
+                leadTimes.add(Duration.ofMinutes(Long.parseLong(lead.trim())));
+            }
+        }
+        return new ReminderScheduler(callManager, outbox, recipients, leadTimes,
+                Integer.getInteger("smartcaller.reminder.digestThreshold", 5),
+                Duration.ofSeconds(Long.getLong("smartcaller.reminder.tickSeconds", 60)));
+    }
+
+    public synchronized void start() {
+        if (executor != null || !outbox.start()) {
+            return;
+        }
+        callManager.addChangeListener(this);
+        for (Call call : callManager.getAllPendingCalls()) {
+            track(call);
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "reminder-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleAtFixedRate(this::tickSafely, 0, tickMillis, TimeUnit.MILLISECONDS);
+        System.out.println("⏰ Reminders " + leadMinutes + " minutes ahead, sent to " + recipients);
+    }
+
+    public synchronized void stop() {
+        callManager.removeChangeListener(this);
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        index.clear();
+        byCallId.clear();
+        outbox.stop();
+    }
+
+    public EmailOutbox getOutbox() {
+        return outbox;
+    }
+
+    public synchronized int getPendingReminderCount() {
+        return index.size();
+    }
+
+    @Override
+    public void callAdded(Call call) {
+        track(call);
+    }
+
+    @Override
+    public void callUpdated(Call call) {
+        // Completed, missed or rescheduled: anything already queued for it is out of date
+        if (track(call)) {
+            cancelQueued(call.getId());
+        }
+    }
+
+    @Override
+    public void callRemoved(Call call) {
+        untrack(call.getId());
+        cancelQueued(call.getId());
+    }
+
+    // The outbox write goes to the scheduler thread so the caller (often the EDT) doesn't wait on it
+    private synchronized void cancelQueued(int callId) {
+        if (executor != null) {
+            executor.execute(() -> outbox.cancelForCall(callId));
+        }
+    }
+
+    /**
+     * (Re)builds the reminders for a call. Returns true if it is no longer pending or was
+     * tracked before at a different time.
+     */
+    private synchronized boolean track(Call call) {
+        List<Reminder> previous = byCallId.get(call.getId());
+        untrack(call.getId());
+        boolean pending = call.getStatus() == CallStatus.PENDING && call.getScheduledTime() != null;
+        boolean changed = !pending || (previous != null
+                && previous.get(0).scheduledMillis != toEpochMillis(call.getScheduledTime()));
+        if (!pending) {
+            return changed;
+        }
+
+        long now = System.currentTimeMillis();
+        long scheduledMillis = toEpochMillis(call.getScheduledTime());
+        if (scheduledMillis <= now) {
+            return changed;
+        }
+        List<Reminder> reminders = new ArrayList<>(leadMinutes.size());
+        // leadMinutes is ascending, so the first passed lead is the most recent one
+        boolean passedOneAdded = false;
+        for (long lead : leadMinutes) {
+            long fireAt = scheduledMillis - TimeUnit.MINUTES.toMillis(lead);
+            if (fireAt <= now) {
+                if (passedOneAdded) {
+                    continue;
+                }
+                passedOneAdded = true;
+            }
+            reminders.add(new Reminder(call, lead, scheduledMillis, fireAt));
+        }
+        index.addAll(reminders);
+        byCallId.put(call.getId(), reminders);
+        return changed;
+    }
+
+    private synchronized void untrack(int callId) {
+        List<Reminder> reminders = byCallId.remove(callId);
+        if (reminders != null) {
+            reminders.forEach(index::remove);
+        }
+    }
+
+    // Removes and returns every reminder due by now that still matches its call
+    private synchronized List<Reminder> takeDue(long now) {
+        List<Reminder> due = new ArrayList<>();
+        while (!index.isEmpty() && index.first().fireAtMillis <= now) {
+            Reminder reminder = index.pollFirst();
+            List<Reminder> forCall = byCallId.get(reminder.call.getId());
+            if (forCall != null) {
+                forCall.remove(reminder);
+                if (forCall.isEmpty()) {
+                    byCallId.remove(reminder.call.getId());
+                }
+            }
+            Call call = reminder.call;
+            if (call.getStatus() == CallStatus.PENDING && call.getScheduledTime() != null
+                    && toEpochMillis(call.getScheduledTime()) == reminder.scheduledMillis) {
+                due.add(reminder);
+            }
+        }
+        return due;
+    }
+
+    private void tickSafely() {
+        try {
+            tick();
+        } catch (RuntimeException e) {
+            // Keep the scheduled task alive; it would otherwise be cancelled silently
+            System.err.println("Reminder scheduler error: " + e);
+        }
+    }
+
+    /**
+     * Queues every reminder that has come due. Returns the number of emails queued.
+     */
+    public int tick() {
+        List<Reminder> due = takeDue(System.currentTimeMillis());
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        int queued = 0;
+        for (String recipient : recipients) {
+            if (due.size() >= digestThreshold) {
+                if (outbox.enqueue(digestFor(recipient, due))) {
+                    queued++;
+                }
+                continue;
+            }
+            for (Reminder reminder : due) {
+                if (outbox.enqueue(reminderFor(recipient, reminder))) {
+                    queued++;
+                }
+            }
+        }
+        System.out.println("⏰ " + due.size() + " reminder(s) due, " + queued + " email(s) queued");
+        return queued;
+    }
+
+    private OutboxMessage reminderFor(String recipient, Reminder reminder) {
+        Call call = reminder.call;
+        return new OutboxMessage(keyOf(recipient, reminder), call.getId(), recipient,
+                EmailService.reminderSubject(call), EmailService.createEmailContent(call));
+    }
+
+    // Digests span several calls, so they carry call id 0 and are not cancelled with any one call
+    private OutboxMessage digestFor(String recipient, List<Reminder> reminders) {
+        Map<Integer, Call> calls = new LinkedHashMap<>();
+        long hash = 1125899906842597L;
+        for (Reminder reminder : reminders) {
+            calls.putIfAbsent(reminder.call.getId(), reminder.call);
+            hash = 31 * hash + keyOf(recipient, reminder).hashCode();
+        }
+        List<Call> sorted = new ArrayList<>(calls.values());
+        sorted.sort(Comparator.comparing(Call::getScheduledTime));
+        return new OutboxMessage("digest:" + recipient + ":" + Long.toHexString(hash), 0, recipient,
+                EmailService.digestSubject(sorted), EmailService.createDigestContent(sorted));
+    }
+
+    // Includes the scheduled time so a rescheduled call gets fresh reminders
+    private static String keyOf(String recipient, Reminder reminder) {
+        return "reminder:" + reminder.call.getId() + ":" + reminder.scheduledMillis / 60_000
+                + ":" + reminder.leadMinutes + ":" + recipient;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static class Reminder {
+        final Call call;
+        final long leadMinutes;
+        final long scheduledMillis;
+        final long fireAtMillis;
+
+        Reminder(Call call, long leadMinutes, long scheduledMillis, long fireAtMillis) {
+            this.call = call;
+            this.leadMinutes = leadMinutes;
+            this.scheduledMillis = scheduledMillis;
+            this.fireAtMillis = fireAtMillis;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.smartcaller.service;
+
+import com.smartcaller.model.Call;
+
+import java.time.format.DateTimeFormatter;
+
+/**
+ * A call whose slot overlaps another one. CONTACT: both are to the same number.
+ * OPERATOR: every operator is already on a call at some moment of the slot; existing is
+ * one of those calls.
+ */
+public record ScheduleConflict(Call call, Call existing, Scope scope) {
+    private static final DateTimeFormatter START = DateTimeFormatter.ofPattern("MMM dd HH:mm");
+    private static final DateTimeFormatter END = DateTimeFormatter.ofPattern("HH:mm");
+
+    public enum Scope {
+        CONTACT, OPERATOR
+    }
+
+    public String describe() {
+        String what = scope == Scope.CONTACT ? "another call to this contact" : "the call with " + existing.getContactName();
+        return "Overlaps " + what + " at " + existing.getScheduledTime().format(START)
+                + "-" + existing.getEndTime().format(END);
+    }
+
+    @Override
+    public String toString() {
+        return call.getContactName() + ": " + describe();
+    }
+}
@@ -0,0 +1,36 @@
+package com.smartcaller.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * A call's score over time: base until agingFrom, then rising by perMinute for every minute
+ * after it. A null agingFrom or a zero rate means the score never changes.
+ */
+public record ScoreProfile(double base, LocalDateTime agingFrom, double perMinute) {
+    public ScoreProfile {
+        if (perMinute < 0 || Double.isNaN(perMinute) || Double.isInfinite(perMinute) || Double.isNaN(base)) {
+            throw new IllegalArgumentException("Invalid score profile: " + base + " + " + perMinute + "/min");
+        }
+    }
+
+    public static ScoreProfile fixed(double base) {
+        return new ScoreProfile(base, null, 0);
+    }
+
+    public boolean ages() {
+        return agingFrom != null && perMinute > 0;
+    }
+
+    public double at(LocalDateTime now) {
+        if (!ages() || !now.isAfter(agingFrom)) {
+            return base;
+        }
+        return base + perMinute * (minutes(now) - minutes(agingFrom));
+    }
+
+    // Fractional minutes on the local clock, the scale aging rates are given in
+    static double minutes(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60.0 + time.getNano() / 60e9;
+    }
+}
@@ -0,0 +1,54 @@
+package com.smartcaller.service;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps recurring calls expanded a horizon ahead by calling CallManager.expandSeries on a
+ * background thread, every smartcaller.series.refillMinutes (default 60). Each run only
+ * adds the occurrences that have come within the horizon since the last one.
+ */
+public class SeriesExpander {
+    private final CallManager callManager;
+    private final long periodMillis;
+    private ScheduledExecutorService executor;
+
+    public SeriesExpander(CallManager callManager, Duration period) {
+        this.callManager = callManager;
+        this.periodMillis = period.toMillis();
+    }
+
+    public SeriesExpander(CallManager callManager) {
+        this(callManager, Duration.ofMinutes(Long.getLong("smartcaller.series.refillMinutes", 60)));
+    }
+
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "series-expander");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleAtFixedRate(this::expandSafely, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private void expandSafely() {
+        try {
+            callManager.expandSeries();
+        } catch (RuntimeException e) {
+            // Keep the scheduled task alive; it would otherwise be cancelled silently
+            System.err.println("Recurring call expansion error: " + e);
+        }
+    }
+}
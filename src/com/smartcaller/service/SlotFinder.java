@@ -0,0 +1,258 @@
+package com.smartcaller.service;
+
+import com.smartcaller.model.Call;
+import com.smartcaller.model.EmergencyCall;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Searches the operators' timeline for free slots, using CallStore's OccupancyIndex.
+ * A minute is full once as many calls are booked in it as there are operators. Starts
+ * are on a 5-minute grid inside the working hours. A day is scanned as 23 words of full
+ * bits, jumping over full runs, so a month of dense bookings takes microseconds.
+ * Searches look at most HORIZON_DAYS ahead.
+ *
+ * Calls being placed in a batch are booked in a separate "reserved" index, which is
+ * checked alongside the store, until they are inserted together at the end.
+ */
+final class SlotFinder {
+    static final int GRID_MINUTES = 5;
+    static final int HORIZON_DAYS = 62;
+
+    private final CallStore pending;
+
+    SlotFinder(CallStore pending) {
+        this.pending = pending;
+    }
+
+    /**
+     * A place for a call: its start, and any lower-priority calls it displaces.
+     */
+    record Placement(LocalDateTime start, List<Call> bumped) {
+    }
+
+    /**
+     * The earliest count non-overlapping free starts at or after from: starts where, for the
+     * whole duration, fewer than operators calls are booked. Fewer if the horizon fills up
+     * first.
+     */
+    List<LocalDateTime> findFree(LocalDateTime from, int durationMinutes, WorkingHours hours, int operators,
+                                 int count, OccupancyIndex reserved) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Slot count must be positive, got " + count);
+        }
+        List<LocalDateTime> slots = new ArrayList<>(Math.min(count, 64));
+        long[] busy = new long[OccupancyIndex.WORDS_PER_DAY];
+        LocalDate firstDay = from.toLocalDate();
+        for (int offset = 0; offset < HORIZON_DAYS && slots.size() < count; offset++) {
+            LocalDate date = firstDay.plusDays(offset);
+            int open = windowStart(hours, from, date);
+            int close = hours.closeMinute();
+            if (!hours.days().contains(date.getDayOfWeek()) || open + durationMinutes > close) {
+                continue;
+            }
+            loadBusy(date, operators, reserved, busy);
+            int start = open;
+            while (start + durationMinutes <= close && slots.size() < count) {
+                int taken = nextSet(busy, start, start + durationMinutes);
+                if (taken < 0) {
+                    slots.add(date.atStartOfDay().plusMinutes(start));
+                    start = roundUp(start + durationMinutes);
+                } else {
+                    start = roundUp(nextClear(busy, taken, close));
+                }
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * The earliest slot for this call. An emergency may take a slot that is full only
+     * because of non-emergency calls of lower priority; the lowest-priority ones it takes
+     * to free an operator are returned to be moved. Anyone else only gets a free
+     * slot. Null if nothing fits within the horizon.
+     */
+    Placement place(Call call, LocalDateTime from, WorkingHours hours, int operators, OccupancyIndex reserved) {
+        int duration = call.getDurationMinutes();
+        if (!(call instanceof EmergencyCall)) {
+            List<LocalDateTime> free = findFree(from, duration, hours, operators, 1, reserved);
+            return free.isEmpty() ? null : new Placement(free.get(0), List.of());
+        }
+
+        int[] load = new int[OccupancyIndex.MINUTES_PER_DAY];
+        int[] fixedLoad = new int[OccupancyIndex.MINUTES_PER_DAY];
+        long[] busy = new long[OccupancyIndex.WORDS_PER_DAY];
+        long[] fixed = new long[OccupancyIndex.WORDS_PER_DAY];
+        LocalDate firstDay = from.toLocalDate();
+        for (int offset = 0; offset < HORIZON_DAYS; offset++) {
+            LocalDate date = firstDay.plusDays(offset);
+            int close = hours.closeMinute();
+            if (!hours.days().contains(date.getDayOfWeek())) {
+                continue;
+            }
+            // Only the batch's own reservations are fixed; the store's bookings may be bumped
+            Arrays.fill(load, 0);
+            Arrays.fill(fixedLoad, 0);
+            pending.occupancy().addLoad(date.toEpochDay(), load);
+            if (reserved != null) {
+                reserved.addLoad(date.toEpochDay(), fixedLoad);
+            }
+            for (int m = 0; m < load.length; m++) {
+                load[m] += fixedLoad[m];
+            }
+            markFull(load, operators, busy);
+            markFull(fixedLoad, operators, fixed);
+            int start = windowStart(hours, from, date);
+            while (start + duration <= close) {
+                int taken = nextSet(fixed, start, start + duration);
+                if (taken >= 0) {
+                    start = roundUp(nextClear(fixed, taken, close));
+                    continue;
+                }
+                if (nextSet(busy, start, start + duration) < 0) {
+                    return new Placement(date.atStartOfDay().plusMinutes(start), List.of());
+                }
+                List<Call> bumped = makeRoom(call, date, start, duration, operators, load);
+                if (bumped != null) {
+                    return new Placement(date.atStartOfDay().plusMinutes(start), bumped);
+                }
+                start += GRID_MINUTES;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Calls to move so that fewer than operators calls are booked in every minute of
+     * [start, start + duration) on date, lowest priority first, skipping any whose minutes
+     * are already below that. Null if the calls that cannot be moved keep it full.
+     */
+    private List<Call> makeRoom(Call call, LocalDate date, int start, int duration, int operators, int[] load) {
+        LocalDateTime slot = date.atStartOfDay().plusMinutes(start);
+        List<Call> movable = new ArrayList<>();
+        for (Call occupant : pending.overlapping(slot, slot.plusMinutes(duration), Integer.MAX_VALUE)) {
+            // A call an operator is working cannot be moved
+            if (!pending.isClaimed(occupant) && canBump(call, occupant)) {
+                movable.add(occupant);
+            }
+        }
+        movable.sort(Comparator.comparingInt(Call::getPriority));
+
+        int[] window = Arrays.copyOfRange(load, start, start + duration);
+        List<Call> bumped = new ArrayList<>();
+        for (Call occupant : movable) {
+            int[] span = minutesOn(occupant, date, start, start + duration);
+            boolean needed = false;
+            for (int m = span[0]; m < span[1] && !needed; m++) {
+                needed = window[m - start] >= operators;
+            }
+            if (needed) {
+                bumped.add(occupant);
+                for (int m = span[0]; m < span[1]; m++) {
+                    window[m - start]--;
+                }
+            }
+        }
+        for (int count : window) {
+            if (count >= operators) {
+                return null;
+            }
+        }
+        return bumped;
+    }
+
+    // The minutes of date the call occupies (rounded as OccupancyIndex does), within [from, to)
+    private static int[] minutesOn(Call call, LocalDate date, int from, int to) {
+        LocalDateTime time = call.getScheduledTime();
+        long seconds = ChronoUnit.SECONDS.between(date.atStartOfDay(), time);
+        long endSeconds = seconds + call.getDurationMinutes() * 60L + (time.getNano() != 0 ? 1 : 0);
+        long first = Math.floorDiv(seconds, 60);
+        long last = Math.floorDiv(endSeconds + 59, 60);
+        return new int[]{(int) Math.max(from, first), (int) Math.min(to, last)};
+    }
+
+    private static boolean canBump(Call call, Call occupant) {
+        return !(occupant instanceof EmergencyCall) && occupant.getPriority() < call.getPriority();
+    }
+
+    // One operator: any booking fills a minute, so the busy masks can be ORed as they are
+    private void loadBusy(LocalDate date, int operators, OccupancyIndex reserved, long[] busy) {
+        Arrays.fill(busy, 0L);
+        long epochDay = date.toEpochDay();
+        if (operators == 1) {
+            pending.occupancy().orBusy(epochDay, busy);
+            if (reserved != null) {
+                reserved.orBusy(epochDay, busy);
+            }
+            return;
+        }
+        int[] load = new int[OccupancyIndex.MINUTES_PER_DAY];
+        pending.occupancy().addLoad(epochDay, load);
+        if (reserved != null) {
+            reserved.addLoad(epochDay, load);
+        }
+        markFull(load, operators, busy);
+    }
+
+    // Sets bit m of busy where load[m] has reached operators, and clears the rest
+    private static void markFull(int[] load, int operators, long[] busy) {
+        Arrays.fill(busy, 0L);
+        for (int m = 0; m < load.length; m++) {
+            if (load[m] >= operators) {
+                busy[m >>> 6] |= 1L << m;
+            }
+        }
+    }
+
+    // First grid minute of the day's window that is not before from
+    private static int windowStart(WorkingHours hours, LocalDateTime from, LocalDate date) {
+        int open = hours.openMinute();
+        if (date.equals(from.toLocalDate())) {
+            LocalDateTime minute = from.truncatedTo(ChronoUnit.MINUTES);
+            int earliest = minute.getHour() * 60 + minute.getMinute() + (minute.equals(from) ? 0 : 1);
+            open = Math.max(open, earliest);
+        }
+        return roundUp(open);
+    }
+
+    private static int roundUp(int minute) {
+        return (minute + GRID_MINUTES - 1) / GRID_MINUTES * GRID_MINUTES;
+    }
+
+    // First set bit in [from, to), or -1
+    private static int nextSet(long[] bits, int from, int to) {
+        int word = from >>> 6;
+        long current = bits[word] & (-1L << from);
+        while (true) {
+            if (current != 0) {
+                int bit = word * 64 + Long.numberOfTrailingZeros(current);
+                return bit < to ? bit : -1;
+            }
+            if (++word * 64 >= to) {
+                return -1;
+            }
+            current = bits[word];
+        }
+    }
+
+    // First clear bit at or after from, capped at limit
+    private static int nextClear(long[] bits, int from, int limit) {
+        int word = from >>> 6;
+        long current = ~bits[word] & (-1L << from);
+        while (true) {
+            if (current != 0) {
+                return Math.min(limit, word * 64 + Long.numberOfTrailingZeros(current));
+            }
+            if (++word >= bits.length) {
+                return limit;
+            }
+            current = ~bits[word];
+        }
+    }
+}
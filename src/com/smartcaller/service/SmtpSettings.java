@@ -0,0 +1,45 @@
+package com.smartcaller.service;
+
+import java.util.Properties;
+
+/**
+ * SMTP server and account details used for sending reminders.
+ */
+public record SmtpSettings(String host, int port, String username, String password, String fromAddress) {
+
+    public static SmtpSettings gmail(String email, String password) {
+        return new SmtpSettings("smtp.gmail.com", 587, email, password, email);
+    }
+
+    /**
+     * Reads smartcaller.smtp.host/port/username/password/from. Returns null if no host or
+     * username is configured; port defaults to 587 and from to the username.
+     */
+    public static SmtpSettings fromSystemProperties() {
+        String host = System.getProperty("smartcaller.smtp.host");
+        String username = System.getProperty("smartcaller.smtp.username");
+        if (host == null || host.isBlank() || username == null || username.isBlank()) {
+            return null;
+        }
+        return new SmtpSettings(host,
+                Integer.getInteger("smartcaller.smtp.port", 587),
+                username,
+                System.getProperty("smartcaller.smtp.password", ""),
+                System.getProperty("smartcaller.smtp.from", username));
+    }
+
+    public Properties toProperties() {
+        Properties properties = new Properties();
+        properties.put("mail.smtp.auth", "true");
+        properties.put("mail.smtp.starttls.enable", "true");
+        properties.put("mail.smtp.host", host);
+        properties.put("mail.smtp.port", String.valueOf(port));
+        return properties;
+    }
+
+    @Override
+    public String toString() {
+        // Keep the password out of logs
+        return "SmtpSettings{" + username + "@" + host + ":" + port + "}";
+    }
+}
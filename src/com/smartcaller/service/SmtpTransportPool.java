@@ -0,0 +1,137 @@
+package com.smartcaller.service;
+
+import javax.mail.*;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of authenticated, connected SMTP transports sharing one mail Session, so bulk
+ * sends pay the connect/STARTTLS/AUTH handshake once per connection instead of once
+ * per message. At most maxConnections transports are open at a time.
+ */
+public class SmtpTransportPool implements AutoCloseable {
+    private final SmtpSettings settings;
+    private final Session session;
+    private final int maxConnections;
+    private final long borrowTimeoutMillis;
+    private final LinkedBlockingDeque<Transport> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final AtomicLong connectCount = new AtomicLong();
+    private volatile boolean closed = false;
+
+    public SmtpTransportPool(SmtpSettings settings, int maxConnections, long borrowTimeoutMillis) {
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("maxConnections must be positive");
+        }
+        this.settings = settings;
+        this.maxConnections = maxConnections;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.permits = new Semaphore(maxConnections, true);
+        this.session = Session.getInstance(settings.toProperties(), new Authenticator() {
+            @Override
+            protected PasswordAuthentication getPasswordAuthentication() {
+                return new PasswordAuthentication(settings.username(), settings.password());
+            }
+        });
+    }
+
+    public SmtpTransportPool(SmtpSettings settings, int maxConnections) {
+        this(settings, maxConnections, 30_000);
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    public SmtpSettings getSettings() {
+        return settings;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Number of SMTP connections opened so far (including reconnects).
+     */
+    public long getConnectCount() {
+        return connectCount.get();
+    }
+
+    public Transport borrow() throws MessagingException {
+        if (closed) {
+            throw new MessagingException("SMTP transport pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new MessagingException("Timed out waiting for an SMTP connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted while waiting for an SMTP connection", e);
+        }
+
+        try {
+            Transport transport;
+            while ((transport = idle.pollFirst()) != null) {
+                if (transport.isConnected()) {
+                    return transport;
+                }
+                closeQuietly(transport);
+            }
+            return connect();
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a transport to the pool. Pass broken=true after a connection-level failure so it is dropped.
+     */
+    public void release(Transport transport, boolean broken) {
+        try {
+            if (closed || broken || !transport.isConnected()) {
+                closeQuietly(transport);
+            } else {
+                idle.offerFirst(transport);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Replaces a transport whose connection dropped mid-batch, without giving up the permit.
+     */
+    public Transport reconnect(Transport broken) throws MessagingException {
+        closeQuietly(broken);
+        return connect();
+    }
+
+    private Transport connect() throws MessagingException {
+        Transport transport = session.getTransport("smtp");
+        transport.connect(settings.host(), settings.port(), settings.username(), settings.password());
+        connectCount.incrementAndGet();
+        return transport;
+    }
+
+    private void closeQuietly(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            System.err.println("Error closing SMTP connection: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Transport transport;
+        while ((transport = idle.pollFirst()) != null) {
+            closeQuietly(transport);
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package com.smartcaller.service;
+
+import com.smartcaller.dao.CallClaim;
+import com.smartcaller.dao.CallRepository;
+import com.smartcaller.model.Call;
+import com.smartcaller.model.CallStatus;
+
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Hands pending calls to operators. Each operator has a small queue of calls claimed for
+ * them ahead of time, refilled from the shared CallStore in score order, several calls per
+ * CallRepository.claimCalls round trip. An operator who finds both their own queue and
+ * the shared one empty steals from the back of the longest other queue, so no claimed
+ * call sits idle while someone is free.
+ *
+ * Claims are made in the repository under this instance's id, so app instances sharing
+ * one database never hand out the same call; which operator has a call is only known
+ * here. A claimed call stays in the CallStore, out of score order, so it still counts as
+ * pending and keeps its slot for conflict checks and free-slot searches. A lease that runs
+ * out before the call is completed is released and the call goes back to the shared
+ * queue. Calls another instance holds are set aside until its lease could have run out;
+ * calls it has finished are settled and dropped.
+ *
+ * Thread-safe.
+ */
+final class WorkDistributor {
+    private static final int MAX_OWNER_LENGTH = 64;
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final CallStore pending;
+    private final CallRepository repository;
+    private final BiConsumer<Call, CallStatus> settledElsewhere;
+    private final String instanceId;
+    private volatile Duration leaseDuration =
+            Duration.ofMinutes(Long.getLong("smartcaller.lease.minutes", 10));
+    private volatile int prefetch = Integer.getInteger("smartcaller.operators.prefetch", 2);
+    private final Map<String, Deque<CallLease>> desks = new ConcurrentHashMap<>();
+    // Every call this instance holds, queued or being worked, by id
+    private final Map<Integer, CallLease> active = new ConcurrentHashMap<>();
+    // Calls another instance holds, by id, with when to try them again
+    private final Map<Integer, Parked> parked = new ConcurrentHashMap<>();
+
+    private record Parked(Call call, LocalDateTime retryAt) {
+    }
+
+    WorkDistributor(CallStore pending, CallRepository repository, BiConsumer<Call, CallStatus> settledElsewhere) {
+        this.pending = pending;
+        this.repository = repository;
+        this.settledElsewhere = settledElsewhere;
+        // pid@host plus a sequence number, so CallManagers in one JVM are told apart too
+        String id = System.getProperty("smartcaller.instanceId", ManagementFactory.getRuntimeMXBean().getName())
+                + "#" + INSTANCES.incrementAndGet();
+        this.instanceId = id.length() > MAX_OWNER_LENGTH ? id.substring(0, MAX_OWNER_LENGTH) : id;
+    }
+
+    String getInstanceId() { return instanceId; }
+
+    Duration getLeaseDuration() { return leaseDuration; }
+
+    void setLeaseDuration(Duration leaseDuration) {
+        if (leaseDuration.isNegative() || leaseDuration.isZero()) {
+            throw new IllegalArgumentException("Lease must be positive");
+        }
+        this.leaseDuration = leaseDuration;
+    }
+
+    int getPrefetch() { return prefetch; }
+
+    void setPrefetch(int prefetch) {
+        if (prefetch < 1) {
+            throw new IllegalArgumentException("Prefetch must be at least 1");
+        }
+        this.prefetch = prefetch;
+    }
+
+    /**
+     * The next call for this operator: from their queue, else claimed from the shared
+     * queue with up to prefetch - 1 more queued behind it, else stolen. Null if none.
+     */
+    CallLease next(String operator, int prefetch) throws SQLException {
+        Deque<CallLease> desk = desks.computeIfAbsent(operator, k -> new ConcurrentLinkedDeque<>());
+        CallLease queued;
+        while ((queued = desk.pollFirst()) != null) {
+            CallLease lease = handOver(queued, operator);
+            if (lease != null) {
+                return lease;
+            }
+        }
+        List<CallLease> claimed = claim(operator, prefetch);
+        if (!claimed.isEmpty()) {
+            for (int i = 1; i < claimed.size(); i++) {
+                desk.addLast(claimed.get(i));
+            }
+            return claimed.get(0);
+        }
+        return steal(operator);
+    }
+
+    CallLease next(String operator) throws SQLException {
+        return next(operator, prefetch);
+    }
+
+    // Claims the best count calls; candidates held elsewhere are set aside and replaced
+    private List<CallLease> claim(String operator, int count) throws SQLException {
+        List<CallLease> granted = new ArrayList<>(count);
+        List<Call> locked = new ArrayList<>();
+        try {
+            List<Call> candidates;
+            while (granted.size() < count && !(candidates = pending.claim(count - granted.size())).isEmpty()) {
+                claim(operator, candidates, granted, locked);
+            }
+        } finally {
+            for (Call call : locked) {
+                pending.release(call);
+            }
+        }
+        return granted;
+    }
+
+    private void claim(String operator, List<Call> candidates, List<CallLease> granted, List<Call> locked)
+            throws SQLException {
+        List<Integer> ids = new ArrayList<>(candidates.size());
+        for (Call call : candidates) {
+            ids.add(call.getId());
+        }
+        Map<Integer, CallClaim> states = new HashMap<>();
+        try {
+            for (CallClaim state : repository.claimCalls(ids, instanceId, leaseDuration, candidates.size())) {
+                states.put(state.callId(), state);
+            }
+        } catch (SQLException | RuntimeException e) {
+            locked.addAll(candidates);
+            throw e;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Call call : candidates) {
+            CallClaim state = states.get(call.getId());
+            if (state == null) {
+                // Locked by a concurrent claimer; back in the queue once this claim is done
+                locked.add(call);
+            } else if (state.heldBy(instanceId)) {
+                CallLease lease = new CallLease(call, operator, now.plus(leaseDuration));
+                active.put(call.getId(), lease);
+                granted.add(lease);
+            } else if (state.status() != CallStatus.PENDING) {
+                settle(call, state.status());
+            } else {
+                park(call);
+            }
+        }
+    }
+
+    // Another instance finished the call: it is no longer pending here either
+    private void settle(Call call, CallStatus status) {
+        pending.remove(call);
+        settledElsewhere.accept(call, status);
+    }
+
+    // Takes a queued lease for this operator, renewing it if it has run out meanwhile
+    private CallLease handOver(CallLease queued, String operator) throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        CallLease lease = new CallLease(queued.call(), operator,
+                queued.isExpired(now) ? now.plus(leaseDuration) : queued.expiresAt());
+        if (!active.replace(queued.call().getId(), queued, lease)) {
+            return null; // expired and released by the sweep
+        }
+        if (queued.isExpired(now) && renew(lease) == null) {
+            return null;
+        }
+        return active.get(queued.call().getId());
+    }
+
+    private CallLease steal(String thief) throws SQLException {
+        while (true) {
+            Deque<CallLease> victim = null;
+            int longest = 0;
+            for (Map.Entry<String, Deque<CallLease>> desk : desks.entrySet()) {
+                int size = desk.getValue().size();
+                if (!desk.getKey().equals(thief) && size > longest) {
+                    victim = desk.getValue();
+                    longest = size;
+                }
+            }
+            if (victim == null) {
+                return null;
+            }
+            CallLease queued = victim.pollLast();
+            if (queued != null) {
+                CallLease lease = handOver(queued, thief);
+                if (lease != null) {
+                    return lease;
+                }
+            }
+        }
+    }
+
+    /**
+     * Extends a lease this instance holds. Null if it has been lost; the call is then
+     * settled or set aside as claimCalls reports.
+     */
+    CallLease renew(CallLease lease) throws SQLException {
+        Call call = lease.call();
+        if (active.get(call.getId()) != lease) {
+            return null;
+        }
+        List<CallClaim> states = repository.claimCalls(List.of(call.getId()), instanceId, leaseDuration, 1);
+        if (!states.isEmpty() && states.get(0).heldBy(instanceId)) {
+            CallLease renewed = new CallLease(call, lease.operator(), LocalDateTime.now().plus(leaseDuration));
+            return active.replace(call.getId(), lease, renewed) ? renewed : null;
+        }
+        if (active.remove(call.getId(), lease)) {
+            if (!states.isEmpty() && states.get(0).status() != CallStatus.PENDING) {
+                settle(call, states.get(0).status());
+            } else {
+                park(call);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Claims a call for this instance outside the operators' queues, e.g. before deleting it,
+     * so no other instance takes it meanwhile. False if another instance holds or has
+     * finished it, which sets it aside or settles it as claim() does, or if it is being
+     * claimed at this very moment.
+     */
+    boolean hold(Call call) throws SQLException {
+        List<CallClaim> states = repository.claimCalls(List.of(call.getId()), instanceId, leaseDuration, 1);
+        if (states.isEmpty()) {
+            return false;
+        }
+        CallClaim state = states.get(0);
+        if (state.heldBy(instanceId)) {
+            return true;
+        }
+        // Any lease on it here has been lost
+        forget(call);
+        if (state.status() != CallStatus.PENDING) {
+            settle(call, state.status());
+        } else {
+            park(call);
+        }
+        return false;
+    }
+
+    /**
+     * Drops a hold that is no longer needed, e.g. because the delete it guarded failed. If
+     * the repository cannot be reached the claim lapses there on its own.
+     */
+    void unhold(Call call) {
+        try {
+            repository.releaseClaim(call.getId(), instanceId);
+        } catch (SQLException e) {
+            System.err.println("Error releasing hold on call " + call.getId() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Records the call's final status if the lease is still held. False if the lease ran
+     * out and the call was released, or another instance has claimed it since.
+     */
+    boolean complete(CallLease lease, CallStatus status) throws SQLException {
+        Call call = lease.call();
+        CallLease current = active.get(call.getId());
+        if (current == null || current.call() != call) {
+            return false;
+        }
+        if (repository.completeClaim(call.getId(), instanceId, status)) {
+            active.remove(call.getId());
+            pending.remove(call);
+            return true;
+        }
+        if (active.remove(call.getId(), current)) {
+            park(call);
+        }
+        return false;
+    }
+
+    /**
+     * Gives the call back to the shared queue. The claim is dropped locally even if the
+     * repository cannot be reached; it then lapses there on its own.
+     */
+    boolean release(CallLease lease) {
+        Call call = lease.call();
+        CallLease current = active.get(call.getId());
+        if (current == null || current.call() != call || !active.remove(call.getId(), current)) {
+            return false;
+        }
+        Deque<CallLease> desk = desks.get(current.operator());
+        if (desk != null) {
+            desk.remove(current);
+        }
+        try {
+            repository.releaseClaim(call.getId(), instanceId);
+        } catch (SQLException e) {
+            System.err.println("Error releasing claim on call " + call.getId() + ": " + e.getMessage());
+        }
+        pending.release(call);
+        return true;
+    }
+
+    /**
+     * Sets a call aside that another instance is working, until its lease could have run out.
+     * It stays in the CallStore, claimed.
+     */
+    void park(Call call) {
+        pending.claim(call);
+        parked.put(call.getId(), new Parked(call, LocalDateTime.now().plus(leaseDuration)));
+    }
+
+    /**
+     * Forgets a deleted call: drops its lease or set-aside entry without re-queueing it.
+     * A claim in the repository dies with the row.
+     */
+    void forget(Call call) {
+        CallLease lease = active.remove(call.getId());
+        if (lease != null) {
+            Deque<CallLease> desk = desks.get(lease.operator());
+            if (desk != null) {
+                desk.remove(lease);
+            }
+        }
+        parked.remove(call.getId());
+    }
+
+    /**
+     * Releases every lease that has run out and returns set-aside calls that are due for
+     * another try to the shared queue. Returns how many calls went back.
+     */
+    int expire() {
+        LocalDateTime now = LocalDateTime.now();
+        int returned = 0;
+        for (CallLease lease : new ArrayList<>(active.values())) {
+            if (lease.isExpired(now) && release(lease)) {
+                System.out.println("⚠️ Lease on " + lease.call().getContactName() + " (" + lease.operator()
+                        + ") expired; the call is back in the queue.");
+                returned++;
+            }
+        }
+        for (Iterator<Parked> it = parked.values().iterator(); it.hasNext(); ) {
+            Parked entry = it.next();
+            if (!entry.retryAt().isAfter(now)) {
+                it.remove();
+                if (entry.call().getStatus() == CallStatus.PENDING) {
+                    pending.release(entry.call());
+                    returned++;
+                } else {
+                    pending.remove(entry.call());
+                }
+            }
+        }
+        return returned;
+    }
+
+    /**
+     * Calls this instance holds, queued or being worked.
+     */
+    List<CallLease> activeLeases() {
+        return new ArrayList<>(active.values());
+    }
+
+    /**
+     * How many calls are queued for each operator, not counting the one they are working.
+     */
+    Map<String, Integer> queueSizes() {
+        Map<String, Integer> sizes = new HashMap<>();
+        desks.forEach((operator, desk) -> sizes.put(operator, desk.size()));
+        return sizes;
+    }
+}
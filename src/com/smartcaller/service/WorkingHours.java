@@ -0,0 +1,64 @@
+package com.smartcaller.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The daily window calls may be placed in, e.g. 09:00-17:00 Monday to Friday.
+ * A window cannot span midnight.
+ */
+public record WorkingHours(LocalTime open, LocalTime close, Set<DayOfWeek> days) {
+    public static final WorkingHours OFFICE = new WorkingHours(LocalTime.of(9, 0), LocalTime.of(17, 0),
+            EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY));
+
+    public WorkingHours {
+        if (!open.isBefore(close)) {
+            throw new IllegalArgumentException("Working hours must open before they close: " + open + "-" + close);
+        }
+        days = days.isEmpty() ? EnumSet.noneOf(DayOfWeek.class) : EnumSet.copyOf(days);
+    }
+
+    /**
+     * -Dsmartcaller.workingHours=09:00-17:00 and -Dsmartcaller.workingDays=MON,TUE,WED,THU,FRI
+     * (the defaults). Malformed values fall back to OFFICE.
+     */
+    public static WorkingHours fromSystemProperties() {
+        String hours = System.getProperty("smartcaller.workingHours", "09:00-17:00");
+        String days = System.getProperty("smartcaller.workingDays", "MON,TUE,WED,THU,FRI");
+        try {
+            String[] range = hours.trim().split("-");
+            Set<DayOfWeek> workingDays = EnumSet.noneOf(DayOfWeek.class);
+            for (String day : days.split(",")) {
+                workingDays.add(parseDay(day.trim()));
+            }
+            return new WorkingHours(LocalTime.parse(range[0].trim()), LocalTime.parse(range[1].trim()), workingDays);
+        } catch (DateTimeParseException | IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println("Invalid working hours '" + hours + "' / '" + days + "', using 09:00-17:00 Mon-Fri");
+            return OFFICE;
+        }
+    }
+
+    private static DayOfWeek parseDay(String day) {
+        String upper = day.toUpperCase(Locale.ROOT);
+        for (DayOfWeek value : DayOfWeek.values()) {
+            if (value.name().startsWith(upper) && upper.length() >= 3) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Unknown day " + day);
+    }
+
+    // Minute of the day. Seconds round the open up and the close down, so slots stay inside
+    public int openMinute() {
+        int minute = open.getHour() * 60 + open.getMinute();
+        return open.getSecond() != 0 || open.getNano() != 0 ? minute + 1 : minute;
+    }
+
+    public int closeMinute() {
+        return close.getHour() * 60 + close.getMinute();
+    }
+}
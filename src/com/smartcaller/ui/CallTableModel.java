@@ -1,15 +1,33 @@
 package com.smartcaller.ui;
 
 import com.smartcaller.model.*;
+import com.smartcaller.service.CallChangeListener;
+
+import javax.swing.*;
 import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-public class CallTableModel extends AbstractTableModel {
+/**
+ * Table of calls that is loaded once and then kept current from CallManager change
+ * events, firing only the affected row events. Total and pending counts are maintained
+ * incrementally. All mutations happen on the EDT.
+ *
+ * A reload runs in the background, so events that arrive between beginReload() and
+ * updateData() are held back and replayed on top of the loaded rows rather than lost.
+ */
+public class CallTableModel extends AbstractTableModel implements CallChangeListener {
     private List<Call> calls;
+    private List<CallStatus> rowStatus;
+    private final Map<Integer, Integer> rowById = new HashMap<>();
+    private int pendingCount;
+    private List<Runnable> deferred; // events held back while a reload is in flight
     private final String[] columnNames = {"ID", "Contact", "Phone", "Scheduled Time", "Type", "Priority", "Status", "Info"};
 
     public CallTableModel(List<Call> calls) {
-        this.calls = calls;
+        setRows(calls);
     }
 
     @Override
@@ -69,8 +87,137 @@ public class CallTableModel extends AbstractTableModel {
         }
     }
 
+    /**
+     * Starts holding back change events until the reload finishes with updateData() or
+     * is abandoned with cancelReload(). Call on the EDT before starting the load.
+     */
+    public void beginReload() {
+        if (deferred == null) {
+            deferred = new ArrayList<>();
+        }
+    }
+
     public void updateData(List<Call> newCalls) {
-        this.calls = newCalls;
+        setRows(newCalls);
         fireTableDataChanged();
+        replayDeferred();
+    }
+
+    /** Ends a failed reload, applying the held-back events to the rows already shown. */
+    public void cancelReload() {
+        replayDeferred();
+    }
+
+    private void replayDeferred() {
+        List<Runnable> events = deferred;
+        deferred = null;
+        if (events != null) {
+            events.forEach(Runnable::run);
+        }
+    }
+
+    private void setRows(List<Call> newCalls) {
+        this.calls = new ArrayList<>(newCalls);
+        this.rowStatus = new ArrayList<>(newCalls.size());
+        rowById.clear();
+        pendingCount = 0;
+        for (int row = 0; row < calls.size(); row++) {
+            Call call = calls.get(row);
+            rowById.put(call.getId(), row);
+            rowStatus.add(call.getStatus());
+            if (call.getStatus() == CallStatus.PENDING) {
+                pendingCount++;
+            }
+        }
+    }
+
+    public int getTotalCount() {
+        return calls.size();
+    }
+
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    @Override
+    public void callAdded(Call call) {
+        onEdt(() -> {
+            if (rowById.containsKey(call.getId())) {
+                replaceRow(rowById.get(call.getId()), call);
+                return;
+            }
+            int row = calls.size();
+            calls.add(call);
+            rowStatus.add(call.getStatus());
+            rowById.put(call.getId(), row);
+            if (call.getStatus() == CallStatus.PENDING) {
+                pendingCount++;
+            }
+            fireTableRowsInserted(row, row);
+        });
+    }
+
+    @Override
+    public void callUpdated(Call call) {
+        onEdt(() -> {
+            Integer row = rowById.get(call.getId());
+            if (row == null) {
+                callAdded(call);
+            } else {
+                replaceRow(row, call);
+            }
+        });
+    }
+
+    @Override
+    public void callRemoved(Call call) {
+        onEdt(() -> {
+            Integer row = rowById.remove(call.getId());
+            if (row == null) {
+                return;
+            }
+            if (rowStatus.get(row) == CallStatus.PENDING) {
+                pendingCount--;
+            }
+            // Fill the hole with the last row instead of shifting every row below it up
+            int last = calls.size() - 1;
+            Call moved = calls.remove(last);
+            CallStatus movedStatus = rowStatus.remove(last);
+            fireTableRowsDeleted(last, last);
+            if (row != last) {
+                calls.set(row, moved);
+                rowStatus.set(row, movedStatus);
+                rowById.put(moved.getId(), row);
+                fireTableRowsUpdated(row, row);
+            }
+        });
+    }
+
+    private void replaceRow(int row, Call call) {
+        CallStatus previous = rowStatus.set(row, call.getStatus());
+        if (previous == CallStatus.PENDING) {
+            pendingCount--;
+        }
+        if (call.getStatus() == CallStatus.PENDING) {
+            pendingCount++;
+        }
+        calls.set(row, call);
+        fireTableRowsUpdated(row, row);
+    }
+
+    private void onEdt(Runnable task) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            apply(task);
+        } else {
+            SwingUtilities.invokeLater(() -> apply(task));
+        }
+    }
+
+    private void apply(Runnable task) {
+        if (deferred != null) {
+            deferred.add(task);
+        } else {
+            task.run();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.smartcaller.ui;
+
+import com.smartcaller.model.Call;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+
+/**
+ * Non-modal list of calls that have come due. Calls that come due while it is open are
+ * appended to the same window, so the backlog after startup or a burst from one dispatcher
+ * sweep is one notice to dismiss rather than one dialog per call.
+ */
+public class DueCallsDialog extends JDialog {
+    private final DefaultListModel<String> rows = new DefaultListModel<>();
+    private final JLabel headingLabel = new JLabel();
+
+    public DueCallsDialog(JFrame parent) {
+        super(parent, "Call Alert", false);
+        layoutComponents();
+        setDefaultCloseOperation(JDialog.HIDE_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                rows.clear();
+            }
+        });
+        setSize(520, 300);
+        setLocationRelativeTo(parent);
+    }
+
+    private void layoutComponents() {
+        setLayout(new BorderLayout(10, 10));
+
+        headingLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        headingLabel.setBorder(BorderFactory.createEmptyBorder(10, 15, 0, 15));
+        add(headingLabel, BorderLayout.NORTH);
+
+        JList<String> list = new JList<>(rows);
+        list.setFont(new Font("Consolas", Font.PLAIN, 12));
+        JScrollPane scrollPane = new JScrollPane(list);
+        scrollPane.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createEmptyBorder(0, 15, 0, 15),
+                BorderFactory.createLineBorder(new Color(200, 200, 200))));
+        add(scrollPane, BorderLayout.CENTER);
+
+        JButton dismissButton = new JButton("Dismiss");
+        dismissButton.addActionListener(e -> {
+            rows.clear();
+            setVisible(false);
+        });
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttonPanel.add(dismissButton);
+        add(buttonPanel, BorderLayout.SOUTH);
+    }
+
+    /**
+     * Adds a call to the notice, showing it if it is not already open. Must be called on the EDT.
+     *
+     * @return true if this call opened the notice, false if it joined one already showing
+     */
+    public boolean addCall(Call call) {
+        rows.addElement(String.format("%-18s %-14s %-10s P%-2d %s",
+                call.getContactName(),
+                call.getPhoneNumber(),
+                call.getCallType().replace("_CALL", ""),
+                call.getPriority(),
+                call.getScheduledTime().toString().replace('T', ' ')));
+        headingLabel.setText(rows.size() == 1 ? "🔔 CALL DUE NOW" : "🔔 " + rows.size() + " CALLS DUE NOW");
+        if (isVisible()) {
+            return false;
+        }
+        setVisible(true);
+        return true;
+    }
+}
@@ -2,6 +2,7 @@ package com.smartcaller.ui;
 
 import com.smartcaller.model.Call;
 import com.smartcaller.service.EmailService;
+import com.smartcaller.util.InputValidator;
 import javax.swing.*;
 import java.awt.*;
 
@@ -106,20 +107,15 @@ public class EmailDialog extends JDialog {
             return;
         }
 
-        if (!isValidEmail(toEmail) || !isValidEmail(fromEmail)) {
+        if (!InputValidator.isValidEmail(toEmail) || !InputValidator.isValidEmail(fromEmail)) {
             JOptionPane.showMessageDialog(this, "Please enter valid email addresses!", "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
-        boolean emailSent = EmailService.sendEmailNotification(toEmail, fromEmail, password, call, (JFrame) getOwner());
-        if (emailSent) {
-            success = true;
-            dispose();
-        }
-    }
-
-    private boolean isValidEmail(String email) {
-        return email.matches("^[A-Za-z0-9+_.-]+@(.+)$");
+        // Sent in the background; the outcome is shown in its own dialog
+        EmailService.sendEmailNotification(toEmail, fromEmail, password, call, (JFrame) getOwner());
+        success = true;
+        dispose();
     }
 
     public boolean isSuccess() {
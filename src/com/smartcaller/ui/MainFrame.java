@@ -4,31 +4,85 @@ import com.smartcaller.model.Call;
 import com.smartcaller.model.VoiceCall;
 import com.smartcaller.model.VideoCall;
 import com.smartcaller.model.EmergencyCall;
+import com.smartcaller.service.CallDispatcher;
+import com.smartcaller.service.CallDueListener;
 import com.smartcaller.service.CallManager;
 import com.smartcaller.service.EmailService;
+import com.smartcaller.service.LeaseReaper;
+import com.smartcaller.service.NextCallExplanation;
+import com.smartcaller.service.ReminderScheduler;
+import com.smartcaller.service.SeriesExpander;
 import com.smartcaller.ui.styles.Colors;
+import com.smartcaller.util.IoExecutors;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class MainFrame extends JFrame {
     private final CallManager callManager;
+    private final CallDispatcher callDispatcher;
+    private final ReminderScheduler reminderScheduler;
+    private final SeriesExpander seriesExpander;
+    private final LeaseReaper leaseReaper;
     private JTable callsTable;
     private CallTableModel tableModel;
     private JLabel statusLabel;
+    private DueCallsDialog dueCallsDialog;
 
     public MainFrame() {
         this.callManager = new CallManager();
+        this.callDispatcher = new CallDispatcher(callManager, SwingUtilities::invokeLater, Duration.ofMinutes(15));
+        this.reminderScheduler = ReminderScheduler.fromSystemProperties(callManager);
+        this.seriesExpander = new SeriesExpander(callManager);
+        this.leaseReaper = new LeaseReaper(callManager);
         initializeFrame();
         createComponents();
         refreshData();
+        startDispatcher();
+        if (reminderScheduler != null) {
+            reminderScheduler.start();
+        }
+        seriesExpander.start();
+        leaseReaper.start();
+    }
+
+    private void startDispatcher() {
+        dueCallsDialog = new DueCallsDialog(this);
+        callDispatcher.addListener(new CallDueListener() {
+            @Override
+            public void onCallDue(Call call) {
+                statusLabel.setText("🔔 Call due now: " + call.getContactName());
+                // One beep per notice, not per call in a backlog
+                if (dueCallsDialog.addCall(call)) {
+                    Toolkit.getDefaultToolkit().beep();
+                }
+            }
+
+            @Override
+            public void onCallMissed(Call call) {
+                statusLabel.setText("❌ Call missed: " + call.getContactName());
+            }
+        });
+        callDispatcher.start();
     }
 
     private void initializeFrame() {
         setTitle("Smart Caller & Scheduler");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        // Runs before EXIT_ON_CLOSE exits
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                callManager.saveSnapshot();
+            }
+        });
         setSize(1000, 700);
         setLocationRelativeTo(null);
         setIconImage(createAppIcon());
@@ -90,7 +144,10 @@ public class MainFrame extends JFrame {
         tablePanel.setBackground(Color.WHITE);
         tablePanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
 
-        tableModel = new CallTableModel(callManager.getAllCallsFromDatabase());
+        // Rows are loaded in the background by refreshData() and then kept current from change events
+        tableModel = new CallTableModel(new ArrayList<>());
+        tableModel.addTableModelListener(e -> updateStatusCounts());
+        callManager.addChangeListener(tableModel);
         callsTable = new JTable(tableModel);
 
         // Style the table
@@ -198,13 +255,13 @@ public class MainFrame extends JFrame {
         ScheduleCallDialog dialog = new ScheduleCallDialog(this, callManager);
         dialog.setVisible(true);
         if (dialog.isSuccess()) {
-            refreshData();
             statusLabel.setText("✅ New call scheduled successfully!");
         }
     }
 
     private void viewNextCall() {
-        Call nextCall = callManager.getNextCall();
+        NextCallExplanation explanation = callManager.explainNextCall();
+        Call nextCall = explanation != null ? explanation.call() : null;
         if (nextCall != null) {
             String message = "➡️ NEXT SCHEDULED CALL\n\n" +
                     "Contact: " + nextCall.getContactName() + "\n" +
@@ -212,7 +269,8 @@ public class MainFrame extends JFrame {
                     "Time: " + nextCall.getScheduledTime() + "\n" +
                     "Type: " + nextCall.getCallType() + "\n" +
                     "Priority: " + nextCall.getPriority() + "\n" +
-                    "Status: " + nextCall.getStatus();
+                    "Status: " + nextCall.getStatus() + "\n\n" +
+                    "❓ WHY THIS CALL IS NEXT\n" + explanation.describe();
             JOptionPane.showMessageDialog(this, message, "Next Call", JOptionPane.INFORMATION_MESSAGE);
         } else {
             JOptionPane.showMessageDialog(this, "No pending calls scheduled!", "Info", JOptionPane.INFORMATION_MESSAGE);
@@ -233,10 +291,15 @@ public class MainFrame extends JFrame {
                     JOptionPane.QUESTION_MESSAGE);
 
             if (choice == JOptionPane.YES_OPTION) {
-                callManager.processNextCall();
-                refreshData();
-                statusLabel.setText("✅ Call processed: " + nextCall.getContactName());
-                JOptionPane.showMessageDialog(this, "Call marked as COMPLETED!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                statusLabel.setText("Processing call...");
+                callManager.processNextCallAsync().whenCompleteAsync((processed, error) -> {
+                    if (error != null || processed == null) {
+                        statusLabel.setText("❌ Failed to process call");
+                        return;
+                    }
+                    statusLabel.setText("✅ Call processed: " + processed.getContactName());
+                    JOptionPane.showMessageDialog(this, "Call marked as COMPLETED!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                }, SwingUtilities::invokeLater);
             }
         } else {
             JOptionPane.showMessageDialog(this, "No pending calls to process!", "Info", JOptionPane.INFORMATION_MESSAGE);
@@ -266,68 +329,88 @@ public class MainFrame extends JFrame {
                 JOptionPane.QUESTION_MESSAGE);
 
         if (phoneNumber != null && !phoneNumber.trim().isEmpty()) {
-            List<Call> history = callManager.getCallHistory(phoneNumber.trim());
-            if (history.isEmpty()) {
-                JOptionPane.showMessageDialog(this, "No call history found for: " + phoneNumber, "Call History", JOptionPane.INFORMATION_MESSAGE);
-            } else {
-                StringBuilder message = new StringBuilder("📊 CALL HISTORY: " + phoneNumber + "\n\n");
-                for (int i = 0; i < history.size(); i++) {
-                    Call call = history.get(i);
-                    message.append(String.format("%d. %s - %s (%s) - %s\n",
-                            i + 1, call.getContactName(), call.getScheduledTime(),
-                            call.getCallType().replace("_CALL", ""), call.getStatus()));
+            // A cache miss loads from the database, so fetch off the EDT
+            callManager.getCallHistoryAsync(phoneNumber.trim()).whenCompleteAsync((history, error) -> {
+                if (error != null) {
+                    statusLabel.setText("❌ Failed to load call history");
+                } else if (history.isEmpty()) {
+                    JOptionPane.showMessageDialog(this, "No call history found for: " + phoneNumber, "Call History", JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    StringBuilder message = new StringBuilder("📊 CALL HISTORY: " + phoneNumber + "\n\n");
+                    for (int i = 0; i < history.size(); i++) {
+                        Call call = history.get(i);
+                        message.append(String.format("%d. %s - %s (%s) - %s\n",
+                                i + 1, call.getContactName(), call.getScheduledTime(),
+                                call.getCallType().replace("_CALL", ""), call.getStatus()));
+                    }
+                    JOptionPane.showMessageDialog(this, message.toString(), "Call History", JOptionPane.INFORMATION_MESSAGE);
                 }
-                JOptionPane.showMessageDialog(this, message.toString(), "Call History", JOptionPane.INFORMATION_MESSAGE);
-            }
+            }, SwingUtilities::invokeLater);
         }
     }
 
     private void displayAllCallsFromDatabase() {
-        List<Call> allCalls = callManager.getAllCallsFromDatabase();
-        if (allCalls.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "No calls found in database!", "All Calls", JOptionPane.INFORMATION_MESSAGE);
-        } else {
+        statusLabel.setText("Fetching all calls...");
+        int[] count = {0};
+        IoExecutors.supplyAsync(() -> {
+            // Format rows straight from the database cursor; no intermediate List<Call>
             StringBuilder message = new StringBuilder("🗃️ ALL CALLS IN DATABASE\n\n");
             message.append(String.format("%-3s %-15s %-12s %-18s %-12s %-8s %-10s\n",
                     "ID", "Contact", "Phone", "Scheduled Time", "Type", "Priority", "Status"));
             message.append("─".repeat(90)).append("\n");
 
-            for (Call call : allCalls) {
-                message.append(String.format("%-3d %-15s %-12s %-18s %-12s %-8d %-10s\n",
-                        call.getId(),
-                        call.getContactName().length() > 15 ? call.getContactName().substring(0, 12) + "..." : call.getContactName(),
-                        call.getPhoneNumber(),
-                        call.getScheduledTime().toString().substring(0, 16),
-                        call.getCallType().replace("_CALL", ""),
-                        call.getPriority(),
-                        call.getStatus()));
+            try (Stream<Call> allCalls = callManager.streamAllCallsFromDatabase()) {
+                allCalls.forEach(call -> {
+                    count[0]++;
+                    message.append(String.format("%-3d %-15s %-12s %-18s %-12s %-8d %-10s\n",
+                            call.getId(),
+                            call.getContactName().length() > 15 ? call.getContactName().substring(0, 12) + "..." : call.getContactName(),
+                            call.getPhoneNumber(),
+                            call.getScheduledTime().toString().substring(0, 16),
+                            call.getCallType().replace("_CALL", ""),
+                            call.getPriority(),
+                            call.getStatus()));
+                });
+            }
+            return message.toString();
+        }, callManager.getIoExecutor()).whenCompleteAsync((message, error) -> {
+            if (error != null) {
+                statusLabel.setText("❌ Failed to load calls");
+                return;
+            }
+            updateStatusCounts();
+            if (count[0] == 0) {
+                JOptionPane.showMessageDialog(MainFrame.this, "No calls found in database!", "All Calls", JOptionPane.INFORMATION_MESSAGE);
+                return;
             }
 
-            JTextArea textArea = new JTextArea(message.toString());
+            JTextArea textArea = new JTextArea(message);
             textArea.setFont(new Font("Consolas", Font.PLAIN, 12));
             textArea.setEditable(false);
 
             JScrollPane scrollPane = new JScrollPane(textArea);
             scrollPane.setPreferredSize(new Dimension(700, 400));
 
-            JOptionPane.showMessageDialog(this, scrollPane, "All Calls in Database", JOptionPane.INFORMATION_MESSAGE);
-        }
+            JOptionPane.showMessageDialog(MainFrame.this, scrollPane, "All Calls in Database", JOptionPane.INFORMATION_MESSAGE);
+        }, SwingUtilities::invokeLater);
     }
 
     private void undoLastAction() {
-        if (callManager.undoLastAction()) {
-            refreshData();
-            statusLabel.setText("✅ Last action undone");
-            JOptionPane.showMessageDialog(this, "Last action undone successfully!", "Undo", JOptionPane.INFORMATION_MESSAGE);
-        }
+        callManager.undoLastActionAsync().whenCompleteAsync((undone, error) -> {
+            if (error == null && undone) {
+                statusLabel.setText("✅ Last action undone");
+                JOptionPane.showMessageDialog(this, "Last action undone successfully!", "Undo", JOptionPane.INFORMATION_MESSAGE);
+            }
+        }, SwingUtilities::invokeLater);
     }
 
     private void redoLastAction() {
-        if (callManager.redoLastAction()) {
-            refreshData();
-            statusLabel.setText("✅ Last action redone");
-            JOptionPane.showMessageDialog(this, "Last action redone successfully!", "Redo", JOptionPane.INFORMATION_MESSAGE);
-        }
+        callManager.redoLastActionAsync().whenCompleteAsync((redone, error) -> {
+            if (error == null && redone) {
+                statusLabel.setText("✅ Last action redone");
+                JOptionPane.showMessageDialog(this, "Last action redone successfully!", "Redo", JOptionPane.INFORMATION_MESSAGE);
+            }
+        }, SwingUtilities::invokeLater);
     }
 
     private void sendEmail() {
@@ -349,19 +432,27 @@ public class MainFrame extends JFrame {
                 JOptionPane.QUESTION_MESSAGE);
 
         if (choice == JOptionPane.YES_OPTION) {
+            callManager.saveSnapshot();
             System.exit(0);
         }
     }
 
+    // Full reload from the database, run off the EDT. Day-to-day changes arrive as row events instead.
     private void refreshData() {
-        List<Call> allCalls = callManager.getAllCallsFromDatabase();
-        tableModel.updateData(allCalls);
-
-        long pendingCount = allCalls.stream()
-                .filter(call -> call.getStatus() == com.smartcaller.model.CallStatus.PENDING)
-                .count();
+        statusLabel.setText("Loading calls...");
+        tableModel.beginReload();
+        callManager.getAllCallsFromDatabaseAsync().whenCompleteAsync((calls, error) -> {
+            if (error != null) {
+                tableModel.cancelReload();
+                statusLabel.setText("❌ Failed to load calls");
+            } else {
+                tableModel.updateData(calls);
+            }
+        }, SwingUtilities::invokeLater);
+    }
 
-        statusLabel.setText("Total: " + allCalls.size() + " calls | Pending: " + pendingCount);
+    private void updateStatusCounts() {
+        statusLabel.setText("Total: " + tableModel.getTotalCount() + " calls | Pending: " + tableModel.getPendingCount());
     }
 
     public static void main() {
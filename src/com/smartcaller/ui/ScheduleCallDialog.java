@@ -2,13 +2,18 @@ package com.smartcaller.ui;
 
 import com.smartcaller.model.*;
 import com.smartcaller.service.CallManager;
-import com.smartcaller.exception.InvalidScheduleException;
+import com.smartcaller.service.ScheduleConflict;
 import com.smartcaller.ui.styles.Colors;
+import com.smartcaller.util.InputValidator;
+import com.smartcaller.util.IoExecutors;
 
 import javax.swing.*;
 import java.awt.*;
+import java.time.DayOfWeek;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class ScheduleCallDialog extends JDialog {
     private final CallManager callManager;
@@ -18,8 +23,11 @@ public class ScheduleCallDialog extends JDialog {
     private JTextField timeField;
     private JComboBox<String> callTypeComboBox;
     private JSpinner prioritySpinner;
+    private JSpinner durationSpinner;
+    private JComboBox<String> repeatComboBox;
     private JTextField additionalField;
     private JLabel additionalLabel;
+    private JButton scheduleButton;
     private boolean success = false;
 
     public ScheduleCallDialog(Frame parent, CallManager callManager) {
@@ -49,6 +57,14 @@ public class ScheduleCallDialog extends JDialog {
         SpinnerNumberModel priorityModel = new SpinnerNumberModel(1, 1, 10, 1);
         prioritySpinner = new JSpinner(priorityModel);
 
+        SpinnerNumberModel durationModel = new SpinnerNumberModel(Call.DEFAULT_DURATION_MINUTES,
+                5, InputValidator.MAX_DURATION_MINUTES, 5);
+        durationSpinner = new JSpinner(durationModel);
+
+        // Repeating calls are stored once as a series; see CallManager.scheduleSeries
+        String[] repeats = {"Does not repeat", "Daily", "Every weekday", "Weekly", "Monthly"};
+        repeatComboBox = new JComboBox<>(repeats);
+
         additionalField = new JTextField(20);
         additionalLabel = new JLabel("Additional Info:");
 
@@ -123,26 +139,38 @@ public class ScheduleCallDialog extends JDialog {
         gbc.gridx = 1;
         mainPanel.add(timeField, gbc);
 
-        // Call Type
+        // Duration
         gbc.gridx = 0; gbc.gridy = 4;
+        mainPanel.add(createLabel("⏱ Duration (minutes):"), gbc);
+        gbc.gridx = 1;
+        mainPanel.add(durationSpinner, gbc);
+
+        // Repeat
+        gbc.gridx = 0; gbc.gridy = 5;
+        mainPanel.add(createLabel("🔁 Repeat:"), gbc);
+        gbc.gridx = 1;
+        mainPanel.add(repeatComboBox, gbc);
+
+        // Call Type
+        gbc.gridx = 0; gbc.gridy = 6;
         mainPanel.add(createLabel("🎯 Call Type:"), gbc);
         gbc.gridx = 1;
         mainPanel.add(callTypeComboBox, gbc);
 
         // Priority
-        gbc.gridx = 0; gbc.gridy = 5;
+        gbc.gridx = 0; gbc.gridy = 7;
         mainPanel.add(createLabel("🚨 Priority (1-10):"), gbc);
         gbc.gridx = 1;
         mainPanel.add(prioritySpinner, gbc);
 
         // Additional Field
-        gbc.gridx = 0; gbc.gridy = 6;
+        gbc.gridx = 0; gbc.gridy = 8;
         mainPanel.add(additionalLabel, gbc);
         gbc.gridx = 1;
         mainPanel.add(additionalField, gbc);
 
         // Info Panel
-        gbc.gridx = 0; gbc.gridy = 7;
+        gbc.gridx = 0; gbc.gridy = 9;
         gbc.gridwidth = 2;
         gbc.insets = new Insets(15, 8, 8, 8);
         mainPanel.add(createInfoPanel(), gbc);
@@ -152,7 +180,7 @@ public class ScheduleCallDialog extends JDialog {
         buttonPanel.setBackground(Colors.CARD_BG);
         buttonPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-        JButton scheduleButton = createStyledButton("🚀 Schedule Call", Colors.SUCCESS);
+        scheduleButton = createStyledButton("🚀 Schedule Call", Colors.SUCCESS);
         scheduleButton.addActionListener(e -> scheduleCall());
 
         JButton cancelButton = createStyledButton("❌ Cancel", Colors.DANGER);
@@ -220,8 +248,10 @@ public class ScheduleCallDialog extends JDialog {
             String date = dateField.getText().trim();
             String time = timeField.getText().trim();
             int priority = (Integer) prioritySpinner.getValue();
+            int duration = (Integer) durationSpinner.getValue();
             String callType = (String) callTypeComboBox.getSelectedItem();
             String additionalInfo = additionalField.getText().trim();
+            String repeat = (String) repeatComboBox.getSelectedItem();
 
             // Validation
             if (contactName.isEmpty() || phoneNumber.isEmpty() || date.isEmpty() || time.isEmpty()) {
@@ -229,7 +259,7 @@ public class ScheduleCallDialog extends JDialog {
                 return;
             }
 
-            if (!phoneNumber.matches("^[+]?[0-9]{10,15}$")) {
+            if (!InputValidator.isValidPhoneNumber(phoneNumber)) {
                 JOptionPane.showMessageDialog(this, "Please enter a valid phone number (10-15 digits)!", "Validation Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
@@ -256,24 +286,65 @@ public class ScheduleCallDialog extends JDialog {
 
             // Set priority
             call.setPriority(priority);
+            call.setDurationMinutes(duration);
+
+            // Overlaps are checked against the in-memory pending calls, so this is cheap on the EDT
+            List<ScheduleConflict> conflicts = callManager.getConflictPolicy() == CallManager.ConflictPolicy.OFF
+                    ? List.of() : callManager.findConflicts(call);
+            if (!conflicts.isEmpty()) {
+                StringBuilder message = new StringBuilder("⚠️ This call overlaps other scheduled calls:\n\n");
+                for (ScheduleConflict conflict : conflicts) {
+                    message.append("• ").append(conflict.describe()).append("\n");
+                }
+                if (callManager.getConflictPolicy() == CallManager.ConflictPolicy.REJECT) {
+                    JOptionPane.showMessageDialog(this, message.append("\nPlease pick another time."),
+                            "Schedule Conflict", JOptionPane.WARNING_MESSAGE);
+                    return;
+                }
+                int choice = JOptionPane.showConfirmDialog(this, message.append("\nSchedule it anyway?"),
+                        "Schedule Conflict", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+                if (choice != JOptionPane.YES_OPTION) {
+                    return;
+                }
+            }
 
-            callManager.scheduleCall(call);
-            success = true;
+            RecurrenceRule rule = switch (repeat) {
+                case "Daily" -> RecurrenceRule.daily();
+                case "Every weekday" -> RecurrenceRule.weekly(DayOfWeek.MONDAY, DayOfWeek.TUESDAY,
+                        DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY);
+                case "Weekly" -> RecurrenceRule.weekly();
+                case "Monthly" -> RecurrenceRule.monthly();
+                default -> null;
+            };
+
+            // The insert runs on the I/O executor; the dialog stays responsive until it finishes
+            scheduleButton.setEnabled(false);
+            CompletableFuture<?> scheduling = rule == null
+                    ? callManager.scheduleCallAsync(call) : callManager.scheduleSeriesAsync(call, rule);
+            scheduling.whenCompleteAsync((scheduled, error) -> {
+                scheduleButton.setEnabled(true);
+                if (error != null) {
+                    JOptionPane.showMessageDialog(this, "Scheduling Error: " + IoExecutors.unwrap(error).getMessage(),
+                            "Scheduling Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                success = true;
+
+                JOptionPane.showMessageDialog(this,
+                        "✅ Call Scheduled Successfully!\n\n" +
+                                "Contact: " + contactName + "\n" +
+                                "Type: " + callType + "\n" +
+                                "Priority: " + priority + "\n" +
+                                "Time: " + scheduledTime.format(DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm"))
+                                + " (" + duration + " min)\n" +
+                                "Repeats: " + repeat + "\n\n" +
+                                "The call has been added to the automation queue.",
+                        "Scheduling Successful",
+                        JOptionPane.INFORMATION_MESSAGE);
+
+                dispose();
+            }, SwingUtilities::invokeLater);
 
-            JOptionPane.showMessageDialog(this,
-                    "✅ Call Scheduled Successfully!\n\n" +
-                            "Contact: " + contactName + "\n" +
-                            "Type: " + callType + "\n" +
-                            "Priority: " + priority + "\n" +
-                            "Time: " + scheduledTime.format(DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm")) + "\n\n" +
-                            "The call has been added to the automation queue.",
-                    "Scheduling Successful",
-                    JOptionPane.INFORMATION_MESSAGE);
-
-            dispose();
-
-        } catch (InvalidScheduleException e) {
-            JOptionPane.showMessageDialog(this, "Scheduling Error: " + e.getMessage(), "Scheduling Error", JOptionPane.ERROR_MESSAGE);
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this,
                     "Invalid date/time format! Please use:\n" +
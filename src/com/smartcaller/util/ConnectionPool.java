@@ -0,0 +1,324 @@
+package com.smartcaller.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded JDBC connection pool. Borrowed connections are proxies whose close()
+ * hands the physical connection back to the pool instead of closing it, so DAO
+ * code can keep using try-with-resources.
+ */
+public class ConnectionPool {
+    // Capturing where each connection was borrowed costs a stack walk per borrow, so only on request
+    private static final boolean LEAK_TRACE = Boolean.getBoolean("smartcaller.db.pool.leakTrace");
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleValidationMillis;
+    private final long leakThresholdMillis;
+
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Map<PooledConnection, Lease> leased = new ConcurrentHashMap<>();
+    private final Semaphore permits;
+    private final AtomicInteger openCount = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed = false;
+
+    // Statistics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong discardedCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+
+    public ConnectionPool(String url, String username, String password,
+                          int minSize, int maxSize, long borrowTimeoutMillis,
+                          long idleValidationMillis, long leakThresholdMillis) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleValidationMillis = idleValidationMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, Math.min(idleValidationMillis, leakThresholdMillis) / 2);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens connections until the pool holds at least minSize idle connections.
+     */
+    public void warmUp() throws SQLException {
+        while (!closed && openCount.get() < minSize) {
+            idle.offerLast(new PooledConnection(openPhysical()));
+        }
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new SQLException("Timed out after " + borrowTimeoutMillis
+                        + " ms waiting for a database connection (max pool size " + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        totalWaitNanos.addAndGet(System.nanoTime() - start);
+
+        try {
+            PooledConnection pooled = takeIdleOrOpen();
+            borrowCount.incrementAndGet();
+            leased.put(pooled, new Lease(System.currentTimeMillis(),
+                    LEAK_TRACE ? new Throwable("Connection borrowed here") : null));
+            return pooled.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection takeIdleOrOpen() throws SQLException {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isUsable(pooled)) {
+                return pooled;
+            }
+            discard(pooled);
+        }
+        return new PooledConnection(openPhysical());
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        try {
+            if (pooled.physical.isClosed()) {
+                return false;
+            }
+            // Only round-trip to the server for connections that sat idle long enough to have gone stale
+            if (System.currentTimeMillis() - pooled.lastUsed < idleValidationMillis) {
+                return true;
+            }
+            return pooled.physical.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection openPhysical() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, username, password);
+        openCount.incrementAndGet();
+        createdCount.incrementAndGet();
+        return physical;
+    }
+
+    private void release(PooledConnection pooled) {
+        if (leased.remove(pooled) == null) {
+            return;
+        }
+        try {
+            if (closed || pooled.physical.isClosed()) {
+                discard(pooled);
+                return;
+            }
+            // Never hand the next borrower a half-finished transaction
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            pooled.physical.clearWarnings();
+            pooled.lastUsed = System.currentTimeMillis();
+            idle.offerFirst(pooled);
+        } catch (SQLException e) {
+            discard(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        openCount.decrementAndGet();
+        discardedCount.incrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        // Leak detection: report connections held longer than the threshold
+        for (Lease lease : leased.values()) {
+            if (!lease.reported && now - lease.borrowedAt > leakThresholdMillis) {
+                lease.reported = true;
+                leakCount.incrementAndGet();
+                System.err.println("⚠️ Possible connection leak: connection held for "
+                        + (now - lease.borrowedAt) + " ms"
+                        + (lease.origin == null ? " (run with -Dsmartcaller.db.pool.leakTrace=true to see where)" : ""));
+                if (lease.origin != null) {
+                    lease.origin.printStackTrace();
+                }
+            }
+        }
+
+        // Idle validation: drop stale connections, then top back up to the minimum. Taking
+        // from the head and returning to the tail visits each idle connection once, and a
+        // full rotation leaves the most recently used ones at the head for borrowers
+        int idleNow = idle.size();
+        for (int i = 0; i < idleNow; i++) {
+            PooledConnection pooled = idle.pollFirst();
+            if (pooled == null) {
+                break;
+            }
+            if (isUsable(pooled)) {
+                idle.offerLast(pooled);
+            } else {
+                discard(pooled);
+            }
+        }
+        try {
+            warmUp();
+        } catch (SQLException e) {
+            System.err.println("Error refilling connection pool: " + e.getMessage());
+        }
+    }
+
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    public PoolStats getStats() {
+        long borrows = borrowCount.get();
+        return new PoolStats(
+                openCount.get(),
+                idle.size(),
+                leased.size(),
+                maxSize,
+                permits.getQueueLength(),
+                borrows,
+                createdCount.get(),
+                discardedCount.get(),
+                timeoutCount.get(),
+                leakCount.get(),
+                borrows == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalWaitNanos.get()) / borrows
+        );
+    }
+
+    public record PoolStats(int open, int idle, int active, int maxSize, int waiting,
+                            long borrowed, long created, long discarded, long timeouts,
+                            long leaksDetected, long avgWaitMicros) {
+        @Override
+        public String toString() {
+            return String.format("Pool{open=%d, idle=%d, active=%d/%d, waiting=%d, borrowed=%d, created=%d, discarded=%d, timeouts=%d, leaks=%d, avgWait=%dµs}",
+                    open, idle, active, maxSize, waiting, borrowed, created, discarded, timeouts, leaksDetected, avgWaitMicros);
+        }
+    }
+
+    private static class Lease {
+        final long borrowedAt;
+        final Throwable origin; // null unless leak tracing is on
+        volatile boolean reported;
+
+        Lease(long borrowedAt, Throwable origin) {
+            this.borrowedAt = borrowedAt;
+            this.origin = origin;
+        }
+    }
+
+    private class PooledConnection {
+        final Connection physical;
+        volatile long lastUsed = System.currentTimeMillis();
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Handle(this));
+        }
+    }
+
+    // Per-borrow view of a pooled connection; close() returns it once and then fences further use
+    private class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned = false;
+
+        Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    if (returned) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    try {
+                        return method.invoke(pooled.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
@@ -1,35 +1,71 @@
 package com.smartcaller.util;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DatabaseConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/smart_caller_db";
+    // rewriteBatchedStatements lets Connector/J send JDBC batches as multi-row INSERTs;
+    // useCursorFetch makes setFetchSize stream large result sets instead of buffering them
+    private static final String URL = "jdbc:mysql://localhost:3306/smart_caller_db"
+            + "?rewriteBatchedStatements=true&useCursorFetch=true";
     private static final String USERNAME = "root";
     private static final String PASSWORD = ""; // Default XAMPP password is empty
 
-    private static Connection connection;
+    // Pool sizing, overridable with -Dsmartcaller.db.pool.min=... etc.
+    private static final int POOL_MIN_SIZE = Integer.getInteger("smartcaller.db.pool.min", 2);
+    private static final int POOL_MAX_SIZE = Integer.getInteger("smartcaller.db.pool.max", 10);
+    private static final long BORROW_TIMEOUT_MS = Long.getLong("smartcaller.db.pool.borrowTimeoutMs", 5_000);
+    private static final long IDLE_VALIDATION_MS = Long.getLong("smartcaller.db.pool.idleValidationMs", 30_000);
+    private static final long LEAK_THRESHOLD_MS = Long.getLong("smartcaller.db.pool.leakThresholdMs", 60_000);
 
+    private static volatile ConnectionPool pool;
+
+    /**
+     * Borrows a connection from the shared pool. Closing it returns it to the pool.
+     */
     public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            try {
-                Class.forName("com.mysql.cj.jdbc.Driver");
-                connection = DriverManager.getConnection(URL, USERNAME, PASSWORD);
-            } catch (ClassNotFoundException e) {
-                throw new SQLException("MySQL JDBC Driver not found", e);
+        return getPool().getConnection();
+    }
+
+    private static ConnectionPool getPool() throws SQLException {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DatabaseConnection.class) {
+                current = pool;
+                if (current == null) {
+                    try {
+                        Class.forName("com.mysql.cj.jdbc.Driver");
+                    } catch (ClassNotFoundException e) {
+                        throw new SQLException("MySQL JDBC Driver not found", e);
+                    }
+                    current = new ConnectionPool(URL, USERNAME, PASSWORD,
+                            POOL_MIN_SIZE, POOL_MAX_SIZE, BORROW_TIMEOUT_MS,
+                            IDLE_VALIDATION_MS, LEAK_THRESHOLD_MS);
+                    pool = current;
+                    Runtime.getRuntime().addShutdownHook(new Thread(DatabaseConnection::closeConnection, "db-pool-shutdown"));
+                    try {
+                        current.warmUp();
+                    } catch (SQLException e) {
+                        // Not fatal: connections are also opened on demand when borrowed
+                        System.err.println("Error warming up connection pool: " + e.getMessage());
+                    }
+                }
             }
         }
-        return connection;
+        return current;
+    }
+
+    public static ConnectionPool.PoolStats getPoolStats() {
+        ConnectionPool current = pool;
+        return current != null ? current.getStats() : null;
     }
 
     public static void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-            } catch (SQLException e) {
-                System.err.println("Error closing connection: " + e.getMessage());
+        synchronized (DatabaseConnection.class) {
+            if (pool != null) {
+                pool.close();
+                pool = null;
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,110 @@
+package com.smartcaller.util;
+
+import com.smartcaller.exception.InvalidScheduleException;
+import com.smartcaller.model.Call;
+
+import java.time.LocalDateTime;
+
+/**
+ * The one set of input rules shared by the repositories, CallManager's batch import and the
+ * dialogs. Each check is a hand-rolled scan equivalent to the regex it replaces, so nothing
+ * is compiled or allocated per call (String.matches builds a new Pattern every time).
+ */
+public final class InputValidator {
+    public static final int MIN_PRIORITY = 1;
+    public static final int MAX_PRIORITY = 10;
+    public static final int MIN_DURATION_MINUTES = 1;
+    public static final int MAX_DURATION_MINUTES = 24 * 60;
+
+    private static final int MIN_PHONE_DIGITS = 10;
+    private static final int MAX_PHONE_DIGITS = 15;
+
+    private InputValidator() {
+    }
+
+    /**
+     * Same rule as ^[+]?[0-9]{10,15}$: an optional "+" then 10-15 digits, nothing else.
+     */
+    public static boolean isValidPhoneNumber(String phoneNumber) {
+        if (phoneNumber == null) {
+            return false;
+        }
+        int start = !phoneNumber.isEmpty() && phoneNumber.charAt(0) == '+' ? 1 : 0;
+        int digits = phoneNumber.length() - start;
+        if (digits < MIN_PHONE_DIGITS || digits > MAX_PHONE_DIGITS) {
+            return false;
+        }
+        for (int i = start; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same rule as ^[A-Za-z0-9+_.-]+@(.+)$: a non-empty local part of those characters,
+     * then "@", then at least one more character on the same line.
+     */
+    public static boolean isValidEmail(String email) {
+        if (email == null) {
+            return false;
+        }
+        int length = email.length();
+        int at = 0;
+        while (at < length && isLocalPartChar(email.charAt(at))) {
+            at++;
+        }
+        if (at == 0 || at + 1 >= length || email.charAt(at) != '@') {
+            return false;
+        }
+        for (int i = at + 1; i < length; i++) {
+            if (isLineTerminator(email.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isValidPriority(int priority) {
+        return priority >= MIN_PRIORITY && priority <= MAX_PRIORITY;
+    }
+
+    public static boolean isValidDuration(int minutes) {
+        return minutes >= MIN_DURATION_MINUTES && minutes <= MAX_DURATION_MINUTES;
+    }
+
+    public static boolean isValidScheduleTime(LocalDateTime scheduledTime, LocalDateTime now) {
+        return scheduledTime != null && !scheduledTime.isBefore(now);
+    }
+
+    /**
+     * Checks a call before it is stored. Batch callers pass one "now" for the whole batch.
+     */
+    public static void validate(Call call, LocalDateTime now) throws InvalidScheduleException {
+        if (!isValidScheduleTime(call.getScheduledTime(), now)) {
+            throw new InvalidScheduleException("Cannot schedule call in the past");
+        }
+        if (!isValidPhoneNumber(call.getPhoneNumber())) {
+            throw new InvalidScheduleException("Invalid phone number format");
+        }
+        if (!isValidPriority(call.getPriority())) {
+            throw new InvalidScheduleException("Priority must be between " + MIN_PRIORITY + " and " + MAX_PRIORITY);
+        }
+        if (!isValidDuration(call.getDurationMinutes())) {
+            throw new InvalidScheduleException("Duration must be between " + MIN_DURATION_MINUTES
+                    + " and " + MAX_DURATION_MINUTES + " minutes");
+        }
+    }
+
+    private static boolean isLocalPartChar(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                || c == '+' || c == '_' || c == '.' || c == '-';
+    }
+
+    // What "." refuses to match without DOTALL
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
@@ -0,0 +1,85 @@
+package com.smartcaller.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared executor for blocking JDBC and SMTP work, so none of it has to run on the EDT.
+ *
+ * -Dsmartcaller.io.executor selects the mode:
+ *   virtual  (default) one virtual thread per task; thousands of tasks can block on the
+ *            database or mail server at once without sizing a pool. Actual database
+ *            concurrency is still bounded by smartcaller.db.pool.max.
+ *   platform a fixed pool of smartcaller.io.threads daemon threads (default 32)
+ */
+public final class IoExecutors {
+    private static volatile ExecutorService io;
+
+    private IoExecutors() {
+    }
+
+    public static ExecutorService io() {
+        ExecutorService current = io;
+        if (current == null) {
+            synchronized (IoExecutors.class) {
+                current = io;
+                if (current == null) {
+                    current = create(System.getProperty("smartcaller.io.executor", "virtual"));
+                    io = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static ExecutorService create(String mode) {
+        if ("platform".equalsIgnoreCase(mode)) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newFixedThreadPool(Integer.getInteger("smartcaller.io.threads", 32), r -> {
+                Thread t = new Thread(r, "io-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        if (!"virtual".equalsIgnoreCase(mode)) {
+            System.err.println("Unknown smartcaller.io.executor '" + mode + "', using virtual threads");
+        }
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("io-", 1).factory());
+    }
+
+    /**
+     * Runs a blocking task on the given executor. Checked exceptions complete the future
+     * exceptionally, wrapped in a CompletionException like any other failure.
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Callable<T> task, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    public static <T> CompletableFuture<T> supplyAsync(Callable<T> task) {
+        return supplyAsync(task, io());
+    }
+
+    /**
+     * The exception a task actually threw, without CompletionException/ExecutionException wrappers.
+     */
+    public static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof java.util.concurrent.ExecutionException)
+                && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
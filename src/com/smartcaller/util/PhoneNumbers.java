@@ -0,0 +1,100 @@
+package com.smartcaller.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Normalized phone-number keys. "+15551234567", "15551234567", "+1 (555) 123-4567" and
+ * "0015551234567" are all the same contact: spaces, dashes, dots and parentheses are
+ * ignored, and a leading "+" or international "00" prefix is dropped. The 10-15 digits
+ * left are packed into one long (value plus digit count, so leading zeros still count),
+ * which is what history lookups and the calls.phone_key column match on.
+ *
+ * intern() shares one String instance per distinct spelling across all loaded calls.
+ */
+public final class PhoneNumbers {
+    public static final long NO_KEY = -1;
+
+    private static final int MIN_DIGITS = 10;
+    private static final int MAX_DIGITS = 15;
+    private static final int DIGIT_COUNT_SHIFT = 50; // 10^15 < 2^50
+    private static final int MAX_INTERNED = 200_000;
+    private static final Map<String, String> INTERNED = new ConcurrentHashMap<>();
+
+    private PhoneNumbers() {
+    }
+
+    /**
+     * The number's key, or NO_KEY if it is not a 10-15 digit phone number. Allocates nothing.
+     */
+    public static long key(String phoneNumber) {
+        if (phoneNumber == null) {
+            return NO_KEY;
+        }
+        int length = phoneNumber.length();
+        int i = 0;
+        while (i < length && phoneNumber.charAt(i) == ' ') {
+            i++;
+        }
+        if (i < length && phoneNumber.charAt(i) == '+') {
+            i++;
+        } else if (i + 1 < length && phoneNumber.charAt(i) == '0' && phoneNumber.charAt(i + 1) == '0') {
+            i += 2;
+        }
+
+        long value = 0;
+        int digits = 0;
+        for (; i < length; i++) {
+            char c = phoneNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_DIGITS) {
+                    return NO_KEY;
+                }
+                value = value * 10 + (c - '0');
+            } else if (c != ' ' && c != '-' && c != '.' && c != '(' && c != ')') {
+                return NO_KEY;
+            }
+        }
+        if (digits < MIN_DIGITS) {
+            return NO_KEY;
+        }
+        return ((long) digits << DIGIT_COUNT_SHIFT) | value;
+    }
+
+    /**
+     * The canonical digits-only form, e.g. "15551234567", or null if the number has no key.
+     */
+    public static String normalize(String phoneNumber) {
+        long key = key(phoneNumber);
+        if (key == NO_KEY) {
+            return null;
+        }
+        int digits = (int) (key >>> DIGIT_COUNT_SHIFT);
+        String value = Long.toString(key & ((1L << DIGIT_COUNT_SHIFT) - 1));
+        return "0".repeat(digits - value.length()) + value;
+    }
+
+    public static boolean sameNumber(String a, String b) {
+        long key = key(a);
+        return key != NO_KEY && key == key(b);
+    }
+
+    /**
+     * One shared instance per distinct spelling, so a contact's calls don't each carry a
+     * copy. Stops sharing (returning the argument) once MAX_INTERNED spellings are held.
+     */
+    public static String intern(String phoneNumber) {
+        if (phoneNumber == null) {
+            return null;
+        }
+        String shared = INTERNED.get(phoneNumber);
+        if (shared != null) {
+            return shared;
+        }
+        if (INTERNED.size() >= MAX_INTERNED) {
+            return phoneNumber;
+        }
+        shared = INTERNED.putIfAbsent(phoneNumber, phoneNumber);
+        return shared != null ? shared : phoneNumber;
+    }
+}
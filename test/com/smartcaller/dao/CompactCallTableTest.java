@@ -0,0 +1,72 @@
+package com.smartcaller.dao;
+
+import com.smartcaller.model.Call;
+import com.smartcaller.model.CallStatus;
+import com.smartcaller.model.VoiceCall;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactCallTableTest {
+    private static final int CALLS = 500;
+    private final LocalDateTime start = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+    @Test
+    void reschedulingManyTimesKeepsTheTableBounded() {
+        CompactCallTable table = new CompactCallTable();
+        for (int id = 1; id <= CALLS; id++) {
+            table.put(id, call(id, "Contact " + id, start.plusMinutes(id)));
+        }
+
+        for (int round = 1; round <= 200; round++) {
+            for (int id = 1; id <= CALLS; id++) {
+                // Reverse the order every round so the merge path is exercised too
+                int minutes = round % 2 == 0 ? id : CALLS - id;
+                table.setScheduledTime(id, start.plusDays(round).plusMinutes(minutes));
+            }
+        }
+
+        // 100,000 reschedules; without compaction that many slots would need 131,072
+        assertTrue(table.capacity() <= 4 * 1024, "capacity " + table.capacity());
+        assertEquals(CALLS, table.size());
+        List<Call> calls = table.inTimeOrder(null);
+        assertEquals(CALLS, calls.size());
+        for (int i = 0; i < CALLS; i++) {
+            Call call = calls.get(i);
+            assertEquals(i + 1, call.getId());
+            assertEquals("Contact " + call.getId(), call.getContactName());
+            assertEquals(start.plusDays(200).plusMinutes(i + 1), call.getScheduledTime());
+        }
+        assertEquals(1, table.byPhone("+1 (555) 000-0007").size());
+    }
+
+    @Test
+    void deletedCallsDoNotLeaveTheirStringsBehind() {
+        CompactCallTable table = new CompactCallTable();
+        for (int id = 1; id <= 100_000; id++) {
+            table.put(id, call(id, "Contact " + id, start.plusMinutes(id)));
+            if (id > 100) {
+                table.remove(id - 100);
+            }
+        }
+
+        assertEquals(100, table.size());
+        assertTrue(table.capacity() <= 4 * 1024, "capacity " + table.capacity());
+        assertTrue(table.dictionarySize() <= 8 * 1024, "dictionary " + table.dictionarySize());
+        Call last = table.get(100_000);
+        assertEquals("Contact 100000", last.getContactName());
+        assertEquals(CallStatus.PENDING, last.getStatus());
+        assertEquals(100, table.after(null, 0, 1_000).size());
+    }
+
+    private static Call call(int id, String name, LocalDateTime time) {
+        Call call = new VoiceCall(name, String.format("+1555%07d", id), time);
+        call.setId(id);
+        return call;
+    }
+}
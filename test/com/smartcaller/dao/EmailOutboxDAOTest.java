@@ -0,0 +1,121 @@
+package com.smartcaller.dao;
+
+import com.smartcaller.model.OutboxMessage;
+import com.smartcaller.model.OutboxStatus;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmailOutboxDAOTest {
+    private final FakeOutboxTable table = new FakeOutboxTable();
+    private final EmailOutboxDAO dao = new EmailOutboxDAO(table::connect);
+
+    @Test
+    void secondEnqueueOfTheSameKeyIsReportedAsDuplicate() throws Exception {
+        assertTrue(dao.enqueue(reminder()));
+        assertFalse(dao.enqueue(reminder()));
+        assertEquals(1, table.statusByKey.size());
+
+        table.statusByKey.put("call-1-15m", OutboxStatus.SENT);
+        assertFalse(dao.enqueue(reminder()));
+        assertEquals(OutboxStatus.SENT, table.statusByKey.get("call-1-15m"));
+    }
+
+    @Test
+    void cancelledMessageIsRevived() throws Exception {
+        assertTrue(dao.enqueue(reminder()));
+        table.statusByKey.put("call-1-15m", OutboxStatus.CANCELLED);
+
+        assertTrue(dao.enqueue(reminder()));
+        assertEquals(OutboxStatus.PENDING, table.statusByKey.get("call-1-15m"));
+        assertFalse(dao.enqueue(reminder()));
+    }
+
+    private static OutboxMessage reminder() {
+        return new OutboxMessage("call-1-15m", 1, "boss@example.com", "Reminder", "Call at 10:00");
+    }
+
+    /**
+     * Just enough of MySQL behind JDBC for enqueue: the unique idempotency key, and update
+     * counts reported as rows found, which is what Connector/J returns by default.
+     */
+    private static final class FakeOutboxTable {
+        final Map<String, OutboxStatus> statusByKey = new HashMap<>();
+        private long nextId;
+
+        Connection connect() {
+            return proxy(Connection.class, (method, args) -> switch (method) {
+                case "prepareStatement" -> statement((String) args[0]);
+                case "close" -> null;
+                default -> throw new UnsupportedOperationException(method);
+            });
+        }
+
+        private PreparedStatement statement(String sql) {
+            Map<Integer, Object> params = new HashMap<>();
+            return proxy(PreparedStatement.class, (method, args) -> switch (method) {
+                case "setString", "setInt", "setLong", "setTimestamp" -> params.put((Integer) args[0], args[1]);
+                case "executeUpdate" -> execute(sql, params);
+                case "getGeneratedKeys" -> generatedKey(nextId);
+                case "close" -> null;
+                default -> throw new UnsupportedOperationException(method);
+            });
+        }
+
+        private int execute(String sql, Map<Integer, Object> params) throws SQLException {
+            if (sql.startsWith("INSERT INTO email_outbox")) {
+                String key = (String) params.get(1);
+                if (statusByKey.containsKey(key)) {
+                    if (sql.contains("ON DUPLICATE KEY UPDATE")) {
+                        return 1; // found, whether or not anything changed
+                    }
+                    throw new SQLIntegrityConstraintViolationException(
+                            "Duplicate entry '" + key + "' for key 'idempotency_key'", "23000", 1062);
+                }
+                statusByKey.put(key, OutboxStatus.valueOf((String) params.get(6)));
+                nextId++;
+                return 1;
+            }
+            if (sql.startsWith("UPDATE email_outbox SET status = ?, next_attempt_at = ? WHERE idempotency_key = ? AND status = ?")) {
+                String key = (String) params.get(3);
+                if (statusByKey.get(key) != OutboxStatus.valueOf((String) params.get(4))) {
+                    return 0;
+                }
+                statusByKey.put(key, OutboxStatus.valueOf((String) params.get(1)));
+                return 1;
+            }
+            throw new UnsupportedOperationException(sql);
+        }
+
+        private static ResultSet generatedKey(long id) {
+            boolean[] read = {false};
+            return proxy(ResultSet.class, (method, args) -> switch (method) {
+                case "next" -> !read[0] && (read[0] = true);
+                case "getLong" -> id;
+                case "close" -> null;
+                default -> throw new UnsupportedOperationException(method);
+            });
+        }
+
+        private interface Handler {
+            Object handle(String method, Object[] args) throws SQLException;
+        }
+
+        private static <T> T proxy(Class<T> type, Handler handler) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    (proxy, method, args) -> handler.handle(method.getName(), args)));
+        }
+    }
+}
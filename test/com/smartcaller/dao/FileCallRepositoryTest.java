@@ -0,0 +1,181 @@
+package com.smartcaller.dao;
+
+import com.smartcaller.model.Call;
+import com.smartcaller.model.CallStatus;
+import com.smartcaller.model.VoiceCall;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FileCallRepositoryTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void failedWriteLeavesNoPartialRecord() throws Exception {
+        Path file = dir.resolve("calls.db");
+        FailingChannel[] channel = new FailingChannel[1];
+        try (FileCallRepository repository = FileCallRepository.open(file, false,
+                (path, options) -> channel[0] = new FailingChannel(FileChannel.open(path, options)))) {
+            repository.addCall(call("Before"));
+            channel[0].failWrites = true;
+            assertThrows(SQLException.class, () -> repository.addCall(call("Failed")));
+            channel[0].failWrites = false;
+            repository.addCall(call("After"));
+        }
+
+        assertEquals(List.of("Before", "After"), names(file));
+    }
+
+    @Test
+    void failedFsyncLeavesNoRecord() throws Exception {
+        Path file = dir.resolve("calls.db");
+        FailingChannel[] channel = new FailingChannel[1];
+        try (FileCallRepository repository = FileCallRepository.open(file, true,
+                (path, options) -> channel[0] = new FailingChannel(FileChannel.open(path, options)))) {
+            int id = repository.addCall(call("Before"));
+            channel[0].failForce = true;
+            assertThrows(SQLException.class, () -> repository.updateCallStatus(id, CallStatus.COMPLETED));
+            channel[0].failForce = false;
+            repository.addCall(call("After"));
+        }
+
+        try (FileCallRepository reopened = FileCallRepository.open(file)) {
+            List<Call> calls = reopened.getAllCalls();
+            assertEquals(2, calls.size());
+            assertEquals(CallStatus.PENDING, calls.get(0).getStatus());
+        }
+    }
+
+    private static List<String> names(Path file) throws SQLException {
+        try (FileCallRepository reopened = FileCallRepository.open(file)) {
+            return reopened.getAllCalls().stream().map(Call::getContactName).toList();
+        }
+    }
+
+    private static Call call(String name) {
+        return new VoiceCall(name, "+15551234567", LocalDateTime.now().plusDays(1));
+    }
+
+    // Delegates to a real channel; on demand, writes half of the buffer and then fails
+    private static final class FailingChannel extends FileChannel {
+        private final FileChannel delegate;
+        volatile boolean failWrites;
+        volatile boolean failForce;
+
+        FailingChannel(FileChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (failWrites) {
+                ByteBuffer half = src.slice().limit(src.remaining() / 2);
+                int written = delegate.write(half);
+                src.position(src.position() + written);
+                throw new IOException("disk full");
+            }
+            return delegate.write(src);
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            if (failForce) {
+                throw new IOException("fsync failed");
+            }
+            delegate.force(metaData);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.smartcaller.dao;
+
+import com.smartcaller.model.Call;
+import com.smartcaller.model.CallSeries;
+import com.smartcaller.model.RecurrenceRule;
+import com.smartcaller.model.VoiceCall;
+import com.smartcaller.service.CallManager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WriteBehindCallRepositoryTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void failedSeriesSaveDoesNotDuplicateOccurrences() throws Exception {
+        FakeDatabase database = new FakeDatabase();
+        database.failSeriesUpdates = true;
+        try (WriteBehindCallRepository repository = WriteBehindCallRepository.open(database, dir, false, 60_000, 50_000)) {
+            CallManager manager = new CallManager(repository);
+            manager.setSeriesHorizon(Duration.ofDays(7));
+            manager.scheduleSeries(new VoiceCall("Standup", "+15551234567",
+                    LocalDateTime.now().plusHours(1)), RecurrenceRule.daily());
+            assertEquals(0, manager.expandSeries());
+            assertEquals(0, repository.getAllCalls().size());
+
+            database.failSeriesUpdates = false;
+            int added = manager.expandSeries();
+            repository.flush();
+
+            assertEquals(7, added);
+            assertEquals(added, repository.getAllCalls().size());
+            assertEquals(added, manager.getPendingCount());
+            assertEquals(added, database.rows.size());
+            Set<LocalDateTime> times = new HashSet<>();
+            for (Call call : database.rows.values()) {
+                times.add(call.getScheduledTime());
+            }
+            assertEquals(added, times.size());
+        }
+    }
+
+    // Stands in for MySQL: keeps flushed rows and series in memory
+    private static final class FakeDatabase extends CallDAO {
+        final Map<Integer, Call> rows = new TreeMap<>();
+        final Map<Integer, CallSeries> series = new TreeMap<>();
+        volatile boolean failSeriesUpdates;
+
+        @Override
+        public List<Call> getAllCalls() {
+            return new ArrayList<>(rows.values());
+        }
+
+        @Override
+        public int getMaxId() {
+            return 0;
+        }
+
+        @Override
+        public synchronized void applyChanges(Collection<Call> upserts, Collection<Integer> deletes, int chunkSize) {
+            for (Call call : upserts) {
+                rows.put(call.getId(), call);
+            }
+            for (int id : deletes) {
+                rows.remove(id);
+            }
+        }
+
+        @Override
+        public synchronized int addSeries(CallSeries added) {
+            int id = series.size() + 1;
+            series.put(id, new CallSeries(added));
+            return id;
+        }
+
+        @Override
+        public synchronized List<CallSeries> getAllSeries() {
+            return new ArrayList<>(series.values());
+        }
+
+        @Override
+        public synchronized boolean updateSeries(CallSeries updated) throws SQLException {
+            if (failSeriesUpdates) {
+                throw new SQLException("Communications link failure");
+            }
+            return series.replace(updated.getId(), new CallSeries(updated)) != null;
+        }
+    }
+}
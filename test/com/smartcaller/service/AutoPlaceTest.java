@@ -0,0 +1,71 @@
+package com.smartcaller.service;
+
+import com.smartcaller.dao.InMemoryCallRepository;
+import com.smartcaller.model.Call;
+import com.smartcaller.model.EmergencyCall;
+import com.smartcaller.model.VoiceCall;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AutoPlaceTest {
+    private final LocalDateTime slot = LocalDate.now().plusDays(2).atTime(10, 0);
+    private final FlakyRepository repository = new FlakyRepository();
+    private CallManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new CallManager(repository);
+        manager.setWorkingHours(new WorkingHours(LocalTime.of(8, 0), LocalTime.of(18, 0),
+                EnumSet.allOf(DayOfWeek.class)));
+    }
+
+    @Test
+    void bumpedCallIsMovedBackWhenTheEmergencyIsNotStored() throws Exception {
+        Call routine = new VoiceCall("Bob", "+15550000001", slot);
+        routine.setPriority(1);
+        manager.scheduleCall(routine);
+        repository.failBatches = true;
+
+        AutoPlaceResult result = manager.autoPlace(
+                List.of(new EmergencyCall("Dispatch", "+15559990000", null, "Fire")), slot);
+
+        assertEquals(1, result.scheduled().getFailureCount());
+        assertTrue(result.bumped().isEmpty());
+        assertEquals(slot, routine.getScheduledTime());
+        assertEquals(slot, repository.getAllCalls().get(0).getScheduledTime());
+        assertEquals(slot, manager.findConflicts(new VoiceCall("Carol", "+15550000002", slot)).get(0)
+                .existing().getScheduledTime());
+    }
+
+    @Test
+    void freeSlotCountMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> manager.findFreeSlots(15, slot, -1));
+        assertThrows(IllegalArgumentException.class, () -> manager.findFreeSlots(15, slot, 0));
+        assertEquals(List.of(slot), manager.findFreeSlots(15, slot, 1));
+    }
+
+    private static final class FlakyRepository extends InMemoryCallRepository {
+        volatile boolean failBatches;
+
+        @Override
+        public int[] addCalls(List<Call> calls, int chunkSize) throws SQLException {
+            if (failBatches) {
+                throw new SQLException("Connection lost");
+            }
+            return super.addCalls(calls, chunkSize);
+        }
+    }
+}
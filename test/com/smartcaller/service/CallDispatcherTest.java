@@ -0,0 +1,52 @@
+package com.smartcaller.service;
+
+import com.smartcaller.dao.InMemoryCallRepository;
+import com.smartcaller.model.Call;
+import com.smartcaller.model.CallStatus;
+import com.smartcaller.model.VoiceCall;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CallDispatcherTest {
+    private CallDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.stop();
+    }
+
+    @Test
+    void overdueCallStaysPendingWhileItAges() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        Call aged = new VoiceCall("Alice", "+15550000001", now.minusHours(3));
+        aged.setPriority(1);
+        Call fresh = new VoiceCall("Bob", "+15550000002", now.minusMinutes(1));
+        fresh.setPriority(3);
+        InMemoryCallRepository repository = new InMemoryCallRepository();
+        repository.addCalls(List.of(aged, fresh), 10);
+
+        // Set up as MainFrame does; missed calls are marked on the dispatcher thread
+        CallManager manager = new CallManager(repository, Runnable::run);
+        dispatcher = new CallDispatcher(manager, Runnable::run, Duration.ofMinutes(15));
+        CountDownLatch due = new CountDownLatch(2);
+        dispatcher.addListener(call -> due.countDown());
+        dispatcher.start();
+
+        // The aged call's grace would have run out before the fresh call came due
+        assertTrue(due.await(5, TimeUnit.SECONDS));
+        assertEquals(2, dispatcher.getTrackedCount());
+        CallLease next = manager.claimNextCall("op1");
+        assertEquals(aged.getId(), next.call().getId());
+        assertEquals(CallStatus.PENDING, next.call().getStatus());
+    }
+}
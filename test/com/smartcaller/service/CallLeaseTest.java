@@ -0,0 +1,114 @@
+package com.smartcaller.service;
+
+import com.smartcaller.dao.InMemoryCallRepository;
+import com.smartcaller.model.Call;
+import com.smartcaller.model.VoiceCall;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CallLeaseTest {
+    private final LocalDateTime slot = LocalDate.now().plusDays(2).atTime(10, 0);
+    private final FlakyRepository repository = new FlakyRepository();
+    private CallManager manager;
+    private Call call;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        manager = new CallManager(repository);
+        manager.setWorkingHours(new WorkingHours(LocalTime.of(8, 0), LocalTime.of(18, 0),
+                EnumSet.allOf(DayOfWeek.class)));
+        call = new VoiceCall("Alice", "+15551234567", slot);
+        manager.scheduleCall(call);
+    }
+
+    @Test
+    void leasedCallKeepsItsSlot() {
+        CallLease lease = manager.claimNextCall("op1");
+        assertSame(call, lease.call());
+
+        assertNull(manager.getNextCall());
+        assertEquals(1, manager.getPendingCount());
+        assertEquals(List.of(call), manager.getUpcomingCalls());
+        assertFalse(manager.findConflicts(new VoiceCall("Alice", "+15551234567", slot.plusMinutes(5))).isEmpty());
+        assertNotEquals(slot, manager.findFreeSlots(15, slot, 1).get(0));
+        assertFalse(manager.markCallMissed(call));
+
+        assertTrue(manager.completeCall(lease));
+        assertEquals(0, manager.getPendingCount());
+        assertTrue(manager.getUpcomingCalls().isEmpty());
+        assertEquals(slot, manager.findFreeSlots(15, slot, 1).get(0));
+    }
+
+    @Test
+    void releasedCallGoesBackInOrder() {
+        CallLease lease = manager.claimNextCall("op1");
+        assertTrue(manager.releaseCall(lease));
+
+        assertSame(call, manager.getNextCall());
+        assertEquals(1, manager.getPendingCount());
+        assertSame(call, manager.claimNextCall("op2").call());
+    }
+
+    @Test
+    void undoLeavesACallAnotherInstanceIsWorking() throws Exception {
+        CallManager other = new CallManager(repository);
+        CallLease lease = other.claimNextCall("op2");
+        assertEquals(call.getId(), lease.call().getId());
+
+        assertFalse(manager.undoLastAction());
+        assertEquals(1, repository.getAllCalls().size());
+        assertEquals(1, manager.getPendingCount());
+        assertNull(manager.claimNextCall("op1"));
+
+        assertTrue(other.releaseCall(lease));
+        assertTrue(manager.undoLastAction());
+        assertTrue(repository.getAllCalls().isEmpty());
+        assertEquals(0, manager.getPendingCount());
+    }
+
+    @Test
+    void failedUndoLeavesTheCallUndoableAndUnheld() {
+        repository.failDeletes = true;
+        assertFalse(manager.undoLastAction());
+        assertFalse(manager.redoLastAction());
+        assertEquals(1, manager.getPendingCount());
+
+        // The hold taken for the delete is gone, so another instance can work the call
+        CallManager other = new CallManager(repository);
+        CallLease lease = other.claimNextCall("op2");
+        assertEquals(call.getId(), lease.call().getId());
+        assertTrue(other.releaseCall(lease));
+
+        repository.failDeletes = false;
+        assertTrue(manager.undoLastAction());
+        assertEquals(0, manager.getPendingCount());
+    }
+
+    private static final class FlakyRepository extends InMemoryCallRepository {
+        volatile boolean failDeletes;
+
+        @Override
+        public boolean deleteCall(int callId) throws SQLException {
+            if (failDeletes) {
+                throw new SQLException("Connection lost");
+            }
+            return super.deleteCall(callId);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.smartcaller.service;
+
+import com.smartcaller.dao.InMemoryCallRepository;
+import com.smartcaller.model.Call;
+import com.smartcaller.model.CallStatus;
+import com.smartcaller.model.VoiceCall;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many threads scheduling and taking calls at once: every call scheduled must be taken
+ * exactly once, whether it went through processNextCall or an operator's lease.
+ */
+class CallManagerStressTest {
+    private static final int PRODUCERS = 4;
+    private static final int CALLS_PER_PRODUCER = 2_500;
+    private static final int CONSUMERS = 6;
+
+    private PrintStream out;
+
+    @BeforeEach
+    void silence() {
+        out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @AfterEach
+    void restore() {
+        System.setOut(out);
+    }
+
+    @Test
+    @Timeout(120)
+    void concurrentProducersAndConsumersTakeEveryCallOnce() throws Exception {
+        InMemoryCallRepository repository = new InMemoryCallRepository();
+        CallManager manager = new CallManager(repository);
+        manager.setConflictPolicy(CallManager.ConflictPolicy.OFF);
+
+        Set<Integer> taken = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        AtomicInteger producersLeft = new AtomicInteger(PRODUCERS);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(PRODUCERS + CONSUMERS);
+        List<Future<?>> tasks = new ArrayList<>();
+
+        for (int p = 0; p < PRODUCERS; p++) {
+            int producer = p;
+            tasks.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    for (int i = 0; i < CALLS_PER_PRODUCER; i++) {
+                        Call call = new VoiceCall("P" + producer + "-" + i,
+                                "+1555" + String.format("%07d", random.nextInt(500)),
+                                LocalDateTime.now().plusMinutes(1 + random.nextInt(10_000)));
+                        call.setPriority(1 + random.nextInt(9));
+                        manager.scheduleCall(call);
+                    }
+                } finally {
+                    producersLeft.decrementAndGet();
+                }
+                return null;
+            }));
+        }
+        for (int c = 0; c < CONSUMERS; c++) {
+            // Half take calls one at a time, half as operators with calls queued ahead
+            String operator = c % 2 == 0 ? null : "op" + c;
+            tasks.add(pool.submit(() -> {
+                start.await();
+                while (true) {
+                    boolean producing = producersLeft.get() > 0;
+                    Call call = next(manager, operator);
+                    if (call == null) {
+                        if (!producing && manager.getPendingCount() == 0) {
+                            return null;
+                        }
+                        Thread.onSpinWait();
+                    } else if (!taken.add(call.getId())) {
+                        duplicates.incrementAndGet();
+                    }
+                }
+            }));
+        }
+
+        start.countDown();
+        pool.shutdown();
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+
+        int scheduled = PRODUCERS * CALLS_PER_PRODUCER;
+        assertEquals(0, duplicates.get(), "calls handed out twice");
+        assertEquals(scheduled, taken.size(), "calls lost");
+        assertEquals(0, manager.getPendingCount());
+        assertTrue(manager.getActiveLeases().isEmpty());
+        List<Call> stored = repository.getAllCalls();
+        assertEquals(scheduled, stored.size());
+        assertTrue(stored.stream().allMatch(call -> call.getStatus() == CallStatus.COMPLETED));
+    }
+
+    private static Call next(CallManager manager, String operator) {
+        if (operator == null) {
+            return manager.processNextCall();
+        }
+        CallLease lease = manager.claimNextCall(operator);
+        return lease != null && manager.completeCall(lease) ? lease.call() : null;
+    }
+}
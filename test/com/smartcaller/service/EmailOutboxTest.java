@@ -0,0 +1,234 @@
+package com.smartcaller.service;
+
+import com.smartcaller.dao.EmailOutboxDAO;
+import com.smartcaller.model.OutboxMessage;
+import com.smartcaller.model.OutboxStatus;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmailOutboxTest {
+    private static final SmtpSettings SETTINGS = new SmtpSettings("outbox.test", 587, "user", "secret", "user@outbox.test");
+
+    private FakeTransport.Server server;
+    private InMemoryOutboxDAO table;
+
+    @BeforeEach
+    void setUp() {
+        server = FakeTransport.serve("outbox.test");
+        table = new InMemoryOutboxDAO();
+    }
+
+    @Test
+    void transientFailureIsRetriedLater() throws Exception {
+        EmailOutbox outbox = outbox();
+        assertTrue(outbox.enqueue(reminder("call-1-24h", 1)));
+        server.failNext(FakeTransport.Failure.TEMPORARY);
+
+        assertEquals(0, outbox.drainOnce());
+        OutboxMessage row = table.only();
+        assertEquals(OutboxStatus.PENDING, row.getStatus());
+        assertEquals(1, row.getAttempts());
+        assertTrue(row.getNextAttemptAt().isAfter(LocalDateTime.now()), "backed off");
+        assertEquals(0, outbox.drainOnce(), "not due yet");
+
+        row.setNextAttemptAt(LocalDateTime.now());
+        assertEquals(1, outbox.drainOnce());
+        assertEquals(OutboxStatus.SENT, table.only().getStatus());
+        assertEquals(List.of("boss@example.com"), server.delivered());
+        outbox.stop();
+    }
+
+    @Test
+    void queuedMessageSurvivesRestart() throws Exception {
+        EmailOutbox before = outbox();
+        assertTrue(before.enqueue(reminder("call-7-15m", 7)));
+        before.stop();
+
+        // A new outbox on the same table, as after restarting the app
+        EmailOutbox after = outbox();
+        assertFalse(after.enqueue(reminder("call-7-15m", 7)), "stored once");
+        assertEquals(1, after.drainOnce());
+        assertEquals(List.of("boss@example.com"), server.delivered());
+        assertEquals(0, after.drainOnce());
+        after.stop();
+    }
+
+    @Test
+    void instancesSharingTheTableSendEachMessageOnce() throws Exception {
+        EmailOutbox first = outbox();
+        EmailOutbox second = outbox();
+        for (int i = 1; i <= 3; i++) {
+            assertTrue(first.enqueue(new OutboxMessage("call-" + i + "-15m", i,
+                    "boss" + i + "@example.com", "Reminder", "Call at 10:00")));
+        }
+
+        // The second instance drains while the first is still sending its batch
+        int[] sentBySecond = new int[1];
+        table.afterClaim = () -> {
+            try {
+                sentBySecond[0] = second.drainOnce();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        int sentByFirst = first.drainOnce();
+
+        assertEquals(3, sentByFirst);
+        assertEquals(0, sentBySecond[0]);
+        assertEquals(3, server.delivered().size());
+        assertEquals(0, second.drainOnce());
+        first.stop();
+        second.stop();
+    }
+
+    private EmailOutbox outbox() throws Exception {
+        SmtpTransportPool pool = new SmtpTransportPool(SETTINGS, 1);
+        FakeTransport.install(pool.getSession());
+        return new EmailOutbox(table, pool);
+    }
+
+    private static OutboxMessage reminder(String key, int callId) {
+        return new OutboxMessage(key, callId, "boss@example.com", "Reminder", "Call at 10:00");
+    }
+
+    // The email_outbox table, kept in memory
+    private static final class InMemoryOutboxDAO extends EmailOutboxDAO {
+        private final Map<Long, OutboxMessage> rows = new LinkedHashMap<>();
+        private final Map<Long, LocalDateTime> leases = new HashMap<>();
+        private long nextId;
+        // Runs once, after the next claim and before its batch is sent
+        private volatile Runnable afterClaim;
+
+        synchronized OutboxMessage only() {
+            assertEquals(1, rows.size());
+            return rows.values().iterator().next();
+        }
+
+        @Override
+        public void createTableIfMissing() {
+        }
+
+        @Override
+        public synchronized boolean enqueue(OutboxMessage message) {
+            for (OutboxMessage row : rows.values()) {
+                if (row.getIdempotencyKey().equals(message.getIdempotencyKey())) {
+                    if (row.getStatus() != OutboxStatus.CANCELLED) {
+                        return false;
+                    }
+                    row.setStatus(OutboxStatus.PENDING);
+                    row.setNextAttemptAt(message.getNextAttemptAt());
+                    return true;
+                }
+            }
+            OutboxMessage row = new OutboxMessage(message.getIdempotencyKey(), message.getCallId(),
+                    message.getRecipient(), message.getSubject(), message.getBody());
+            row.setId(++nextId);
+            row.setNextAttemptAt(message.getNextAttemptAt());
+            rows.put(row.getId(), row);
+            message.setId(row.getId());
+            return true;
+        }
+
+        @Override
+        public List<OutboxMessage> claimDue(String owner, Duration lease, int limit) {
+            List<OutboxMessage> due = new ArrayList<>();
+            synchronized (this) {
+                LocalDateTime now = LocalDateTime.now();
+                for (OutboxMessage row : rows.values()) {
+                    LocalDateTime held = leases.get(row.getId());
+                    if (row.getStatus() == OutboxStatus.PENDING && !row.getNextAttemptAt().isAfter(now)
+                            && (held == null || !held.isAfter(now)) && due.size() < limit) {
+                        OutboxMessage copy = new OutboxMessage(row.getIdempotencyKey(), row.getCallId(),
+                                row.getRecipient(), row.getSubject(), row.getBody());
+                        copy.setId(row.getId());
+                        copy.setAttempts(row.getAttempts());
+                        copy.setNextAttemptAt(row.getNextAttemptAt());
+                        leases.put(row.getId(), now.plus(lease));
+                        due.add(copy);
+                    }
+                }
+            }
+            Runnable hook = afterClaim;
+            afterClaim = null;
+            if (hook != null) {
+                hook.run();
+            }
+            return due;
+        }
+
+        @Override
+        public synchronized boolean markSent(long id) {
+            leases.remove(id);
+            OutboxMessage row = rows.get(id);
+            row.setStatus(OutboxStatus.SENT);
+            row.setAttempts(row.getAttempts() + 1);
+            row.setLastError(null);
+            return true;
+        }
+
+        @Override
+        public synchronized boolean markRetry(long id, int attempts, LocalDateTime nextAttemptAt, String error) {
+            leases.remove(id);
+            OutboxMessage row = rows.get(id);
+            row.setAttempts(attempts);
+            row.setNextAttemptAt(nextAttemptAt);
+            row.setLastError(error);
+            return true;
+        }
+
+        @Override
+        public synchronized boolean defer(long id, LocalDateTime nextAttemptAt) {
+            leases.remove(id);
+            rows.get(id).setNextAttemptAt(nextAttemptAt);
+            return true;
+        }
+
+        @Override
+        public synchronized boolean markDead(long id, int attempts, String error) {
+            leases.remove(id);
+            OutboxMessage row = rows.get(id);
+            row.setStatus(OutboxStatus.DEAD);
+            row.setAttempts(attempts);
+            row.setLastError(error);
+            return true;
+        }
+
+        @Override
+        public synchronized int cancelForCall(int callId) {
+            int cancelled = 0;
+            for (OutboxMessage row : rows.values()) {
+                if (row.getCallId() == callId && row.getStatus() == OutboxStatus.PENDING) {
+                    row.setStatus(OutboxStatus.CANCELLED);
+                    cancelled++;
+                }
+            }
+            return cancelled;
+        }
+
+        @Override
+        public synchronized Map<OutboxStatus, Integer> countByStatus() {
+            Map<OutboxStatus, Integer> counts = new EnumMap<>(OutboxStatus.class);
+            for (OutboxStatus status : OutboxStatus.values()) {
+                counts.put(status, 0);
+            }
+            for (OutboxMessage row : rows.values()) {
+                counts.merge(row.getStatus(), 1, Integer::sum);
+            }
+            return counts;
+        }
+    }
+}
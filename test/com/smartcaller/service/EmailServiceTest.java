@@ -0,0 +1,82 @@
+package com.smartcaller.service;
+
+import com.smartcaller.model.VoiceCall;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmailServiceTest {
+    private FakeTransport.Server server;
+    private SmtpTransportPool pool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = FakeTransport.serve("mail.test");
+        pool = new SmtpTransportPool(new SmtpSettings("mail.test", 587, "user", "secret", "user@mail.test"), 2);
+        FakeTransport.install(pool.getSession());
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void bulkSendReusesPooledConnections() throws Exception {
+        List<EmailResult> results = EmailService.sendBulk(pool, messages(20));
+        assertTrue(results.stream().allMatch(EmailResult::success));
+        List<EmailResult> again = EmailService.sendBulk(pool, messages(20));
+        assertTrue(again.stream().allMatch(EmailResult::success));
+
+        assertEquals(40, server.delivered().size());
+        // One handshake per connection, kept across both batches
+        assertTrue(server.connects.get() <= pool.getMaxConnections(), "connects: " + server.connects.get());
+    }
+
+    @Test
+    void droppedConnectionIsReopenedAndTheMessageSent() throws Exception {
+        server.failNext(FakeTransport.Failure.DROP);
+        List<EmailResult> results = EmailService.sendBulk(pool, messages(1));
+
+        assertTrue(results.get(0).success());
+        assertEquals(List.of("to0@example.com"), server.delivered());
+        assertEquals(2, server.connects.get());
+    }
+
+    @Test
+    void rejectedRecipientFailsOnlyItsMessage() throws Exception {
+        server.failNext(FakeTransport.Failure.REJECT);
+        List<EmailResult> results = EmailService.sendBulk(pool, messages(3));
+
+        assertEquals(1, results.stream().filter(result -> !result.success()).count());
+        assertEquals(2, server.delivered().size());
+    }
+
+    @Test
+    void reminderNamesTheContact() throws Exception {
+        VoiceCall call = new VoiceCall("Alice", "+15551234567", LocalDateTime.of(2030, 1, 2, 10, 0));
+        Message message = EmailService.createReminderMessage(pool.getSession(), "user@mail.test", "boss@example.com", call);
+
+        assertEquals("📞 Call Reminder: Alice", message.getSubject());
+        assertTrue(((String) message.getContent()).contains("Phone: +15551234567"));
+    }
+
+    private List<Message> messages(int count) throws MessagingException {
+        List<Message> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            messages.add(EmailService.createMessage(pool.getSession(), "user@mail.test", "to" + i + "@example.com",
+                    "Reminder " + i, "Body " + i));
+        }
+        return messages;
+    }
+}
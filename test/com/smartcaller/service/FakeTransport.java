@@ -0,0 +1,96 @@
+package com.smartcaller.service;
+
+import javax.mail.Address;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Provider;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.URLName;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An in-process stand-in for an SMTP server. Install it on a Session with install(); the
+ * connection then goes to the Server registered under the host it connects to, which
+ * records what was sent and fails the next sends as scripted.
+ */
+public class FakeTransport extends Transport {
+    private static final Map<String, Server> SERVERS = new ConcurrentHashMap<>();
+
+    private Server server;
+
+    public FakeTransport(Session session, URLName url) {
+        super(session, url);
+    }
+
+    static void install(Session session) throws MessagingException {
+        session.setProvider(new Provider(Provider.Type.TRANSPORT, "smtp", FakeTransport.class.getName(),
+                "test", "1.0"));
+    }
+
+    static Server serve(String host) {
+        Server server = new Server();
+        SERVERS.put(host, server);
+        return server;
+    }
+
+    @Override
+    protected boolean protocolConnect(String host, int port, String user, String password) throws MessagingException {
+        server = SERVERS.get(host);
+        if (server == null) {
+            throw new MessagingException("Unknown host " + host);
+        }
+        server.connects.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    public void sendMessage(Message message, Address[] addresses) throws MessagingException {
+        if (!isConnected()) {
+            throw new MessagingException("Not connected");
+        }
+        Failure failure = server.nextFailure();
+        if (failure == Failure.DROP) {
+            setConnected(false);
+            throw new MessagingException("Connection reset");
+        }
+        if (failure == Failure.TEMPORARY) {
+            throw new MessagingException("421 Service not available, try again later");
+        }
+        if (failure == Failure.REJECT) {
+            throw new SendFailedException("550 No such user", null, new Address[0], new Address[0], addresses);
+        }
+        server.record(addresses[0].toString());
+    }
+
+    enum Failure { DROP, TEMPORARY, REJECT }
+
+    static final class Server {
+        final AtomicInteger connects = new AtomicInteger();
+        private final List<String> delivered = new ArrayList<>();
+        private final Deque<Failure> failures = new ArrayDeque<>();
+
+        synchronized void failNext(Failure failure) {
+            failures.addLast(failure);
+        }
+
+        synchronized List<String> delivered() {
+            return new ArrayList<>(delivered);
+        }
+
+        private synchronized Failure nextFailure() {
+            return failures.pollFirst();
+        }
+
+        private synchronized void record(String recipient) {
+            delivered.add(recipient);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.smartcaller.service;
+
+import com.smartcaller.dao.InMemoryCallRepository;
+import com.smartcaller.exception.InvalidScheduleException;
+import com.smartcaller.model.Call;
+import com.smartcaller.model.EmergencyCall;
+import com.smartcaller.model.VoiceCall;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OperatorCapacityTest {
+    private final LocalDateTime slot = LocalDate.now().plusDays(2).atTime(10, 0);
+    private CallManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new CallManager(new InMemoryCallRepository());
+        manager.setWorkingHours(new WorkingHours(LocalTime.of(8, 0), LocalTime.of(18, 0),
+                EnumSet.allOf(DayOfWeek.class)));
+        manager.setConflictPolicy(CallManager.ConflictPolicy.REJECT);
+        manager.setOperators(2);
+    }
+
+    @Test
+    void slotIsFullOnlyOnceEveryOperatorIsBusy() throws Exception {
+        manager.scheduleCall(call(1, slot));
+        manager.scheduleCall(call(2, slot.plusMinutes(5)));
+
+        InvalidScheduleException rejected = assertThrows(InvalidScheduleException.class,
+                () -> manager.scheduleCall(call(3, slot.plusMinutes(10))));
+        assertTrue(rejected.getMessage().contains("Contact"), rejected.getMessage());
+        // The first call has ended by then, so only one operator is busy
+        manager.scheduleCall(call(4, slot.plusMinutes(15)));
+
+        assertEquals(slot.plusMinutes(20), manager.findFreeSlots(15, slot, 1).get(0));
+        manager.setOperators(1);
+        assertEquals(1, manager.findConflicts(call(5, slot.plusMinutes(25))).size());
+    }
+
+    @Test
+    void batchKeepsAsManyOverlappingRowsAsThereAreOperators() {
+        List<Call> batch = List.of(call(1, slot), call(2, slot), call(3, slot.plusMinutes(5)), call(4, slot.plusMinutes(15)));
+
+        assertEquals(1, manager.findConflicts(batch).size());
+        BatchScheduleResult result = manager.scheduleCalls(batch);
+        assertEquals(3, result.getScheduledCount());
+        assertSame(batch.get(2), result.getFailures().get(0).call());
+    }
+
+    @Test
+    void emergencyBumpsOnlyTheLowestPriorityCall() {
+        Call low = call(1, slot);
+        low.setPriority(1);
+        Call high = call(2, slot);
+        high.setPriority(3);
+        manager.scheduleCalls(List.of(low, high));
+        Call emergency = new EmergencyCall("Dispatch", "+15559990000", null, "Fire");
+
+        AutoPlaceResult result = manager.autoPlace(List.of(emergency), slot);
+
+        assertEquals(slot, emergency.getScheduledTime());
+        assertEquals(List.of(low), result.bumped());
+        assertEquals(slot, high.getScheduledTime());
+        assertTrue(low.getScheduledTime().isAfter(slot));
+    }
+
+    private static Call call(int n, LocalDateTime time) {
+        return new VoiceCall("Contact " + n, "+1555000000" + n, time);
+    }
+}
@@ -0,0 +1,65 @@
+package com.smartcaller.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.mail.MessagingException;
+import javax.mail.Transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SmtpTransportPoolTest {
+    private FakeTransport.Server server;
+    private SmtpTransportPool pool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = FakeTransport.serve("pool.test");
+        pool = new SmtpTransportPool(new SmtpSettings("pool.test", 587, "user", "secret", "user@pool.test"), 2, 200);
+        FakeTransport.install(pool.getSession());
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void releasedConnectionIsReused() throws Exception {
+        Transport first = pool.borrow();
+        pool.release(first, false);
+        Transport second = pool.borrow();
+
+        assertSame(first, second);
+        assertEquals(1, pool.getConnectCount());
+        assertEquals(1, server.connects.get());
+        pool.release(second, false);
+    }
+
+    @Test
+    void brokenConnectionIsReplaced() throws Exception {
+        Transport first = pool.borrow();
+        pool.release(first, true);
+        Transport second = pool.borrow();
+
+        assertNotSame(first, second);
+        assertEquals(2, pool.getConnectCount());
+        pool.release(second, false);
+    }
+
+    @Test
+    void borrowWaitsForAFreeConnection() throws Exception {
+        Transport a = pool.borrow();
+        Transport b = pool.borrow();
+
+        assertThrows(MessagingException.class, pool::borrow);
+        pool.release(a, false);
+        assertSame(a, pool.borrow());
+        pool.release(a, false);
+        pool.release(b, false);
+    }
+}
@@ -0,0 +1,102 @@
+package com.smartcaller.ui;
+
+import com.smartcaller.model.Call;
+import com.smartcaller.model.CallStatus;
+import com.smartcaller.model.VoiceCall;
+
+import org.junit.jupiter.api.Test;
+
+import javax.swing.SwingUtilities;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CallTableModelTest {
+    private final LocalDateTime slot = LocalDateTime.now().plusDays(1);
+
+    @Test
+    void eventsDuringAReloadAreReplayedOnTopOfIt() throws Exception {
+        CallTableModel model = new CallTableModel(new ArrayList<>());
+        Call loaded = call(1);
+        Call added = call(2);
+        Call removed = call(3);
+
+        onEdt(model::beginReload);
+        // Events from other threads land while the load is still running
+        model.callAdded(added);
+        model.callRemoved(removed);
+        onEdt(() -> model.updateData(List.of(loaded, removed)));
+
+        assertEquals(ids(loaded, added), ids(model));
+        assertEquals(2, model.getPendingCount());
+    }
+
+    @Test
+    void failedReloadStillAppliesTheHeldEvents() throws Exception {
+        CallTableModel model = new CallTableModel(List.of(call(1)));
+
+        onEdt(model::beginReload);
+        model.callAdded(call(2));
+        onEdt(model::cancelReload);
+
+        assertEquals(Set.of(1, 2), ids(model));
+    }
+
+    @Test
+    void removingRowsKeepsTheRestAddressable() throws Exception {
+        List<Call> calls = new ArrayList<>();
+        for (int id = 1; id <= 6; id++) {
+            calls.add(call(id));
+        }
+        CallTableModel model = new CallTableModel(calls);
+        calls.get(4).setStatus(CallStatus.COMPLETED);
+
+        onEdt(() -> {
+            model.callRemoved(calls.get(1));
+            model.callRemoved(calls.get(5));
+            model.callUpdated(calls.get(4));
+            model.callRemoved(calls.get(0));
+        });
+
+        assertEquals(ids(calls.get(2), calls.get(3), calls.get(4)), ids(model));
+        assertEquals(2, model.getPendingCount());
+        // Every remaining id still resolves to its own row
+        onEdt(() -> model.callRemoved(calls.get(4)));
+        assertEquals(ids(calls.get(2), calls.get(3)), ids(model));
+        assertEquals(2, model.getPendingCount());
+    }
+
+    private Call call(int id) {
+        Call call = new VoiceCall("Contact " + id, "+1555000000" + id, slot.plusMinutes(id));
+        call.setId(id);
+        return call;
+    }
+
+    private static Set<Integer> ids(Call... calls) {
+        Set<Integer> ids = new HashSet<>();
+        for (Call call : calls) {
+            ids.add(call.getId());
+        }
+        return ids;
+    }
+
+    private static Set<Integer> ids(CallTableModel model) throws Exception {
+        Set<Integer> ids = new HashSet<>();
+        onEdt(() -> {
+            for (int row = 0; row < model.getRowCount(); row++) {
+                ids.add((Integer) model.getValueAt(row, 0));
+            }
+            assertEquals(model.getRowCount(), model.getTotalCount());
+        });
+        return ids;
+    }
+
+    // Also flushes events that were posted to the EDT before it
+    private static void onEdt(Runnable task) throws Exception {
+        SwingUtilities.invokeAndWait(task);
+    }
+}